@@ -0,0 +1,77 @@
+package com.cae.mapped_exceptions;
+
+import com.cae.mapped_exceptions.encoding.BinaryExceptionCodec;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding MappedException instances with the
+ * BinaryExceptionCodec and with Java serialization. Run it with:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.filter=BinaryCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark {
+
+    private final BinaryExceptionCodec codec = BinaryExceptionCodec.defaults();
+
+    private MappedException exception;
+
+    private byte[] encoded;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.exception = new InternalMappedException(
+                "Failed to save the company",
+                "Connection pool exhausted after 30s",
+                new IllegalStateException("Pool exhausted", new SQLException("Timeout", "08006", 0))
+        );
+        this.encoded = this.codec.encode(this.exception);
+        this.serialized = serialize(this.exception);
+    }
+
+    @Benchmark
+    public byte[] codecEncode(){
+        return this.codec.encode(this.exception);
+    }
+
+    @Benchmark
+    public Object codecDecode(){
+        return this.codec.decode(this.encoded);
+    }
+
+    @Benchmark
+    public byte[] serializationEncode() throws IOException {
+        return serialize(this.exception);
+    }
+
+    @Benchmark
+    public Object serializationDecode() throws IOException, ClassNotFoundException {
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(this.serialized))){
+            return input.readObject();
+        }
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)){
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.cae.mapped_exceptions;
+
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+import com.cae.mapped_exceptions.results.MappedResult;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares failing validations which throw and catch
+ * InputMappedException instances with ones returning MappedResult
+ * instances. Run it with:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.filter=MappedResultBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedResultBenchmark {
+
+    @Param({"", "valid"})
+    public String input;
+
+    @Benchmark
+    public Object throwAndCatch(){
+        try {
+            return validateThrowing(this.input, false);
+        } catch (InputMappedException exception){
+            return exception.getBriefPublicMessage();
+        }
+    }
+
+    @Benchmark
+    public Object throwAndCatchStackless(){
+        try {
+            return validateThrowing(this.input, true);
+        } catch (InputMappedException exception){
+            return exception.getBriefPublicMessage();
+        }
+    }
+
+    @Benchmark
+    public Object mappedResult(){
+        var result = validate(this.input);
+        return result.isSuccess()? result.orElseThrow() : result.getBriefPublicMessage();
+    }
+
+    private static String validateThrowing(String input, boolean stackless){
+        if (input.isBlank()){
+            throw new InputMappedException("Invalid input", "Input is blank", stackless);
+        }
+        return input;
+    }
+
+    private static MappedResult<String> validate(String input){
+        if (input.isBlank()){
+            return MappedResult.failure(MappedExceptionCategory.INPUT, "Invalid input", "Input is blank");
+        }
+        return MappedResult.success(input);
+    }
+
+}
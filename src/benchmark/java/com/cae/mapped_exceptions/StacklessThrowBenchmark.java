@@ -0,0 +1,67 @@
+package com.cae.mapped_exceptions;
+
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import com.cae.mapped_exceptions.stack_traces.StackTracePolicies;
+import com.cae.mapped_exceptions.stack_traces.StackTracePolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of throwing and catching NotFoundMappedException
+ * instances with and without stack trace capture. Run it with:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.filter=StacklessThrowBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StacklessThrowBenchmark {
+
+    @Setup
+    public void setUp(){
+        StackTracePolicies.register(StacklessByPolicyException.class, StackTracePolicy.stackless());
+    }
+
+    @TearDown
+    public void tearDown(){
+        StackTracePolicies.reset();
+    }
+
+    @Benchmark
+    public Object fullStackTrace(){
+        try {
+            throw new NotFoundMappedException("Not found", "Nothing under the id 42");
+        } catch (NotFoundMappedException exception){
+            return exception;
+        }
+    }
+
+    @Benchmark
+    public Object stacklessByFlag(){
+        try {
+            throw new NotFoundMappedException("Not found", "Nothing under the id 42", true);
+        } catch (NotFoundMappedException exception){
+            return exception;
+        }
+    }
+
+    @Benchmark
+    public Object stacklessByPolicy(){
+        try {
+            throw new StacklessByPolicyException();
+        } catch (NotFoundMappedException exception){
+            return exception;
+        }
+    }
+
+    public static class StacklessByPolicyException extends NotFoundMappedException {
+
+        public StacklessByPolicyException(){
+            super("Not found", "Nothing under the id 42");
+        }
+    }
+
+}
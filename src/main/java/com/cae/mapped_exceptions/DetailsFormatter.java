@@ -0,0 +1,51 @@
+package com.cae.mapped_exceptions;
+
+import java.util.Arrays;
+
+/**
+ * Formats details templates in the SLF4J style: each "{}" anchor is
+ * replaced by the next argument, "\{}" is kept as a literal "{}" and
+ * anchors with no matching argument are kept as they are.
+ */
+final class DetailsFormatter {
+
+    private static final String ANCHOR = "{}";
+
+    private DetailsFormatter(){}
+
+    static String format(String template, Object[] arguments){
+        if (template == null || arguments == null || arguments.length == 0){
+            return template;
+        }
+        var builder = new StringBuilder(template.length() + 16 * arguments.length);
+        var cursor = 0;
+        var argumentIndex = 0;
+        while (argumentIndex < arguments.length){
+            var anchorIndex = template.indexOf(ANCHOR, cursor);
+            if (anchorIndex == -1){
+                break;
+            }
+            if (anchorIndex > 0 && template.charAt(anchorIndex - 1) == '\\'){
+                builder.append(template, cursor, anchorIndex - 1).append(ANCHOR);
+            }
+            else {
+                builder.append(template, cursor, anchorIndex);
+                appendArgument(builder, arguments[argumentIndex]);
+                argumentIndex ++;
+            }
+            cursor = anchorIndex + ANCHOR.length();
+        }
+        return builder.append(template, cursor, template.length()).toString();
+    }
+
+    private static void appendArgument(StringBuilder builder, Object argument){
+        if (argument != null && argument.getClass().isArray()){
+            var rendered = Arrays.deepToString(new Object[]{argument});
+            builder.append(rendered, 1, rendered.length() - 1);
+        }
+        else {
+            builder.append(argument);
+        }
+    }
+
+}
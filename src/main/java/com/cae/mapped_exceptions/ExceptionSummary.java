@@ -0,0 +1,184 @@
+package com.cae.mapped_exceptions;
+
+import com.cae.mapped_exceptions.stack_traces.StackSnapshot;
+
+import java.util.Objects;
+
+/**
+ * Lightweight and immutable stand-in for an exception which is no longer
+ * around, such as one thrown in another node or one let go to save
+ * memory. It keeps the type name, the message, a bounded amount of
+ * frames and the summary of the cause, and its toString reads just like
+ * the one of the exception it stands for, so messages composed with it
+ * are the same.
+ */
+public final class ExceptionSummary extends Exception {
+
+    public static final int MAX_CHAIN_LENGTH = 8;
+
+    private final String typeName;
+
+    private final int totalDepth;
+
+    /**
+     * Constructor method for summaries.
+     * @param typeName the fully qualified name of the type summarized
+     * @param message the message, if any
+     * @param cause the summary of the cause, if any
+     * @param frames the frames of the stack trace to keep
+     */
+    public ExceptionSummary(String typeName, String message, ExceptionSummary cause, StackTraceElement[] frames){
+        this(typeName, message, cause, frames, frames == null? 0 : frames.length);
+    }
+
+    /**
+     * Constructor method for summaries which keep only the top frames of
+     * a deeper stack trace.
+     * @param typeName the fully qualified name of the type summarized
+     * @param message the message, if any
+     * @param cause the summary of the cause, if any
+     * @param frames the top frames of the stack trace to keep
+     * @param totalDepth how deep the stack trace was
+     */
+    public ExceptionSummary(String typeName, String message, ExceptionSummary cause, StackTraceElement[] frames, int totalDepth){
+        super(message, cause, false, true);
+        this.typeName = Objects.requireNonNull(typeName, "Summaries need the name of the type summarized");
+        var keptFrames = frames == null? new StackTraceElement[0] : frames;
+        super.setStackTrace(keptFrames);
+        this.totalDepth = Math.max(keptFrames.length, totalDepth);
+    }
+
+    /**
+     * Summarizes the exception and its cause chain, up to MAX_CHAIN_LENGTH
+     * links. Mapped exceptions are followed through their original
+     * exception.
+     * @param throwable the exception to summarize
+     * @param maxFrames the max amount of frames each link keeps
+     * @return the summary
+     */
+    public static ExceptionSummary of(Throwable throwable, int maxFrames){
+        if (throwable instanceof ExceptionSummary && fitsIn((ExceptionSummary) throwable, maxFrames)){
+            return (ExceptionSummary) throwable;
+        }
+        var chain = new Throwable[MAX_CHAIN_LENGTH];
+        var length = 0;
+        Throwable current = throwable;
+        while (current != null && length < MAX_CHAIN_LENGTH && !contains(chain, length, current)){
+            chain[length ++] = current;
+            current = causeOf(current);
+        }
+        ExceptionSummary summary = null;
+        for (var index = length - 1; index >= 0; index --){
+            var link = chain[index];
+            var frames = link.getStackTrace();
+            var totalDepth = link instanceof ExceptionSummary? ((ExceptionSummary) link).getTotalDepth() : frames.length;
+            summary = new ExceptionSummary(typeNameOf(link), link.getMessage(), summary, bounded(frames, maxFrames), totalDepth);
+        }
+        return summary;
+    }
+
+    private static boolean fitsIn(ExceptionSummary summary, int maxFrames){
+        for (var link = summary; link != null; link = link.getCause()){
+            if (link.getStackTrace().length > maxFrames){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Throwable causeOf(Throwable throwable){
+        if (throwable instanceof MappedException){
+            var original = ((MappedException) throwable).getOriginalException();
+            if (original.isPresent()){
+                return original.get();
+            }
+        }
+        return throwable.getCause();
+    }
+
+    /**
+     * The fully qualified name of the type of the throwable, or of the
+     * type summarized when it is a summary.
+     * @param throwable the throwable
+     * @return the name of the type
+     */
+    public static String typeNameOf(Throwable throwable){
+        return throwable instanceof ExceptionSummary? ((ExceptionSummary) throwable).getTypeName() : throwable.getClass().getName();
+    }
+
+    private static boolean contains(Throwable[] chain, int length, Throwable throwable){
+        for (var index = 0; index < length; index ++){
+            if (chain[index] == throwable){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StackTraceElement[] bounded(StackTraceElement[] frames, int maxFrames){
+        if (frames.length <= maxFrames){
+            return frames;
+        }
+        var boundedFrames = new StackTraceElement[Math.max(0, maxFrames)];
+        System.arraycopy(frames, 0, boundedFrames, 0, boundedFrames.length);
+        return boundedFrames;
+    }
+
+    /**
+     * Getter method for the fully qualified name of the type summarized.
+     * @return the name of the type
+     */
+    public String getTypeName(){
+        return this.typeName;
+    }
+
+    /**
+     * Getter method for how deep the stack trace of the exception
+     * summarized was, which might be more than the frames kept.
+     * @return the depth of the stack trace
+     */
+    public int getTotalDepth(){
+        return this.totalDepth;
+    }
+
+    /**
+     * The snapshot of the frames kept, which still tells how many were
+     * left out.
+     * @return the snapshot
+     */
+    public StackSnapshot getStackSnapshot(){
+        return StackSnapshot.of(this.getStackTrace(), this.totalDepth);
+    }
+
+    @Override
+    public synchronized ExceptionSummary getCause(){
+        return (ExceptionSummary) super.getCause();
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace(){
+        return this;
+    }
+
+    @Override
+    public synchronized Throwable initCause(Throwable cause){
+        throw new IllegalStateException("Summaries can't have their cause set");
+    }
+
+    /**
+     * Ignored, since summaries keep the frames they were built with, just
+     * like the immutable instances of MappedException do.
+     * @param stackTrace the stack trace, which is ignored
+     */
+    @Override
+    public void setStackTrace(StackTraceElement[] stackTrace){
+        // Summaries are immutable
+    }
+
+    @Override
+    public String toString(){
+        var message = this.getLocalizedMessage();
+        return message == null? this.typeName : this.typeName + ": " + message;
+    }
+
+}
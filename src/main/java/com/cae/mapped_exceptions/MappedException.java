@@ -1,45 +1,492 @@
 package com.cae.mapped_exceptions;
 
+import com.cae.mapped_exceptions.context.DiagnosticContext;
+import com.cae.mapped_exceptions.context.DiagnosticContexts;
+import com.cae.mapped_exceptions.observability.ExceptionMetrics;
+import com.cae.mapped_exceptions.observability.HandlingLatencies;
+import com.cae.mapped_exceptions.observability.FlightRecorderEvents;
+import com.cae.mapped_exceptions.observability.ThrowSiteProfiler;
+import com.cae.mapped_exceptions.stack_traces.Fingerprints;
+import com.cae.mapped_exceptions.stack_traces.StackSnapshot;
+import com.cae.mapped_exceptions.stack_traces.StackTraceRenderCache;
+import com.cae.mapped_exceptions.stack_traces.StackTracePolicies;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public class MappedException extends RuntimeException{
 
+    private static final ThreadLocal<StackTraceElement[]> RESTORED_FRAMES = new ThreadLocal<>();
+
     protected final String briefPublicMessage;
 
-    protected final String details;
+    /**
+     * The details of the exception. When they were provided through a
+     * Supplier or a template, this field only gets set after the first
+     * call to getDetails, so prefer that method over reading it directly.
+     */
+    protected String details;
+
+    /**
+     * The exception being mapped, which gets replaced by its
+     * ExceptionSummary once this instance is detached.
+     */
+    protected Exception originalException;
+
+    // Released once the details are resolved. Suppliers are usually
+    // lambdas, so the details get resolved before serializing instead.
+    private transient Supplier<String> detailsSupplier;
+
+    private final boolean detailsInMessage;
+
+    private final boolean originalExceptionInMessage;
+
+    private final boolean immutable;
+
+    // Only true once constructed as stackless or immutable; it must read
+    // false while fillInStackTrace runs from the super constructor.
+    private final boolean stackTraceFrozen;
+
+    private String composedMessage;
+
+    // What the original exception read like before being replaced by its
+    // summary, whose toString can't follow overrides of the original one.
+    private String originalExceptionText;
+
+    // Assigned from fillInStackTrace, which runs before the field
+    // initializers of this class, so they must not have initializers.
+    // The frames themselves are only held as the stack trace of the
+    // Throwable; these tell how deep it was when it got bounded or
+    // filtered at capture time, and are zero otherwise.
+    private int stackTotalDepth;
+
+    private int stackFilteredDepth;
+
+    private boolean stackTraceCaptured;
+
+    // Set from fillInStackTrace for instances rebuilt from another node,
+    // so it must not have an initializer either.
+    private boolean restored;
+
+    private long fingerprint;
+
+    private boolean detached;
+
+    // Only set while HandlingLatencies is enabled.
+    private boolean creationTracked;
+
+    private long creationNanoTime;
+
+    private long creatingThreadId;
 
-    protected final Exception originalException;
+    private boolean handled;
+
+    // Stays null for instances with no context, so they cost nothing.
+    private DiagnosticContext context;
 
     public MappedException(String briefPublicMessage, String details){
-        super(briefPublicMessage + " | " + details);
-        this.briefPublicMessage = briefPublicMessage;
-        this.details = details;
-        this.originalException = null;
+        this(briefPublicMessage, details, null, null, true, false);
     }
 
     public MappedException(String briefPublicMessage){
-        super(briefPublicMessage);
+        this(briefPublicMessage, null, null, null, false, false);
+    }
+
+    public MappedException(String briefPublicMessage, String details, Exception originalException){
+        this(briefPublicMessage, details, null, originalException, true, true);
+    }
+
+    public MappedException(String briefPublicMessage, Exception originalException){
+        this(briefPublicMessage, null, null, originalException, false, true);
+    }
+
+    /**
+     * Constructor method which allows skipping the stack trace capture
+     * for this very instance. When the stackless flag is off, the
+     * StackTracePolicy registered for the type is applied, just like
+     * in the other constructors. Instances created through the flagged
+     * constructors don't accept a cause via initCause.
+     * @param briefPublicMessage the brief and public info
+     * @param details the more detailed info about the cause
+     * @param stackless whether the stack trace capture must be skipped
+     */
+    public MappedException(String briefPublicMessage, String details, boolean stackless){
+        this(briefPublicMessage, details, null, null, true, false, stackless);
+    }
+
+    public MappedException(String briefPublicMessage, boolean stackless){
+        this(briefPublicMessage, null, null, null, false, false, stackless);
+    }
+
+    public MappedException(String briefPublicMessage, String details, Exception originalException, boolean stackless){
+        this(briefPublicMessage, details, null, originalException, true, true, stackless);
+    }
+
+    public MappedException(String briefPublicMessage, Exception originalException, boolean stackless){
+        this(briefPublicMessage, null, null, originalException, false, true, stackless);
+    }
+
+    /**
+     * Constructor method for subclasses whose details are costly to build.
+     * The supplier is only called on the first access to the details,
+     * which is then memoized. Its parameters come in another order than
+     * the ones of the other constructors, so that a null details argument
+     * never makes a call ambiguous; callers get the withDeferredDetails
+     * factory methods instead.
+     * @param briefPublicMessage the brief and public info
+     * @param originalException the exception being mapped, if any
+     * @param detailsSupplier the supplier of the more detailed info
+     */
+    protected MappedException(String briefPublicMessage, Exception originalException, Supplier<String> detailsSupplier){
+        this(briefPublicMessage, null, detailsSupplier, originalException, true, originalException != null);
+    }
+
+    /**
+     * Factory method for details which are costly to build. The supplier
+     * is only called on the first access to the details, which is then
+     * memoized.
+     * @param briefPublicMessage the brief and public info
+     * @param detailsSupplier the supplier of the more detailed info
+     * @return the exception
+     */
+    public static MappedException withDeferredDetails(String briefPublicMessage, Supplier<String> detailsSupplier){
+        return new MappedException(briefPublicMessage, null, detailsSupplier);
+    }
+
+    public static MappedException withDeferredDetails(String briefPublicMessage, Supplier<String> detailsSupplier, Exception originalException){
+        return new MappedException(briefPublicMessage, originalException, detailsSupplier);
+    }
+
+    /**
+     * Factory method for details built from a template in the SLF4J
+     * style, such as "Company {} has no branch {}". The formatting only
+     * happens on the first access to the details, which is then memoized.
+     * It is a named method rather than a constructor so that a single
+     * boolean or Exception argument can't select the stackless or the
+     * original exception constructors instead.
+     * @param briefPublicMessage the brief and public info
+     * @param detailsTemplate the template of the more detailed info
+     * @param detailsArguments the values for the "{}" anchors
+     * @return the exception
+     */
+    public static MappedException withDetails(String briefPublicMessage, String detailsTemplate, Object... detailsArguments){
+        return new MappedException(briefPublicMessage, null, detailsFrom(detailsTemplate, detailsArguments));
+    }
+
+    /**
+     * Defers the formatting of a details template, for the factories and
+     * constructors taking a Supplier of the details. That's how subclasses
+     * offer templated details of their own.
+     * @param detailsTemplate the template of the more detailed info
+     * @param detailsArguments the values for the "{}" anchors
+     * @return the supplier of the formatted details
+     */
+    public static Supplier<String> detailsFrom(String detailsTemplate, Object... detailsArguments){
+        return () -> DetailsFormatter.format(detailsTemplate, detailsArguments);
+    }
+
+    /**
+     * Constructor method for immutable instances, which are the ones
+     * meant to be shared across threads as preallocated exceptions. Such
+     * instances refuse suppressed exceptions and causes, and their stack
+     * trace can't be replaced either.
+     * @param briefPublicMessage the brief and public info
+     * @param stackless whether the stack trace capture must be skipped
+     * @param immutable whether the instance must refuse mutations
+     */
+    protected MappedException(String briefPublicMessage, boolean stackless, boolean immutable){
+        super(null, null, !immutable, !stackless);
         this.briefPublicMessage = briefPublicMessage;
         this.details = null;
+        this.detailsSupplier = null;
         this.originalException = null;
+        this.detailsInMessage = false;
+        this.originalExceptionInMessage = false;
+        this.immutable = immutable;
+        this.stackTraceFrozen = stackless || immutable;
     }
 
-    public MappedException(String briefPublicMessage, String details, Exception originalException){
-        super(briefPublicMessage + " | " + details + " | Original: " + originalException);
+    private MappedException(
+            String briefPublicMessage,
+            String details,
+            Supplier<String> detailsSupplier,
+            Exception originalException,
+            boolean detailsInMessage,
+            boolean originalExceptionInMessage){
+        super();
         this.briefPublicMessage = briefPublicMessage;
         this.details = details;
-        this.originalException = originalException;
+        this.detailsSupplier = detailsSupplier;
+        this.originalException = OriginalExceptionDetachment.isEnabledOnConstruct()?
+                OriginalExceptionDetachment.summarize(originalException) :
+                originalException;
+        this.detached = this.originalException != originalException;
+        this.originalExceptionText = this.detached && originalExceptionInMessage? originalException.toString() : null;
+        this.detailsInMessage = detailsInMessage;
+        this.originalExceptionInMessage = originalExceptionInMessage;
+        this.immutable = false;
+        this.stackTraceFrozen = false;
+        if (!this.restored){
+            this.context = DiagnosticContexts.current();
+            this.recordCreation();
+        }
     }
 
-    public MappedException(String briefPublicMessage, Exception originalException){
-        super(briefPublicMessage + " | Original: " + originalException);
+    private MappedException(
+            String briefPublicMessage,
+            String details,
+            Supplier<String> detailsSupplier,
+            Exception originalException,
+            boolean detailsInMessage,
+            boolean originalExceptionInMessage,
+            boolean stackless){
+        super(null, null, true, !stackless);
         this.briefPublicMessage = briefPublicMessage;
-        this.details = null;
-        this.originalException = originalException;
+        this.details = details;
+        this.detailsSupplier = detailsSupplier;
+        this.originalException = OriginalExceptionDetachment.isEnabledOnConstruct()?
+                OriginalExceptionDetachment.summarize(originalException) :
+                originalException;
+        this.detached = this.originalException != originalException;
+        this.originalExceptionText = this.detached && originalExceptionInMessage? originalException.toString() : null;
+        this.detailsInMessage = detailsInMessage;
+        this.originalExceptionInMessage = originalExceptionInMessage;
+        this.immutable = false;
+        this.stackTraceFrozen = stackless;
+        if (!this.restored){
+            this.context = DiagnosticContexts.current();
+            this.recordCreation();
+        }
+    }
+
+    private void recordCreation(){
+        if (HandlingLatencies.active() != null){
+            this.creationTracked = true;
+            this.creationNanoTime = System.nanoTime();
+            this.creatingThreadId = Thread.currentThread().getId();
+        }
+        var metrics = ExceptionMetrics.active();
+        if (metrics != null){
+            metrics.record(this);
+        }
+        var profiler = ThrowSiteProfiler.active();
+        if (profiler != null){
+            profiler.record(this);
+        }
+        FlightRecorderEvents.emitCreated(this);
+    }
+
+    /**
+     * Captures the stack trace according to the StackTracePolicy
+     * registered for the concrete type. Stackless instances, as well as
+     * the ones left out by sampling, keep an empty stack trace, while
+     * bounded ones only keep the top frames and filtered ones only keep
+     * the frames accepted by their filter. Instances created as stackless
+     * keep ignoring this method afterwards, just like the JVM does for
+     * non-writable stack traces.
+     * @return this instance
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace(){
+        if (this.stackTraceFrozen){
+            return this;
+        }
+        var restoredFrames = RESTORED_FRAMES.get();
+        if (restoredFrames != null){
+            RESTORED_FRAMES.remove();
+            this.restored = true;
+            this.stackTotalDepth = 0;
+            this.stackFilteredDepth = 0;
+            this.stackTraceCaptured = restoredFrames.length > 0;
+            super.setStackTrace(restoredFrames);
+            return this;
+        }
+        var policy = StackTracePolicies.resolve(this.getClass());
+        if (policy.isWalkingTheStack()){
+            var snapshot = policy.capture(this);
+            this.stackTraceCaptured = snapshot != null;
+            if (snapshot == null){
+                return this;
+            }
+            this.stackTotalDepth = snapshot.getTotalDepth();
+            this.stackFilteredDepth = snapshot.getFilteredDepth();
+            // Throwable reads its stack trace directly when printing causes
+            // and when serializing, so it must hold the frames right away.
+            super.setStackTrace(snapshot.getFrames());
+            return this;
+        }
+        this.stackTraceCaptured = policy.isCapturing();
+        if (!this.stackTraceCaptured){
+            return this;
+        }
+        this.stackTotalDepth = 0;
+        this.stackFilteredDepth = 0;
+        return super.fillInStackTrace();
+    }
+
+    /**
+     * Creates an instance through the constructor given, with the frames
+     * in place of a captured stack trace. That's how codecs rebuild
+     * exceptions received from other nodes: the frames are the ones of
+     * the node which threw it, and no stack gets walked locally. Since it
+     * was created over there, the instance is not recorded as a creation
+     * by the observability registries of this node, and it doesn't pick
+     * up the local DiagnosticContext. The constructor must create the
+     * instance right away and must not be a stackless one.
+     * @param frames the frames of the stack trace
+     * @param constructor the constructor of the instance
+     * @return the instance
+     * @param <T> the type of the instance
+     */
+    public static <T extends MappedException> T withRestoredStackTrace(StackTraceElement[] frames, Supplier<T> constructor){
+        RESTORED_FRAMES.set(frames.clone());
+        try {
+            return constructor.get();
+        } finally {
+            RESTORED_FRAMES.remove();
+        }
+    }
+
+    @Override
+    public void setStackTrace(StackTraceElement[] stackTrace){
+        if (this.stackTraceFrozen){
+            return;
+        }
+        super.setStackTrace(stackTrace);
+        this.stackTotalDepth = 0;
+        this.stackFilteredDepth = 0;
+    }
+
+    /**
+     * Sets the cause of the exception, which immutable instances refuse.
+     * @param cause the cause
+     * @return this instance
+     * @throws IllegalStateException if this instance is immutable
+     */
+    @Override
+    public synchronized Throwable initCause(Throwable cause){
+        if (this.immutable){
+            throw new IllegalStateException("Immutable instances of " + this.getClass().getName() + " can't have their cause set");
+        }
+        return super.initCause(cause);
+    }
+
+    /**
+     * Tells whether this instance refuses mutations, which is the case of
+     * the shared ones given by the SharedMappedExceptions registry.
+     * @return whether this instance is immutable
+     */
+    public boolean isImmutable(){
+        return this.immutable;
+    }
+
+    /**
+     * Getter method for the full message of the exception. It is composed
+     * on the first call, concatenating the brief public message with the
+     * details and the original exception (when they were provided at
+     * construction time), and then cached for the next calls.
+     * @return the composed message
+     */
+    @Override
+    public String getMessage(){
+        var message = this.composedMessage;
+        if (message == null){
+            message = this.composeMessage();
+            this.composedMessage = message;
+        }
+        return message;
+    }
+
+    private String composeMessage(){
+        if (!this.detailsInMessage && !this.originalExceptionInMessage){
+            return this.briefPublicMessage;
+        }
+        var builder = new StringBuilder().append(this.briefPublicMessage);
+        if (this.detailsInMessage){
+            builder.append(" | ").append(this.resolveDetails());
+        }
+        if (this.originalExceptionInMessage){
+            var originalText = this.originalExceptionText;
+            builder.append(" | Original: ").append(originalText != null? originalText : this.originalException);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Tells whether this instance got its stack trace captured. It won't
+     * have been when it was created as stackless or when the sampling of
+     * its type left this occurrence out, in which case the lines from its
+     * stack trace carry no information.
+     * @return whether the stack trace was captured
+     */
+    public boolean isStackTraceCaptured(){
+        return this.stackTraceCaptured;
+    }
+
+    /**
+     * Getter method for the stack trace of this instance in its compact
+     * form, along with the actual depth of the stack when only part of it
+     * was captured. It wraps a copy of the stack trace on each call, so
+     * that retained instances don't keep a second array of frames.
+     * @return the snapshot of the stack trace
+     */
+    public StackSnapshot getStackSnapshot(){
+        return StackSnapshot.of(this.getStackTrace(), this.stackTotalDepth, this.stackFilteredDepth);
+    }
+
+    /**
+     * Computes a stable 64-bit hash of this exception, based on its type,
+     * its brief public message and the top frames of its stack trace,
+     * including the chain of original exceptions. Occurrences of the same
+     * problem share the same fingerprint, even across different JVMs
+     * running the same code. It is computed on the first call only.
+     * @return the fingerprint, which is never zero
+     */
+    public long fingerprint(){
+        var cached = this.fingerprint;
+        if (cached == 0L){
+            cached = Fingerprints.of(this);
+            this.fingerprint = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Adds the entry to the diagnostic context of this instance, which
+     * starts with whatever the registered DiagnosticContextProvider had,
+     * if any. Immutable instances are shared, so they refuse it.
+     * @param key the key, such as "correlationId"
+     * @param value the value
+     * @return this instance
+     * @throws IllegalStateException if this instance is immutable
+     */
+    public MappedException withContext(String key, String value){
+        if (this.immutable){
+            throw new IllegalStateException("Immutable instances of " + this.getClass().getName() + " can't have context");
+        }
+        var current = this.context;
+        this.context = (current == null? DiagnosticContext.empty() : current).with(key, value);
+        return this;
+    }
+
+    /**
+     * Getter method for the diagnostic context.
+     * @return the context, which is empty when there is none
+     */
+    public DiagnosticContext getContext(){
+        var current = this.context;
+        return current == null? DiagnosticContext.empty() : current;
+    }
+
+    public Optional<String> getContextValue(String key){
+        var current = this.context;
+        return current == null? Optional.empty() : current.get(key);
     }
 
     public String getBriefPublicMessage(){
@@ -51,7 +498,108 @@ public class MappedException extends RuntimeException{
      * @return Optional of the detailed message.
      */
     public Optional<String> getDetails() {
-        return Optional.ofNullable(this.details);
+        return Optional.ofNullable(this.resolveDetails());
+    }
+
+    private String resolveDetails(){
+        var resolved = this.details;
+        return resolved != null? resolved : this.resolveDetailsOnce();
+    }
+
+    // Locked so that concurrent readers, and detach, call the supplier
+    // once and never see it released before the details are set.
+    private synchronized String resolveDetailsOnce(){
+        var supplier = this.detailsSupplier;
+        if (this.details == null && supplier != null){
+            this.details = supplier.get();
+            this.detailsSupplier = null;
+        }
+        return this.details;
+    }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        this.resolveDetails();
+        stream.defaultWriteObject();
+    }
+
+    /**
+     * Replaces the original exception with its ExceptionSummary, which
+     * keeps the type name, the message, a bounded amount of frames and
+     * the summaries of its causes, but not whatever else it referenced,
+     * such as connections, buffers or requests. The details get resolved
+     * and their Supplier released too. The message keeps reading the same,
+     * even when the original exception overrides its toString, since the
+     * text of the original is taken before it gets replaced. It is meant
+     * to be called before queueing this instance for later handling, and
+     * before sharing it with other threads.
+     * @return this instance
+     */
+    public synchronized MappedException detach(){
+        if (this.immutable || this.detached){
+            return this;
+        }
+        this.resolveDetails();
+        this.detailsSupplier = null;
+        if (this.originalException != null){
+            if (this.originalExceptionInMessage){
+                this.originalExceptionText = this.originalException.toString();
+            }
+            this.originalException = ExceptionSummary.of(this.originalException, OriginalExceptionDetachment.getMaxFrames());
+        }
+        this.detached = true;
+        return this;
+    }
+
+    /**
+     * Marks this instance as handled, recording the time elapsed since
+     * its creation into the HandlingLatencies registry. Only the first
+     * call records anything, and only for instances created while the
+     * registry was enabled.
+     * @return the nanoseconds elapsed since the creation, or -1 when
+     * nothing was recorded
+     */
+    public long markHandled(){
+        if (!this.creationTracked || this.handled){
+            return -1;
+        }
+        this.handled = true;
+        var elapsed = System.nanoTime() - this.creationNanoTime;
+        var latencies = HandlingLatencies.active();
+        if (latencies != null){
+            latencies.record(this.getClass(), elapsed);
+        }
+        return elapsed;
+    }
+
+    public boolean isHandled(){
+        return this.handled;
+    }
+
+    /**
+     * Getter method for the System.nanoTime of the creation, which is
+     * only kept while HandlingLatencies is enabled.
+     * @return the creation time, or -1 when it wasn't kept
+     */
+    public long getCreationNanoTime(){
+        return this.creationTracked? this.creationNanoTime : -1;
+    }
+
+    /**
+     * Getter method for the id of the thread which created this instance,
+     * which is only kept while HandlingLatencies is enabled.
+     * @return the id of the thread, or -1 when it wasn't kept
+     */
+    public long getCreatingThreadId(){
+        return this.creationTracked? this.creatingThreadId : -1;
+    }
+
+    /**
+     * Tells whether the original exception of this instance was replaced
+     * by its summary, either by detach or on construction.
+     * @return whether this instance is detached
+     */
+    public boolean isDetached(){
+        return this.detached;
     }
 
     public Optional<Exception> getOriginalException(){
@@ -65,30 +613,57 @@ public class MappedException extends RuntimeException{
     }
 
     public List<String> getLinesFromStackTrace(Integer numberOfLines){
-        return this.getLinesFromStackTraceAsString(this, numberOfLines);
+        var event = FlightRecorderEvents.startRendering();
+        var lines = this.getLinesFromStackTraceAsString(this, numberOfLines);
+        FlightRecorderEvents.endRendering(event, this, numberOfLines);
+        return lines;
     }
 
     public List<String> getLinesFromStackTraceAsString(Exception exception, Integer numberOfLines){
-        var allLines = List.of(exception.getStackTrace());
-        var linesToReturn = new ArrayList<String>();
-        var counter = 0;
-        var maxCount = allLines.size() < numberOfLines? allLines.size() : numberOfLines;
-        while (counter < maxCount){
-            var line = allLines.get(counter);
-            linesToReturn.add(line.toString());
-            counter ++;
+        var snapshot = snapshotOf(exception);
+        var cache = StackTraceRenderCache.active();
+        if (cache == null){
+            return snapshot.toLines(numberOfLines);
+        }
+        var cachedLines = cache.getLines(StackTraceRenderCache.keyOf(snapshot), numberOfLines, () -> snapshot.toLines(numberOfLines));
+        return new ArrayList<>(cachedLines);
+    }
+
+    private static StackSnapshot snapshotOf(Exception exception){
+        if (exception instanceof MappedException){
+            return ((MappedException) exception).getStackSnapshot();
         }
-        if (allLines.size() > numberOfLines){
-            var lastLine = allLines.size() - numberOfLines + " hidden line(s)";
-            linesToReturn.add(lastLine);
+        if (exception instanceof ExceptionSummary){
+            return ((ExceptionSummary) exception).getStackSnapshot();
         }
-        return linesToReturn;
+        return StackSnapshot.of(exception.getStackTrace());
     }
 
     protected String getFullStackTraceAsString(){
-        var stringWriter = new StringWriter();
-        this.printStackTrace(new PrintWriter(stringWriter));
-        return stringWriter.toString();
+        var event = FlightRecorderEvents.startRendering();
+        var rendered = this.renderFullStackTrace();
+        FlightRecorderEvents.endRendering(event, this, FlightRecorderEvents.FULL_RENDER);
+        return rendered;
+    }
+
+    private String renderFullStackTrace(){
+        var cache = StackTraceRenderCache.active();
+        if (cache == null || this.getCause() != null || this.getSuppressed().length > 0){
+            var stringWriter = new StringWriter();
+            this.printStackTrace(new PrintWriter(stringWriter));
+            return stringWriter.toString();
+        }
+        var frames = this.getStackTrace();
+        var renderedFrames = cache.getFullRender(StackTraceRenderCache.keyOf(StackSnapshot.of(frames)), () -> renderFrames(frames));
+        return this + System.lineSeparator() + renderedFrames;
+    }
+
+    private static String renderFrames(StackTraceElement[] frames){
+        var builder = new StringBuilder(frames.length * 64);
+        for (var frame : frames){
+            builder.append("\tat ").append(frame).append(System.lineSeparator());
+        }
+        return builder.toString();
     }
 
 }
@@ -0,0 +1,64 @@
+package com.cae.mapped_exceptions;
+
+/**
+ * Settings of the detachment of original exceptions, which replaces them
+ * with their ExceptionSummary so mapped exceptions stop keeping whatever
+ * they referenced reachable. Instances can be detached one by one through
+ * MappedException.detach, or all of them right on construction once it's
+ * enabled here, which suits applications queueing mapped exceptions for
+ * asynchronous reporting. It's disabled by default.
+ */
+public final class OriginalExceptionDetachment {
+
+    public static final int DEFAULT_MAX_FRAMES = 32;
+
+    private static volatile boolean enabledOnConstruct;
+
+    private static volatile int maxFrames = DEFAULT_MAX_FRAMES;
+
+    private OriginalExceptionDetachment(){}
+
+    /**
+     * Makes new MappedException instances detach their original exception
+     * right on construction.
+     */
+    public static void enableOnConstruct(){
+        enabledOnConstruct = true;
+    }
+
+    public static void disableOnConstruct(){
+        enabledOnConstruct = false;
+    }
+
+    public static boolean isEnabledOnConstruct(){
+        return enabledOnConstruct;
+    }
+
+    /**
+     * Sets the max amount of frames each summary keeps.
+     * @param newMaxFrames the max amount of frames
+     */
+    public static void setMaxFrames(int newMaxFrames){
+        if (newMaxFrames < 0){
+            throw new IllegalArgumentException("The max amount of frames can't be negative");
+        }
+        maxFrames = newMaxFrames;
+    }
+
+    public static int getMaxFrames(){
+        return maxFrames;
+    }
+
+    /**
+     * Restores the defaults: disabled, with DEFAULT_MAX_FRAMES frames.
+     */
+    public static void reset(){
+        enabledOnConstruct = false;
+        maxFrames = DEFAULT_MAX_FRAMES;
+    }
+
+    static ExceptionSummary summarize(Exception originalException){
+        return originalException == null? null : ExceptionSummary.of(originalException, maxFrames);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.cae.mapped_exceptions;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registry of preallocated, immutable and stackless MappedException
+ * instances, keyed by their type and brief public message. It backs the
+ * shared factory methods of the specifics types, which are meant for hot
+ * exceptions carrying nothing but a constant brief public message: those
+ * can be thrown over and over without building a new object each time.
+ * <p>
+ * Each type keeps at most MAX_INSTANCES_PER_TYPE shared instances, so
+ * misusing it with dynamic messages can't make it grow unbounded: past
+ * that limit, fresh (still immutable and stackless) instances are given.
+ * <p>
+ * Observability registries record MappedException instances as they are
+ * created, so they never see the throws of a shared instance, which is
+ * created once and thrown from then on. Exceptions whose occurrences
+ * must show up in ExceptionMetrics, the ThrowSiteProfiler, the
+ * HandlingLatencies or the JFR creation event must not be shared.
+ */
+public final class SharedMappedExceptions {
+
+    public static final int MAX_INSTANCES_PER_TYPE = 256;
+
+    private static final Map<Class<?>, Map<String, MappedException>> INSTANCES = new ConcurrentHashMap<>();
+
+    private SharedMappedExceptions(){}
+
+    /**
+     * Gets the shared instance of the type for the brief public message,
+     * creating it on the first call.
+     * @param type the type of the shared instance
+     * @param briefPublicMessage the brief public message of the instance
+     * @param factory creates the instance, which must be immutable
+     * @param <T> the type of the shared instance
+     * @return the shared instance
+     */
+    public static <T extends MappedException> T get(Class<T> type, String briefPublicMessage, Function<String, T> factory){
+        Objects.requireNonNull(briefPublicMessage, "Shared instances need a brief public message");
+        var instancesOfType = INSTANCES.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+        var instance = instancesOfType.get(briefPublicMessage);
+        if (instance == null){
+            if (instancesOfType.size() >= MAX_INSTANCES_PER_TYPE){
+                return requireImmutable(factory.apply(briefPublicMessage));
+            }
+            instance = instancesOfType.computeIfAbsent(briefPublicMessage, message -> requireImmutable(factory.apply(message)));
+        }
+        return type.cast(instance);
+    }
+
+    private static <T extends MappedException> T requireImmutable(T instance){
+        if (!instance.isImmutable()){
+            throw new IllegalArgumentException("Only immutable instances can be shared, got a mutable " + instance.getClass().getName());
+        }
+        return instance;
+    }
+
+}
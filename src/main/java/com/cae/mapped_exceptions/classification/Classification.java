@@ -0,0 +1,31 @@
+package com.cae.mapped_exceptions.classification;
+
+/**
+ * Result of classifying an exception type: its category and the status
+ * it maps to in the protocol of the classifier.
+ */
+public final class Classification {
+
+    private final MappedExceptionCategory category;
+
+    private final int status;
+
+    Classification(MappedExceptionCategory category, int status){
+        this.category = category;
+        this.status = status;
+    }
+
+    public MappedExceptionCategory getCategory(){
+        return this.category;
+    }
+
+    public int getStatus(){
+        return this.status;
+    }
+
+    @Override
+    public String toString(){
+        return this.category + " (" + this.status + ")";
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.cae.mapped_exceptions.classification;
+
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthenticatedMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthorizedMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves exception types into a MappedExceptionCategory and a status,
+ * replacing the instanceof chains web adapters usually run to pick HTTP
+ * or gRPC statuses. Each type is resolved only once, walking up its
+ * hierarchy, and the result is cached in a ClassValue, so any later
+ * lookup of that type costs O(1) regardless of how deep it is.
+ * <p>
+ * While walking up the hierarchy, the first type which has either a
+ * programmatic override or a MappedCategory annotation decides, the
+ * override taking precedence over the annotation. The specifics types
+ * come with their own categories and anything else is UNMAPPED.
+ * Classifiers are immutable: each new configuration derives a new one,
+ * with a fresh cache of its own.
+ */
+public final class ExceptionClassifier {
+
+    private static final Map<Class<?>, MappedExceptionCategory> BUILT_IN_CATEGORIES = Map.of(
+            InputMappedException.class, MappedExceptionCategory.INPUT,
+            NotFoundMappedException.class, MappedExceptionCategory.NOT_FOUND,
+            NotAuthorizedMappedException.class, MappedExceptionCategory.NOT_AUTHORIZED,
+            NotAuthenticatedMappedException.class, MappedExceptionCategory.NOT_AUTHENTICATED,
+            InternalMappedException.class, MappedExceptionCategory.INTERNAL
+    );
+
+    private static final ExceptionClassifier HTTP = new ExceptionClassifier(Protocol.HTTP, new EnumMap<>(MappedExceptionCategory.class), new HashMap<>());
+    private static final ExceptionClassifier GRPC = new ExceptionClassifier(Protocol.GRPC, new EnumMap<>(MappedExceptionCategory.class), new HashMap<>());
+
+    private final Protocol protocol;
+
+    private final Map<MappedExceptionCategory, Integer> statuses;
+
+    private final Map<Class<?>, Classification> overrides;
+
+    private final ClassValue<Classification> cache = new ClassValue<>() {
+        @Override
+        protected Classification computeValue(Class<?> type) {
+            return ExceptionClassifier.this.resolve(type);
+        }
+    };
+
+    private ExceptionClassifier(Protocol protocol, Map<MappedExceptionCategory, Integer> statuses, Map<Class<?>, Classification> overrides){
+        this.protocol = protocol;
+        this.statuses = statuses;
+        this.overrides = overrides;
+    }
+
+    /**
+     * Classifier whose statuses are HTTP status codes.
+     * @return the default HTTP classifier
+     */
+    public static ExceptionClassifier http(){
+        return HTTP;
+    }
+
+    /**
+     * Classifier whose statuses are gRPC status codes.
+     * @return the default gRPC classifier
+     */
+    public static ExceptionClassifier grpc(){
+        return GRPC;
+    }
+
+    /**
+     * Derives a classifier which maps the category to another status.
+     * @param category the category
+     * @param status the status to map it to
+     * @return the derived classifier
+     */
+    public ExceptionClassifier withStatus(MappedExceptionCategory category, int status){
+        var newStatuses = new EnumMap<MappedExceptionCategory, Integer>(MappedExceptionCategory.class);
+        newStatuses.putAll(this.statuses);
+        newStatuses.put(category, status);
+        return new ExceptionClassifier(this.protocol, newStatuses, this.overrides);
+    }
+
+    public ExceptionClassifier withOverride(Class<? extends Throwable> type, MappedExceptionCategory category){
+        return this.withOverride(type, category, -1);
+    }
+
+    /**
+     * Derives a classifier which classifies the type and its subtypes
+     * into the category, overriding annotations and built-in categories.
+     * @param type the exception type
+     * @param category the category to classify it into
+     * @param status the status to map it to, or -1 for the one of the category
+     * @return the derived classifier
+     */
+    public ExceptionClassifier withOverride(Class<? extends Throwable> type, MappedExceptionCategory category, int status){
+        var newOverrides = new HashMap<>(this.overrides);
+        newOverrides.put(type, new Classification(category, status));
+        return new ExceptionClassifier(this.protocol, this.statuses, newOverrides);
+    }
+
+    public Classification classify(Throwable throwable){
+        return this.cache.get(throwable.getClass());
+    }
+
+    public Classification classify(Class<? extends Throwable> type){
+        return this.cache.get(type);
+    }
+
+    public MappedExceptionCategory categoryOf(Throwable throwable){
+        return this.classify(throwable).getCategory();
+    }
+
+    public int statusOf(Throwable throwable){
+        return this.classify(throwable).getStatus();
+    }
+
+    private Classification resolve(Class<?> type){
+        var current = type;
+        while (current != null){
+            var override = this.overrides.get(current);
+            if (override != null){
+                return this.classification(override.getCategory(), override.getStatus());
+            }
+            var annotation = current.getDeclaredAnnotation(MappedCategory.class);
+            if (annotation != null){
+                return this.classification(annotation.value(), this.protocol.statusFrom(annotation));
+            }
+            var builtInCategory = BUILT_IN_CATEGORIES.get(current);
+            if (builtInCategory != null){
+                return this.classification(builtInCategory, -1);
+            }
+            current = current.getSuperclass();
+        }
+        return this.classification(MappedExceptionCategory.UNMAPPED, -1);
+    }
+
+    private Classification classification(MappedExceptionCategory category, int explicitStatus){
+        if (explicitStatus >= 0){
+            return new Classification(category, explicitStatus);
+        }
+        var configuredStatus = this.statuses.get(category);
+        return new Classification(category, configuredStatus != null? configuredStatus : this.protocol.defaultStatusOf(category));
+    }
+
+    private enum Protocol {
+
+        HTTP {
+            @Override
+            int defaultStatusOf(MappedExceptionCategory category){
+                return category.getDefaultHttpStatus();
+            }
+
+            @Override
+            int statusFrom(MappedCategory annotation){
+                return annotation.httpStatus();
+            }
+        },
+        GRPC {
+            @Override
+            int defaultStatusOf(MappedExceptionCategory category){
+                return category.getDefaultGrpcStatus();
+            }
+
+            @Override
+            int statusFrom(MappedCategory annotation){
+                return annotation.grpcStatus();
+            }
+        };
+
+        abstract int defaultStatusOf(MappedExceptionCategory category);
+
+        abstract int statusFrom(MappedCategory annotation);
+
+    }
+
+}
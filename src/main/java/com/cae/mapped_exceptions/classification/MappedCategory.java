@@ -0,0 +1,30 @@
+package com.cae.mapped_exceptions.classification;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the category of an exception type, and optionally its statuses,
+ * for the ExceptionClassifier. The annotated type and its subtypes are
+ * classified accordingly, unless a subtype carries an annotation of its
+ * own or a programmatic override takes precedence.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MappedCategory {
+
+    MappedExceptionCategory value();
+
+    /**
+     * @return the HTTP status, if not the default of the category
+     */
+    int httpStatus() default -1;
+
+    /**
+     * @return the gRPC status, if not the default of the category
+     */
+    int grpcStatus() default -1;
+
+}
@@ -0,0 +1,130 @@
+package com.cae.mapped_exceptions.classification;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthenticatedMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthorizedMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+
+/**
+ * Categories the specifics types of MappedException fall into, along
+ * with the HTTP and gRPC status codes each of them is mapped to unless
+ * configured otherwise. Throwables out of the MappedException specifics
+ * hierarchy fall into the UNMAPPED category.
+ */
+public enum MappedExceptionCategory {
+
+    INPUT(400, 3),
+    NOT_FOUND(404, 5),
+    NOT_AUTHORIZED(403, 7),
+    NOT_AUTHENTICATED(401, 16),
+    INTERNAL(500, 13),
+    UNMAPPED(500, 2);
+
+    private final int defaultHttpStatus;
+
+    private final int defaultGrpcStatus;
+
+    MappedExceptionCategory(int defaultHttpStatus, int defaultGrpcStatus){
+        this.defaultHttpStatus = defaultHttpStatus;
+        this.defaultGrpcStatus = defaultGrpcStatus;
+    }
+
+    public int getDefaultHttpStatus(){
+        return this.defaultHttpStatus;
+    }
+
+    /**
+     * Getter method for the default gRPC status code, as in the values of
+     * io.grpc.Status.Code (3 for INVALID_ARGUMENT, 5 for NOT_FOUND and so on).
+     * @return the default gRPC status code
+     */
+    public int getDefaultGrpcStatus(){
+        return this.defaultGrpcStatus;
+    }
+
+    /**
+     * Instantiates the specifics type of the category, or a plain
+     * MappedException for the UNMAPPED one, using the constructor whose
+     * shape fits the parts given, so absent parts don't show up in the
+     * message.
+     * @param briefPublicMessage the brief and public info
+     * @param details the more detailed info, if any
+     * @param originalException the exception being mapped, if any
+     * @return the new exception
+     */
+    public MappedException instantiate(String briefPublicMessage, String details, Exception originalException){
+        var hasDetails = details != null;
+        var hasOriginal = originalException != null;
+        switch (this){
+            case INPUT:
+                if (hasDetails && hasOriginal){
+                    return new InputMappedException(briefPublicMessage, details, originalException);
+                }
+                if (hasDetails){
+                    return new InputMappedException(briefPublicMessage, details);
+                }
+                if (hasOriginal){
+                    return new InputMappedException(briefPublicMessage, originalException);
+                }
+                return new InputMappedException(briefPublicMessage);
+            case NOT_FOUND:
+                if (hasDetails && hasOriginal){
+                    return new NotFoundMappedException(briefPublicMessage, details, originalException);
+                }
+                if (hasDetails){
+                    return new NotFoundMappedException(briefPublicMessage, details);
+                }
+                if (hasOriginal){
+                    return new NotFoundMappedException(briefPublicMessage, originalException);
+                }
+                return new NotFoundMappedException(briefPublicMessage);
+            case NOT_AUTHORIZED:
+                if (hasDetails && hasOriginal){
+                    return new NotAuthorizedMappedException(briefPublicMessage, details, originalException);
+                }
+                if (hasDetails){
+                    return new NotAuthorizedMappedException(briefPublicMessage, details);
+                }
+                if (hasOriginal){
+                    return new NotAuthorizedMappedException(briefPublicMessage, originalException);
+                }
+                return new NotAuthorizedMappedException(briefPublicMessage);
+            case NOT_AUTHENTICATED:
+                if (hasDetails && hasOriginal){
+                    return new NotAuthenticatedMappedException(briefPublicMessage, details, originalException);
+                }
+                if (hasDetails){
+                    return new NotAuthenticatedMappedException(briefPublicMessage, details);
+                }
+                if (hasOriginal){
+                    return new NotAuthenticatedMappedException(briefPublicMessage, originalException);
+                }
+                return new NotAuthenticatedMappedException(briefPublicMessage);
+            case INTERNAL:
+                if (hasDetails && hasOriginal){
+                    return new InternalMappedException(briefPublicMessage, details, originalException);
+                }
+                if (hasDetails){
+                    return new InternalMappedException(briefPublicMessage, details);
+                }
+                if (hasOriginal){
+                    return new InternalMappedException(briefPublicMessage, originalException);
+                }
+                return new InternalMappedException(briefPublicMessage);
+            default:
+                if (hasDetails && hasOriginal){
+                    return new MappedException(briefPublicMessage, details, originalException);
+                }
+                if (hasDetails){
+                    return new MappedException(briefPublicMessage, details);
+                }
+                if (hasOriginal){
+                    return new MappedException(briefPublicMessage, originalException);
+                }
+                return new MappedException(briefPublicMessage);
+        }
+    }
+
+}
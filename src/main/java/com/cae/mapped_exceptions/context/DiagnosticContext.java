@@ -0,0 +1,168 @@
+package com.cae.mapped_exceptions.context;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable key/value context about the circumstances of an exception,
+ * such as the correlation id, the tenant or the use case name. Entries
+ * live in a single flat array, keys and values interleaved, which for
+ * the handful of entries a context usually has is both smaller and
+ * faster to scan than a HashMap. Adding an entry derives a new context.
+ * Contexts are serializable, so they travel along with their exceptions.
+ */
+public final class DiagnosticContext implements Serializable {
+
+    private static final DiagnosticContext EMPTY = new DiagnosticContext(new String[0]);
+
+    private final String[] entries;
+
+    private DiagnosticContext(String[] entries){
+        this.entries = entries;
+    }
+
+    /**
+     * Context with no entries.
+     * @return the empty context
+     */
+    public static DiagnosticContext empty(){
+        return EMPTY;
+    }
+
+    public static DiagnosticContext of(String key, String value){
+        return EMPTY.with(key, value);
+    }
+
+    /**
+     * Derives a context with the entry, replacing the value of the key if
+     * it was already there.
+     * @param key the key
+     * @param value the value, which might be null
+     * @return the derived context
+     */
+    public DiagnosticContext with(String key, String value){
+        Objects.requireNonNull(key, "Context keys can't be null");
+        var index = this.indexOf(key);
+        String[] newEntries;
+        if (index >= 0){
+            if (Objects.equals(this.entries[index + 1], value)){
+                return this;
+            }
+            newEntries = this.entries.clone();
+        } else {
+            index = this.entries.length;
+            newEntries = Arrays.copyOf(this.entries, index + 2);
+            newEntries[index] = key;
+        }
+        newEntries[index + 1] = value;
+        return new DiagnosticContext(newEntries);
+    }
+
+    /**
+     * Derives a context with the entries of both, the ones of the other
+     * context prevailing over the ones of this one.
+     * @param other the other context
+     * @return the merged context
+     */
+    public DiagnosticContext withAll(DiagnosticContext other){
+        if (other == null || other.isEmpty() || other == this){
+            return this;
+        }
+        if (this.isEmpty()){
+            return other;
+        }
+        var merged = this;
+        for (var index = 0; index < other.entries.length; index += 2){
+            merged = merged.with(other.entries[index], other.entries[index + 1]);
+        }
+        return merged;
+    }
+
+    private int indexOf(String key){
+        for (var index = 0; index < this.entries.length; index += 2){
+            if (this.entries[index].equals(key)){
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    public Optional<String> get(String key){
+        var index = this.indexOf(key);
+        return index < 0? Optional.empty() : Optional.ofNullable(this.entries[index + 1]);
+    }
+
+    public boolean containsKey(String key){
+        return this.indexOf(key) >= 0;
+    }
+
+    public int size(){
+        return this.entries.length / 2;
+    }
+
+    public boolean isEmpty(){
+        return this.entries.length == 0;
+    }
+
+    public String keyAt(int index){
+        return this.entries[index * 2];
+    }
+
+    public String valueAt(int index){
+        return this.entries[index * 2 + 1];
+    }
+
+    /**
+     * Passes each entry to the consumer, in the order they were added.
+     * @param consumer the consumer of the entries
+     */
+    public void forEach(BiConsumer<String, String> consumer){
+        for (var index = 0; index < this.entries.length; index += 2){
+            consumer.accept(this.entries[index], this.entries[index + 1]);
+        }
+    }
+
+    /**
+     * Copies the entries into a map, in the order they were added.
+     * @return the map
+     */
+    public Map<String, String> toMap(){
+        var map = new LinkedHashMap<String, String>(this.size() * 2);
+        this.forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object other){
+        if (this == other){
+            return true;
+        }
+        if (!(other instanceof DiagnosticContext)){
+            return false;
+        }
+        return Arrays.equals(this.entries, ((DiagnosticContext) other).entries);
+    }
+
+    @Override
+    public int hashCode(){
+        return Arrays.hashCode(this.entries);
+    }
+
+    @Override
+    public String toString(){
+        var builder = new StringBuilder("{");
+        for (var index = 0; index < this.entries.length; index += 2){
+            if (index > 0){
+                builder.append(", ");
+            }
+            builder.append(this.entries[index]).append('=').append(this.entries[index + 1]);
+        }
+        return builder.append('}').toString();
+    }
+
+}
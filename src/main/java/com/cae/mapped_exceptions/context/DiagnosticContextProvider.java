@@ -0,0 +1,16 @@
+package com.cae.mapped_exceptions.context;
+
+/**
+ * Source of the DiagnosticContext new MappedException instances get
+ * populated with. Implementations are called on every creation, so they
+ * should hand over a context they already have rather than build one.
+ */
+@FunctionalInterface
+public interface DiagnosticContextProvider {
+
+    /**
+     * @return the current context, or null when there is none
+     */
+    DiagnosticContext current();
+
+}
@@ -0,0 +1,39 @@
+package com.cae.mapped_exceptions.context;
+
+/**
+ * Registry of the DiagnosticContextProvider which auto-populates the
+ * context of new MappedException instances. There is none by default,
+ * in which case exceptions start with no context at all.
+ */
+public final class DiagnosticContexts {
+
+    private static volatile DiagnosticContextProvider provider;
+
+    private DiagnosticContexts(){}
+
+    /**
+     * Registers the provider new exceptions get their context from.
+     * @param newProvider the provider
+     */
+    public static void setProvider(DiagnosticContextProvider newProvider){
+        provider = newProvider;
+    }
+
+    public static void clearProvider(){
+        provider = null;
+    }
+
+    /**
+     * The context of the registered provider, if any.
+     * @return the current context, or null when there is none
+     */
+    public static DiagnosticContext current(){
+        var currentProvider = provider;
+        if (currentProvider == null){
+            return null;
+        }
+        var context = currentProvider.current();
+        return context == null || context.isEmpty()? null : context;
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.cae.mapped_exceptions.context;
+
+/**
+ * DiagnosticContextProvider backed by a ThreadLocal, filled in through
+ * scopes which restore the previous context once closed:
+ * <pre>
+ * try (var scope = ThreadLocalContextProvider.open("correlationId", id)){
+ *     // exceptions created here get the correlationId in their context
+ * }
+ * </pre>
+ * It works the same for platform and virtual threads, as long as the
+ * scope is opened in the thread which creates the exceptions. Runtimes
+ * with scoped values can plug a provider of their own instead.
+ */
+public final class ThreadLocalContextProvider implements DiagnosticContextProvider {
+
+    private static final ThreadLocal<DiagnosticContext> CURRENT = new ThreadLocal<>();
+
+    private static final ThreadLocalContextProvider INSTANCE = new ThreadLocalContextProvider();
+
+    private ThreadLocalContextProvider(){}
+
+    public static ThreadLocalContextProvider instance(){
+        return INSTANCE;
+    }
+
+    /**
+     * Adds the entry to the context of the current thread until the
+     * returned scope gets closed.
+     * @param key the key
+     * @param value the value
+     * @return the scope
+     */
+    public static Scope open(String key, String value){
+        var previous = CURRENT.get();
+        var base = previous == null? DiagnosticContext.empty() : previous;
+        CURRENT.set(base.with(key, value));
+        return new Scope(previous);
+    }
+
+    /**
+     * Adds the entries to the context of the current thread until the
+     * returned scope gets closed.
+     * @param context the entries
+     * @return the scope
+     */
+    public static Scope open(DiagnosticContext context){
+        var previous = CURRENT.get();
+        var base = previous == null? DiagnosticContext.empty() : previous;
+        CURRENT.set(base.withAll(context));
+        return new Scope(previous);
+    }
+
+    @Override
+    public DiagnosticContext current(){
+        return CURRENT.get();
+    }
+
+    /**
+     * Scope of entries added to the context of the current thread.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final DiagnosticContext previous;
+
+        private Scope(DiagnosticContext previous){
+            this.previous = previous;
+        }
+
+        @Override
+        public void close(){
+            if (this.previous == null){
+                CURRENT.remove();
+            } else {
+                CURRENT.set(this.previous);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.cae.mapped_exceptions.encoding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Building blocks shared by the binary codecs: variable-length integers,
+ * zig-zag encoded signed ones, and strings written once per message and
+ * referred to by index afterwards, so repeated names cost a byte or two
+ * each. Readers check every count and length they read against what is
+ * left of the input, so hostile bytes can't make them allocate more than
+ * the input could hold.
+ */
+final class BinaryEncoding {
+
+    private static final int NULL_STRING = 0;
+    private static final int NEW_STRING = 1;
+    private static final int FIRST_STRING_REFERENCE = 2;
+
+    private BinaryEncoding(){}
+
+    static final class Writer {
+
+        private final HashMap<String, Integer> dictionary = new HashMap<>();
+
+        private byte[] bytes = new byte[256];
+
+        private int size;
+
+        void writeByte(int value){
+            if (this.size == this.bytes.length){
+                this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+            }
+            this.bytes[this.size ++] = (byte) value;
+        }
+
+        void writeVarInt(int value){
+            while ((value & ~0x7f) != 0){
+                this.writeByte((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            this.writeByte(value);
+        }
+
+        void writeVarLong(long value){
+            while ((value & ~0x7fL) != 0){
+                this.writeByte((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            this.writeByte((int) value);
+        }
+
+        /**
+         * Writes a signed value in its zig-zag form, so values close to
+         * zero take a single byte whatever their sign.
+         * @param value the value
+         */
+        void writeSignedVarInt(int value){
+            this.writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeString(String value){
+            if (value == null){
+                this.writeVarInt(NULL_STRING);
+                return;
+            }
+            var reference = this.dictionary.get(value);
+            if (reference != null){
+                this.writeVarInt(reference);
+                return;
+            }
+            this.dictionary.put(value, FIRST_STRING_REFERENCE + this.dictionary.size());
+            this.writeVarInt(NEW_STRING);
+            var utf8 = value.getBytes(StandardCharsets.UTF_8);
+            this.writeVarInt(utf8.length);
+            if (this.size + utf8.length > this.bytes.length){
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + utf8.length));
+            }
+            System.arraycopy(utf8, 0, this.bytes, this.size, utf8.length);
+            this.size += utf8.length;
+        }
+
+        void writeTo(ByteBuffer destination){
+            destination.put(this.bytes, 0, this.size);
+        }
+
+        byte[] toByteArray(){
+            return Arrays.copyOf(this.bytes, this.size);
+        }
+
+    }
+
+    static final class Reader {
+
+        private final ByteBuffer source;
+
+        private final String subject;
+
+        private final ArrayList<String> dictionary = new ArrayList<>();
+
+        /**
+         * Reads the buffer from its position on.
+         * @param source the buffer
+         * @param subject what is being read, such as "encoded exception",
+         *                for the messages of the errors
+         */
+        Reader(ByteBuffer source, String subject){
+            this.source = source;
+            this.subject = subject;
+        }
+
+        int readByte(){
+            return this.source.get() & 0xff;
+        }
+
+        int readVarInt(){
+            var value = 0;
+            for (var shift = 0; shift < 35; shift += 7){
+                var current = this.readByte();
+                value |= (current & 0x7f) << shift;
+                if ((current & 0x80) == 0){
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable-length integer in " + this.subject);
+        }
+
+        long readVarLong(){
+            var value = 0L;
+            for (var shift = 0; shift < 70; shift += 7){
+                var current = this.readByte();
+                value |= (long) (current & 0x7f) << shift;
+                if ((current & 0x80) == 0){
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable-length integer in " + this.subject);
+        }
+
+        int readSignedVarInt(){
+            var value = this.readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads the count of the elements which follow, each of which
+         * takes at least a byte.
+         * @param maxCount the highest count expected
+         * @return the count
+         */
+        int readCount(int maxCount){
+            var count = this.readVarLong();
+            if (count < 0 || count > maxCount || count > this.source.remaining()){
+                throw new IllegalArgumentException("Invalid count " + count + " in " + this.subject);
+            }
+            return (int) count;
+        }
+
+        int readCount(){
+            return this.readCount(Integer.MAX_VALUE);
+        }
+
+        String readString(){
+            var reference = this.readVarInt();
+            if (reference == NULL_STRING){
+                return null;
+            }
+            if (reference != NEW_STRING){
+                var index = reference - FIRST_STRING_REFERENCE;
+                if (index < 0 || index >= this.dictionary.size()){
+                    throw new IllegalArgumentException("Reference to unknown string " + index + " in " + this.subject);
+                }
+                return this.dictionary.get(index);
+            }
+            var length = this.readVarInt();
+            if (length < 0 || length > this.source.remaining()){
+                throw new IllegalArgumentException("Truncated " + this.subject);
+            }
+            String value;
+            if (this.source.hasArray()){
+                value = new String(this.source.array(), this.source.arrayOffset() + this.source.position(), length, StandardCharsets.UTF_8);
+                this.source.position(this.source.position() + length);
+            } else {
+                var utf8 = new byte[length];
+                this.source.get(utf8);
+                value = new String(utf8, StandardCharsets.UTF_8);
+            }
+            this.dictionary.add(value);
+            return value;
+        }
+
+    }
+
+}
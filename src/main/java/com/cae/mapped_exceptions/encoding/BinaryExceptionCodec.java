@@ -0,0 +1,214 @@
+package com.cae.mapped_exceptions.encoding;
+
+import com.cae.mapped_exceptions.ExceptionSummary;
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthenticatedMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthorizedMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Versioned binary codec for shipping MappedException instances between
+ * nodes, far smaller and faster than Java serialization of the whole
+ * object graph. An encoded exception carries:
+ * <ul>
+ *     <li>a magic byte and the format version;</li>
+ *     <li>the tag of its type;</li>
+ *     <li>the brief public message and the details;</li>
+ *     <li>up to maxFrames frames of its stack trace (class, method, file
+ *     and line);</li>
+ *     <li>the type and message of each link of its original exception
+ *     chain, up to ExceptionSummary.MAX_CHAIN_LENGTH links.</li>
+ * </ul>
+ * Strings are written once per message and referred to by index
+ * afterwards, so repeated class, method and file names cost a byte or
+ * two each.
+ * <p>
+ * Decoding rebuilds the matching specifics type through a switch over
+ * the tag, with no reflection. Types the codec doesn't know, such as
+ * subclasses of the specifics ones, are decoded as their closest known
+ * supertype. The original exception chain is rebuilt as ExceptionSummary
+ * instances, which keep the message of the decoded exception the same
+ * it was. Instances of this class are immutable and thread-safe.
+ */
+public final class BinaryExceptionCodec {
+
+    public static final int MAGIC = 0xCA;
+
+    public static final int VERSION = 1;
+
+    public static final int DEFAULT_MAX_FRAMES = 32;
+
+    private static final int TAG_MAPPED = 0;
+    private static final int TAG_INPUT = 1;
+    private static final int TAG_NOT_FOUND = 2;
+    private static final int TAG_NOT_AUTHORIZED = 3;
+    private static final int TAG_NOT_AUTHENTICATED = 4;
+    private static final int TAG_INTERNAL = 5;
+
+    private static final BinaryExceptionCodec DEFAULTS = new BinaryExceptionCodec(DEFAULT_MAX_FRAMES);
+
+    private final int maxFrames;
+
+    private BinaryExceptionCodec(int maxFrames){
+        this.maxFrames = maxFrames;
+    }
+
+    /**
+     * Codec keeping up to DEFAULT_MAX_FRAMES frames.
+     * @return the codec
+     */
+    public static BinaryExceptionCodec defaults(){
+        return DEFAULTS;
+    }
+
+    /**
+     * Derives a codec keeping up to the amount of frames given.
+     * @param newMaxFrames the max amount of frames to keep
+     * @return the derived codec
+     */
+    public BinaryExceptionCodec withMaxFrames(int newMaxFrames){
+        if (newMaxFrames < 0){
+            throw new IllegalArgumentException("The max amount of frames can't be negative");
+        }
+        return new BinaryExceptionCodec(newMaxFrames);
+    }
+
+    public byte[] encode(MappedException exception){
+        var writer = new BinaryEncoding.Writer();
+        this.encode(exception, writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Encodes the exception into the buffer, from its position on.
+     * @param exception the exception
+     * @param destination the buffer
+     * @throws java.nio.BufferOverflowException if the buffer runs out of room
+     */
+    public void encode(MappedException exception, ByteBuffer destination){
+        var writer = new BinaryEncoding.Writer();
+        this.encode(exception, writer);
+        writer.writeTo(destination);
+    }
+
+    private void encode(MappedException exception, BinaryEncoding.Writer writer){
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        writer.writeByte(tagOf(exception));
+        writer.writeString(exception.getBriefPublicMessage());
+        writer.writeString(exception.getDetails().orElse(null));
+        var snapshot = exception.getStackSnapshot();
+        var frameCount = Math.min(snapshot.getCapturedDepth(), this.maxFrames);
+        writer.writeVarInt(frameCount);
+        for (var index = 0; index < frameCount; index ++){
+            var frame = snapshot.frameAt(index);
+            writer.writeString(frame.getClassName());
+            writer.writeString(frame.getMethodName());
+            writer.writeString(frame.getFileName());
+            writer.writeSignedVarInt(frame.getLineNumber());
+        }
+        var causes = exception.getOriginalException().map(original -> ExceptionSummary.of(original, 0)).orElse(null);
+        var causeCount = 0;
+        for (var cause = causes; cause != null; cause = cause.getCause()){
+            causeCount ++;
+        }
+        writer.writeVarInt(causeCount);
+        for (var cause = causes; cause != null; cause = cause.getCause()){
+            writer.writeString(cause.getTypeName());
+            writer.writeString(cause.getMessage());
+        }
+    }
+
+    private static int tagOf(MappedException exception){
+        if (exception instanceof InputMappedException){
+            return TAG_INPUT;
+        }
+        if (exception instanceof NotFoundMappedException){
+            return TAG_NOT_FOUND;
+        }
+        if (exception instanceof NotAuthorizedMappedException){
+            return TAG_NOT_AUTHORIZED;
+        }
+        if (exception instanceof NotAuthenticatedMappedException){
+            return TAG_NOT_AUTHENTICATED;
+        }
+        if (exception instanceof InternalMappedException){
+            return TAG_INTERNAL;
+        }
+        return TAG_MAPPED;
+    }
+
+    private static MappedExceptionCategory categoryOf(int tag){
+        switch (tag){
+            case TAG_MAPPED: return MappedExceptionCategory.UNMAPPED;
+            case TAG_INPUT: return MappedExceptionCategory.INPUT;
+            case TAG_NOT_FOUND: return MappedExceptionCategory.NOT_FOUND;
+            case TAG_NOT_AUTHORIZED: return MappedExceptionCategory.NOT_AUTHORIZED;
+            case TAG_NOT_AUTHENTICATED: return MappedExceptionCategory.NOT_AUTHENTICATED;
+            case TAG_INTERNAL: return MappedExceptionCategory.INTERNAL;
+            default: throw new IllegalArgumentException("Unknown type tag " + tag);
+        }
+    }
+
+    public MappedException decode(byte[] encoded){
+        return this.decode(ByteBuffer.wrap(encoded));
+    }
+
+    /**
+     * Decodes an exception from the buffer, from its position on.
+     * @param source the buffer
+     * @return the decoded exception
+     * @throws IllegalArgumentException if the bytes are no encoded exception
+     * of a supported version, or if they carry more frames than the max
+     * amount of frames of this codec
+     */
+    public MappedException decode(ByteBuffer source){
+        try {
+            return this.decode(new BinaryEncoding.Reader(source, "encoded exception"));
+        } catch (BufferUnderflowException exception){
+            throw new IllegalArgumentException("Truncated encoded exception", exception);
+        }
+    }
+
+    private MappedException decode(BinaryEncoding.Reader reader){
+        var magic = reader.readByte();
+        if (magic != MAGIC){
+            throw new IllegalArgumentException("Not an encoded exception");
+        }
+        var version = reader.readByte();
+        if (version != VERSION){
+            throw new IllegalArgumentException("Unsupported version " + version + " of encoded exceptions");
+        }
+        var category = categoryOf(reader.readByte());
+        var briefPublicMessage = reader.readString();
+        var details = reader.readString();
+        var frames = new StackTraceElement[reader.readCount(this.maxFrames)];
+        for (var index = 0; index < frames.length; index ++){
+            var className = reader.readString();
+            var methodName = reader.readString();
+            var fileName = reader.readString();
+            var lineNumber = reader.readSignedVarInt();
+            frames[index] = new StackTraceElement(className, methodName, fileName, lineNumber);
+        }
+        var causeCount = reader.readCount(ExceptionSummary.MAX_CHAIN_LENGTH);
+        var causeTypes = new String[causeCount];
+        var causeMessages = new String[causeCount];
+        for (var index = 0; index < causeCount; index ++){
+            causeTypes[index] = reader.readString();
+            causeMessages[index] = reader.readString();
+        }
+        ExceptionSummary original = null;
+        for (var index = causeCount - 1; index >= 0; index --){
+            original = new ExceptionSummary(causeTypes[index], causeMessages[index], original, null);
+        }
+        var originalException = original;
+        return MappedException.withRestoredStackTrace(frames, () -> category.instantiate(briefPublicMessage, details, originalException));
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.cae.mapped_exceptions.encoding;
+
+import com.cae.mapped_exceptions.observability.ExceptionMetricsSnapshot;
+import com.cae.mapped_exceptions.observability.ExceptionStatistics;
+import com.cae.mapped_exceptions.observability.LatencyHistogramSnapshot;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+/**
+ * Versioned binary codec of ExceptionStatistics, for nodes to exchange
+ * them over any transport. Encoded statistics carry a magic byte and the
+ * format version, followed by the latest capture of each node: its
+ * counters, its top throw sites and its latency histograms, the latter
+ * with only their non-empty buckets. Strings are written once and
+ * referred to by index afterwards, just like in the BinaryExceptionCodec.
+ */
+public final class ExceptionStatisticsCodec {
+
+    public static final int MAGIC = 0xCE;
+
+    public static final int VERSION = 1;
+
+    private static final String SUBJECT = "encoded statistics";
+
+    private ExceptionStatisticsCodec(){}
+
+    /**
+     * Encodes the statistics into their binary form.
+     * @param statistics the statistics
+     * @return the encoded statistics
+     */
+    public static byte[] encode(ExceptionStatistics statistics){
+        var writer = new BinaryEncoding.Writer();
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        var nodes = statistics.getNodes();
+        writer.writeVarLong(nodes.size());
+        for (var node : nodes.entrySet()){
+            writer.writeString(node.getKey());
+            encode(node.getValue(), writer);
+        }
+        return writer.toByteArray();
+    }
+
+    private static void encode(ExceptionStatistics.NodeStatistics node, BinaryEncoding.Writer writer){
+        writer.writeVarLong(node.getVersion());
+        var entries = node.getEntries();
+        writer.writeVarLong(entries.size());
+        for (var entry : entries){
+            writer.writeString(entry.getTypeName());
+            writer.writeString(entry.getBriefPublicMessage());
+            writer.writeVarLong(entry.getCount());
+        }
+        writer.writeVarLong(node.getSitesFloor());
+        var sites = node.getSites();
+        writer.writeVarLong(sites.size());
+        for (var site : sites){
+            writer.writeString(site.getTypeName());
+            writer.writeString(site.getClassName());
+            writer.writeString(site.getMethodName());
+            writer.writeSignedVarInt(site.getLineNumber());
+            writer.writeVarLong(site.getCount());
+            writer.writeVarLong(site.getError());
+        }
+        var latencies = node.getLatencies();
+        writer.writeVarLong(latencies.size());
+        for (var latency : latencies.entrySet()){
+            writer.writeString(latency.getKey());
+            encode(latency.getValue(), writer);
+        }
+    }
+
+    private static void encode(LatencyHistogramSnapshot snapshot, BinaryEncoding.Writer writer){
+        writer.writeVarLong(snapshot.getSum());
+        writer.writeVarLong(snapshot.getMax());
+        var bucketCount = LatencyHistogramSnapshot.getBucketCount();
+        var buckets = 0;
+        for (var index = 0; index < bucketCount; index ++){
+            if (snapshot.getCountAt(index) != 0){
+                buckets ++;
+            }
+        }
+        writer.writeVarLong(buckets);
+        var previous = 0;
+        for (var index = 0; index < bucketCount; index ++){
+            var count = snapshot.getCountAt(index);
+            if (count != 0){
+                writer.writeVarLong(index - previous);
+                writer.writeVarLong(count);
+                previous = index;
+            }
+        }
+    }
+
+    /**
+     * Decodes statistics from their binary form.
+     * @param encoded the encoded statistics
+     * @return the decoded statistics
+     * @throws IllegalArgumentException if the bytes are no encoded
+     * statistics of a supported version
+     */
+    public static ExceptionStatistics decode(byte[] encoded){
+        try {
+            var reader = new BinaryEncoding.Reader(ByteBuffer.wrap(encoded), SUBJECT);
+            if (reader.readByte() != MAGIC){
+                throw new IllegalArgumentException("Not encoded statistics");
+            }
+            var version = reader.readByte();
+            if (version != VERSION){
+                throw new IllegalArgumentException("Unsupported version " + version + " of encoded statistics");
+            }
+            var nodeCount = reader.readCount();
+            var nodes = new TreeMap<String, ExceptionStatistics.NodeStatistics>();
+            for (var index = 0; index < nodeCount; index ++){
+                var nodeId = readName(reader);
+                nodes.put(nodeId, decodeNode(reader));
+            }
+            return ExceptionStatistics.ofNodes(nodes);
+        } catch (BufferUnderflowException exception){
+            throw new IllegalArgumentException("Truncated " + SUBJECT, exception);
+        }
+    }
+
+    private static ExceptionStatistics.NodeStatistics decodeNode(BinaryEncoding.Reader reader){
+        var version = reader.readVarLong();
+        var entryCount = reader.readCount();
+        var entries = new ArrayList<ExceptionMetricsSnapshot.Entry>(entryCount);
+        for (var index = 0; index < entryCount; index ++){
+            entries.add(ExceptionMetricsSnapshot.Entry.of(readName(reader), readName(reader), reader.readVarLong()));
+        }
+        var sitesFloor = reader.readVarLong();
+        var siteCount = reader.readCount();
+        var sites = new ArrayList<ExceptionStatistics.SiteCount>(siteCount);
+        for (var index = 0; index < siteCount; index ++){
+            var typeName = readName(reader);
+            var className = readName(reader);
+            var methodName = readName(reader);
+            var lineNumber = reader.readSignedVarInt();
+            sites.add(ExceptionStatistics.SiteCount.of(typeName, className, methodName, lineNumber, reader.readVarLong(), reader.readVarLong()));
+        }
+        var latencyCount = reader.readCount();
+        var latencies = new TreeMap<String, LatencyHistogramSnapshot>();
+        for (var index = 0; index < latencyCount; index ++){
+            latencies.put(readName(reader), decodeHistogram(reader));
+        }
+        return ExceptionStatistics.NodeStatistics.of(version, entries, sites, sitesFloor, latencies);
+    }
+
+    private static String readName(BinaryEncoding.Reader reader){
+        var name = reader.readString();
+        if (name == null){
+            throw new IllegalArgumentException("Missing name in " + SUBJECT);
+        }
+        return name;
+    }
+
+    private static LatencyHistogramSnapshot decodeHistogram(BinaryEncoding.Reader reader){
+        var sum = reader.readVarLong();
+        var max = reader.readVarLong();
+        var counts = new long[LatencyHistogramSnapshot.getBucketCount()];
+        var buckets = reader.readCount(counts.length);
+        var index = 0L;
+        for (var bucket = 0; bucket < buckets; bucket ++){
+            index += reader.readVarLong();
+            if (index < 0 || index >= counts.length){
+                throw new IllegalArgumentException("Bucket " + index + " out of the histogram");
+            }
+            counts[(int) index] = reader.readVarLong();
+        }
+        return LatencyHistogramSnapshot.of(counts, sum, max);
+    }
+
+}
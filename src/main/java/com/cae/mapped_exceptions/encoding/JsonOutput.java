@@ -0,0 +1,202 @@
+package com.cae.mapped_exceptions.encoding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Destination of the JSON the encoders write, which takes bytes and
+ * encodes strings as escaped UTF-8 straight into it, without building
+ * intermediate Strings or byte arrays.
+ */
+abstract class JsonOutput {
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+
+    abstract void writeByte(int value);
+
+    abstract void writeBytes(byte[] bytes);
+
+    void finish(){}
+
+    static JsonOutput of(ByteBuffer destination){
+        return new ByteBufferOutput(destination);
+    }
+
+    static JsonOutput of(OutputStream destination){
+        return new OutputStreamOutput(destination);
+    }
+
+    void writeInt(int value){
+        if (value < 0){
+            this.writeByte('-');
+            if (value == Integer.MIN_VALUE){
+                this.writeBytes("2147483648".getBytes());
+                return;
+            }
+            value = -value;
+        }
+        if (value >= 10){
+            this.writeInt(value / 10);
+        }
+        this.writeByte('0' + value % 10);
+    }
+
+    /**
+     * Writes the string quoted and escaped, or null when it is null.
+     * Unpaired surrogates are written as '?', just like the JDK encoder
+     * does by default.
+     * @param value the string
+     */
+    void writeString(CharSequence value){
+        if (value == null){
+            this.writeByte('n');
+            this.writeByte('u');
+            this.writeByte('l');
+            this.writeByte('l');
+            return;
+        }
+        this.writeByte('"');
+        this.writeEscaped(value);
+        this.writeByte('"');
+    }
+
+    void writeEscaped(CharSequence value){
+        var length = value.length();
+        for (var index = 0; index < length; index ++){
+            var character = value.charAt(index);
+            if (character < 0x80){
+                this.writeAscii(character);
+            }
+            else if (character < 0x800){
+                this.writeByte(0xc0 | (character >> 6));
+                this.writeByte(0x80 | (character & 0x3f));
+            }
+            else if (Character.isHighSurrogate(character) && index + 1 < length && Character.isLowSurrogate(value.charAt(index + 1))){
+                var codePoint = Character.toCodePoint(character, value.charAt(++ index));
+                this.writeByte(0xf0 | (codePoint >> 18));
+                this.writeByte(0x80 | ((codePoint >> 12) & 0x3f));
+                this.writeByte(0x80 | ((codePoint >> 6) & 0x3f));
+                this.writeByte(0x80 | (codePoint & 0x3f));
+            }
+            else if (Character.isSurrogate(character)){
+                this.writeByte('?');
+            }
+            else {
+                this.writeByte(0xe0 | (character >> 12));
+                this.writeByte(0x80 | ((character >> 6) & 0x3f));
+                this.writeByte(0x80 | (character & 0x3f));
+            }
+        }
+    }
+
+    private void writeAscii(char character){
+        switch (character){
+            case '"':
+            case '\\':
+                this.writeByte('\\');
+                this.writeByte(character);
+                return;
+            case '\n':
+                this.writeByte('\\');
+                this.writeByte('n');
+                return;
+            case '\r':
+                this.writeByte('\\');
+                this.writeByte('r');
+                return;
+            case '\t':
+                this.writeByte('\\');
+                this.writeByte('t');
+                return;
+            default:
+                if (character < 0x20){
+                    this.writeByte('\\');
+                    this.writeByte('u');
+                    this.writeByte('0');
+                    this.writeByte('0');
+                    this.writeByte(HEX_DIGITS[character >> 4]);
+                    this.writeByte(HEX_DIGITS[character & 0xf]);
+                } else {
+                    this.writeByte(character);
+                }
+        }
+    }
+
+    private static final class ByteBufferOutput extends JsonOutput {
+
+        private final ByteBuffer destination;
+
+        private ByteBufferOutput(ByteBuffer destination){
+            this.destination = destination;
+        }
+
+        @Override
+        void writeByte(int value){
+            this.destination.put((byte) value);
+        }
+
+        @Override
+        void writeBytes(byte[] bytes){
+            this.destination.put(bytes);
+        }
+
+    }
+
+    private static final class OutputStreamOutput extends JsonOutput {
+
+        private static final int BUFFER_SIZE = 512;
+
+        private final OutputStream destination;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int position;
+
+        private OutputStreamOutput(OutputStream destination){
+            this.destination = destination;
+        }
+
+        @Override
+        void writeByte(int value){
+            if (this.position == BUFFER_SIZE){
+                this.drain();
+            }
+            this.buffer[this.position ++] = (byte) value;
+        }
+
+        @Override
+        void writeBytes(byte[] bytes){
+            if (bytes.length > BUFFER_SIZE - this.position){
+                this.drain();
+                if (bytes.length > BUFFER_SIZE){
+                    this.writeToDestination(bytes, bytes.length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+            this.position += bytes.length;
+        }
+
+        @Override
+        void finish(){
+            this.drain();
+        }
+
+        private void drain(){
+            this.writeToDestination(this.buffer, this.position);
+            this.position = 0;
+        }
+
+        private void writeToDestination(byte[] bytes, int length){
+            try {
+                this.destination.write(bytes, 0, length);
+            } catch (IOException exception){
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+    }
+
+}
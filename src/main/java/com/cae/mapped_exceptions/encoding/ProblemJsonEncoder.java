@@ -0,0 +1,259 @@
+package com.cae.mapped_exceptions.encoding;
+
+import com.cae.mapped_exceptions.ExceptionSummary;
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.classification.ExceptionClassifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes MappedException instances as application/problem+json bodies
+ * straight into a ByteBuffer or an OutputStream, with no reflection and
+ * no intermediate String. The members which only depend on the type of
+ * the exception (status, category and, in the internal view, the type
+ * name) are encoded as UTF-8 once per type and then copied as they are.
+ * <p>
+ * The public view only has what can be shown to the outside world:
+ * <pre>
+ * {"status":404,"category":"NOT_FOUND","title":"Company not found"}
+ * </pre>
+ * The internal view, meant for logs and internal callers, adds the
+ * details, the diagnostic context, the first lines of the stack trace
+ * and a summary of the chain of original exceptions:
+ * <pre>
+ * {"status":500,"category":"INTERNAL","exceptionType":"...","title":"...",
+ *  "details":"...","context":{...},"stackTrace":["..."],"causes":[{"type":"...","message":"..."}]}
+ * </pre>
+ */
+public final class ProblemJsonEncoder {
+
+    public static final String MEDIA_TYPE = "application/problem+json";
+
+    public static final int DEFAULT_STACK_TRACE_LINES = 10;
+
+    public static final int MAX_CAUSES = 8;
+
+    private static final byte[] DETAILS = ascii(",\"details\":");
+
+    private static final byte[] CONTEXT = ascii(",\"context\":{");
+
+    private static final byte[] STACK_TRACE = ascii(",\"stackTrace\":[");
+
+    private static final byte[] CAUSES = ascii(",\"causes\":[");
+
+    private static final byte[] CAUSE_TYPE = ascii("{\"type\":");
+
+    private static final byte[] CAUSE_MESSAGE = ascii(",\"message\":");
+
+    private static final ProblemJsonEncoder PUBLIC_VIEW = new ProblemJsonEncoder(ExceptionClassifier.http(), false, 0);
+
+    private static final ProblemJsonEncoder INTERNAL_VIEW = new ProblemJsonEncoder(ExceptionClassifier.http(), true, DEFAULT_STACK_TRACE_LINES);
+
+    private final ExceptionClassifier classifier;
+
+    private final boolean internal;
+
+    private final int stackTraceLines;
+
+    private final ClassValue<byte[]> prefixes = new ClassValue<>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return ProblemJsonEncoder.this.prefixOf(type);
+        }
+    };
+
+    private ProblemJsonEncoder(ExceptionClassifier classifier, boolean internal, int stackTraceLines){
+        this.classifier = classifier;
+        this.internal = internal;
+        this.stackTraceLines = stackTraceLines;
+    }
+
+    /**
+     * Encoder of the public view, with HTTP statuses. The same instance is
+     * given on every call, so its per-type cache is shared.
+     * @return the encoder
+     */
+    public static ProblemJsonEncoder publicView(){
+        return PUBLIC_VIEW;
+    }
+
+    /**
+     * Encoder of the internal view, with HTTP statuses and up to
+     * DEFAULT_STACK_TRACE_LINES lines of stack trace. The same instance is
+     * given on every call, so its per-type cache is shared.
+     * @return the encoder
+     */
+    public static ProblemJsonEncoder internalView(){
+        return INTERNAL_VIEW;
+    }
+
+    public static ProblemJsonEncoder internalView(int stackTraceLines){
+        if (stackTraceLines < 0){
+            throw new IllegalArgumentException("The amount of stack trace lines can't be negative");
+        }
+        if (stackTraceLines == DEFAULT_STACK_TRACE_LINES){
+            return INTERNAL_VIEW;
+        }
+        return new ProblemJsonEncoder(ExceptionClassifier.http(), true, stackTraceLines);
+    }
+
+    /**
+     * Derives an encoder which gets categories and statuses from the
+     * classifier.
+     * @param newClassifier the classifier
+     * @return the derived encoder
+     */
+    public ProblemJsonEncoder withClassifier(ExceptionClassifier newClassifier){
+        return new ProblemJsonEncoder(newClassifier, this.internal, this.stackTraceLines);
+    }
+
+    public boolean isInternalView(){
+        return this.internal;
+    }
+
+    /**
+     * Encodes the exception into the buffer, from its position on.
+     * @param exception the exception
+     * @param destination the buffer
+     * @throws java.nio.BufferOverflowException if the buffer runs out of room
+     */
+    public void encode(MappedException exception, ByteBuffer destination){
+        this.encode(exception, JsonOutput.of(destination));
+    }
+
+    /**
+     * Encodes the exception into the stream, which is neither flushed nor
+     * closed.
+     * @param exception the exception
+     * @param destination the stream
+     * @throws IOException if the stream fails
+     */
+    public void encode(MappedException exception, OutputStream destination) throws IOException {
+        try {
+            this.encode(exception, JsonOutput.of(destination));
+        } catch (UncheckedIOException failure){
+            throw failure.getCause();
+        }
+    }
+
+    public byte[] encodeToBytes(MappedException exception){
+        var destination = new ByteArrayOutputStream(256);
+        this.encode(exception, JsonOutput.of(destination));
+        return destination.toByteArray();
+    }
+
+    private void encode(MappedException exception, JsonOutput output){
+        output.writeBytes(this.prefixes.get(exception.getClass()));
+        output.writeEscaped(String.valueOf(exception.getBriefPublicMessage()));
+        output.writeByte('"');
+        if (this.internal){
+            this.encodeInternalMembers(exception, output);
+        }
+        output.writeByte('}');
+        output.finish();
+    }
+
+    private void encodeInternalMembers(MappedException exception, JsonOutput output){
+        var details = exception.getDetails();
+        if (details.isPresent()){
+            output.writeBytes(DETAILS);
+            output.writeString(details.get());
+        }
+        var context = exception.getContext();
+        if (!context.isEmpty()){
+            output.writeBytes(CONTEXT);
+            for (var index = 0; index < context.size(); index ++){
+                if (index > 0){
+                    output.writeByte(',');
+                }
+                output.writeString(context.keyAt(index));
+                output.writeByte(':');
+                output.writeString(context.valueAt(index));
+            }
+            output.writeByte('}');
+        }
+        if (this.stackTraceLines > 0 && exception.isStackTraceCaptured()){
+            output.writeBytes(STACK_TRACE);
+            var lines = exception.getLinesFromStackTrace(this.stackTraceLines);
+            for (var index = 0; index < lines.size(); index ++){
+                if (index > 0){
+                    output.writeByte(',');
+                }
+                output.writeString(lines.get(index));
+            }
+            output.writeByte(']');
+        }
+        this.encodeCauses(exception, output);
+    }
+
+    private void encodeCauses(MappedException exception, JsonOutput output){
+        var seen = new Throwable[MAX_CAUSES + 1];
+        seen[0] = exception;
+        var current = causeOf(exception);
+        var count = 0;
+        while (current != null && count < MAX_CAUSES && !contains(seen, count + 1, current)){
+            if (count == 0){
+                output.writeBytes(CAUSES);
+            } else {
+                output.writeByte(',');
+            }
+            output.writeBytes(CAUSE_TYPE);
+            output.writeString(ExceptionSummary.typeNameOf(current));
+            output.writeBytes(CAUSE_MESSAGE);
+            output.writeString(current.getMessage());
+            output.writeByte('}');
+            seen[++ count] = current;
+            current = causeOf(current);
+        }
+        if (count > 0){
+            output.writeByte(']');
+        }
+    }
+
+    private static Throwable causeOf(Throwable throwable){
+        if (throwable instanceof MappedException){
+            var original = ((MappedException) throwable).getOriginalException();
+            if (original.isPresent()){
+                return original.get();
+            }
+        }
+        return throwable.getCause();
+    }
+
+    private static boolean contains(Throwable[] seen, int length, Throwable throwable){
+        for (var index = 0; index < length; index ++){
+            if (seen[index] == throwable){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] prefixOf(Class<?> type){
+        var classification = this.classifier.classify((Class<? extends Throwable>) type);
+        var destination = new ByteArrayOutputStream(96);
+        var output = JsonOutput.of(destination);
+        output.writeBytes(ascii("{\"status\":"));
+        output.writeInt(classification.getStatus());
+        output.writeBytes(ascii(",\"category\":"));
+        output.writeString(classification.getCategory().name());
+        if (this.internal){
+            output.writeBytes(ascii(",\"exceptionType\":"));
+            output.writeString(type.getName());
+        }
+        output.writeBytes(ascii(",\"title\":\""));
+        output.finish();
+        return destination.toByteArray();
+    }
+
+    private static byte[] ascii(String value){
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.MappedException;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in registry counting the MappedException instances created, per
+ * concrete type and brief public message. Once enabled, every creation
+ * gets recorded, except for the shared instances of
+ * {@link com.cae.mapped_exceptions.SharedMappedExceptions}. Counts are of creations, not of throws.
+ * <p>
+ * Counters are LongAdder instances, so recording from many threads
+ * causes no contended writes, and looking them up is a lock-free read
+ * of a ConcurrentHashMap. The key space is bounded: once it is full,
+ * new brief messages of known types are counted in the overflow bucket
+ * of their type, and new types in the overall overflow bucket. When the
+ * registry is disabled, creating exceptions costs a single volatile
+ * read more.
+ */
+public final class ExceptionMetrics {
+
+    public static final String OVERFLOW = "<other>";
+
+    public static final int DEFAULT_MAX_KEYS = 1_024;
+
+    private static volatile ExceptionMetrics active;
+
+    private final int maxKeys;
+
+    private final AtomicInteger keys = new AtomicInteger();
+
+    private final ConcurrentHashMap<Class<?>, TypeCounters> types = new ConcurrentHashMap<>();
+
+    private final LongAdder overflow = new LongAdder();
+
+    private ExceptionMetrics(int maxKeys){
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Turns the registry on with room for DEFAULT_MAX_KEYS keys.
+     * @return the registry which is now active
+     */
+    public static ExceptionMetrics enable(){
+        return enable(DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * Turns the registry on for every MappedException, replacing the
+     * previous registry, if any. Each type and each pair of type and
+     * brief message takes a key.
+     * @param maxKeys the maximum number of keys to count apart
+     * @return the registry which is now active
+     */
+    public static ExceptionMetrics enable(int maxKeys){
+        if (maxKeys < 1){
+            throw new IllegalArgumentException("The registry needs room for at least one key, got " + maxKeys);
+        }
+        var metrics = new ExceptionMetrics(maxKeys);
+        active = metrics;
+        return metrics;
+    }
+
+    public static void disable(){
+        active = null;
+    }
+
+    /**
+     * Getter method for the active registry.
+     * @return the active registry or null when counting is off
+     */
+    public static ExceptionMetrics active(){
+        return active;
+    }
+
+    /**
+     * Counts the creation of the exception.
+     * @param exception the exception created
+     */
+    public void record(MappedException exception){
+        var type = exception.getClass();
+        var counters = this.types.get(type);
+        if (counters == null){
+            counters = this.register(type);
+            if (counters == null){
+                this.overflow.increment();
+                return;
+            }
+        }
+        counters.record(String.valueOf(exception.getBriefPublicMessage()));
+    }
+
+    private TypeCounters register(Class<?> type){
+        if (!this.reserveKey()){
+            return null;
+        }
+        var counters = new TypeCounters(type.getName());
+        var existing = this.types.putIfAbsent(type, counters);
+        if (existing != null){
+            this.keys.decrementAndGet();
+            return existing;
+        }
+        return counters;
+    }
+
+    private boolean reserveKey(){
+        while (true){
+            var current = this.keys.get();
+            if (current >= this.maxKeys){
+                return false;
+            }
+            if (this.keys.compareAndSet(current, current + 1)){
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reads the counters, leaving them as they are.
+     * @return the snapshot of the counters
+     */
+    public ExceptionMetricsSnapshot snapshot(){
+        return this.snapshot(false);
+    }
+
+    /**
+     * Reads the counters and resets them, which is what scrapers wanting
+     * the counts since their last scrape should call. Creations recorded
+     * while it runs land either in this snapshot or in the next one.
+     * @return the snapshot of the counters
+     */
+    public ExceptionMetricsSnapshot snapshotAndReset(){
+        return this.snapshot(true);
+    }
+
+    private ExceptionMetricsSnapshot snapshot(boolean reset){
+        var entries = new ArrayList<ExceptionMetricsSnapshot.Entry>();
+        for (var counters : this.types.values()){
+            for (var message : counters.messages.entrySet()){
+                addEntry(entries, counters.typeName, message.getKey(), message.getValue(), reset);
+            }
+            addEntry(entries, counters.typeName, OVERFLOW, counters.overflow, reset);
+        }
+        addEntry(entries, OVERFLOW, OVERFLOW, this.overflow, reset);
+        return new ExceptionMetricsSnapshot(entries);
+    }
+
+    private static void addEntry(ArrayList<ExceptionMetricsSnapshot.Entry> entries, String typeName, String briefPublicMessage, LongAdder counter, boolean reset){
+        var count = reset? counter.sumThenReset() : counter.sum();
+        if (count > 0){
+            entries.add(new ExceptionMetricsSnapshot.Entry(typeName, briefPublicMessage, count));
+        }
+    }
+
+    public int getMaxKeys(){
+        return this.maxKeys;
+    }
+
+    private final class TypeCounters {
+
+        private final String typeName;
+
+        private final Map<String, LongAdder> messages = new ConcurrentHashMap<>();
+
+        private final LongAdder overflow = new LongAdder();
+
+        private TypeCounters(String typeName){
+            this.typeName = typeName;
+        }
+
+        private void record(String briefPublicMessage){
+            var counter = this.messages.get(briefPublicMessage);
+            if (counter == null){
+                counter = this.register(briefPublicMessage);
+                if (counter == null){
+                    this.overflow.increment();
+                    return;
+                }
+            }
+            counter.increment();
+        }
+
+        private LongAdder register(String briefPublicMessage){
+            if (!ExceptionMetrics.this.reserveKey()){
+                return null;
+            }
+            var counter = new LongAdder();
+            var existing = this.messages.putIfAbsent(briefPublicMessage, counter);
+            if (existing != null){
+                ExceptionMetrics.this.keys.decrementAndGet();
+                return existing;
+            }
+            return counter;
+        }
+
+    }
+
+}
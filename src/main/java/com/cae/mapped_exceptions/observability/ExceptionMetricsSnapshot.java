@@ -0,0 +1,139 @@
+package com.cae.mapped_exceptions.observability;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable reading of the ExceptionMetrics counters: one entry per type
+ * and brief public message with a count above zero, the overflow buckets
+ * having ExceptionMetrics.OVERFLOW as brief message or as both.
+ */
+public final class ExceptionMetricsSnapshot {
+
+    private final List<Entry> entries;
+
+    ExceptionMetricsSnapshot(List<Entry> entries){
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public List<Entry> getEntries(){
+        return this.entries;
+    }
+
+    /**
+     * The count of a type and brief message.
+     * @param type the type
+     * @param briefPublicMessage the brief message
+     * @return the count, zero if there is no such entry
+     */
+    public long getCount(Class<?> type, String briefPublicMessage){
+        return this.getCount(type.getName(), briefPublicMessage);
+    }
+
+    public long getCount(String typeName, String briefPublicMessage){
+        for (var entry : this.entries){
+            if (entry.typeName.equals(typeName) && entry.briefPublicMessage.equals(briefPublicMessage)){
+                return entry.count;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The count of a type, overflow bucket included.
+     * @param type the type
+     * @return the count
+     */
+    public long getTypeCount(Class<?> type){
+        var typeName = type.getName();
+        var count = 0L;
+        for (var entry : this.entries){
+            if (entry.typeName.equals(typeName)){
+                count += entry.count;
+            }
+        }
+        return count;
+    }
+
+    public long getTotalCount(){
+        var count = 0L;
+        for (var entry : this.entries){
+            count += entry.count;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString(){
+        return this.entries.toString();
+    }
+
+    /**
+     * Count of a type and brief public message.
+     */
+    public static final class Entry {
+
+        private final String typeName;
+
+        private final String briefPublicMessage;
+
+        private final long count;
+
+        Entry(String typeName, String briefPublicMessage, long count){
+            this.typeName = typeName;
+            this.briefPublicMessage = briefPublicMessage;
+            this.count = count;
+        }
+
+        /**
+         * Factory method for entries read back from some other form, such
+         * as the binary one of ExceptionStatistics.
+         * @param typeName the name of the exception type
+         * @param briefPublicMessage the brief public message
+         * @param count the count
+         * @return the entry
+         */
+        public static Entry of(String typeName, String briefPublicMessage, long count){
+            return new Entry(Objects.requireNonNull(typeName, "typeName"), Objects.requireNonNull(briefPublicMessage, "briefPublicMessage"), count);
+        }
+
+        public String getTypeName(){
+            return this.typeName;
+        }
+
+        public String getBriefPublicMessage(){
+            return this.briefPublicMessage;
+        }
+
+        public long getCount(){
+            return this.count;
+        }
+
+        @Override
+        public boolean equals(Object other){
+            if (this == other){
+                return true;
+            }
+            if (!(other instanceof Entry)){
+                return false;
+            }
+            var that = (Entry) other;
+            return this.count == that.count
+                    && this.typeName.equals(that.typeName)
+                    && this.briefPublicMessage.equals(that.briefPublicMessage);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(this.typeName, this.briefPublicMessage, this.count);
+        }
+
+        @Override
+        public String toString(){
+            return this.typeName + " \"" + this.briefPublicMessage + "\": " + this.count;
+        }
+
+    }
+
+}
@@ -0,0 +1,573 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.encoding.ExceptionStatisticsCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Mergeable statistics of MappedException occurrences across the nodes
+ * of a fleet: counts per type and brief public message, the top throw
+ * sites and the handling latencies per type. Each node captures its own
+ * statistics from its registries, and nodes exchange and merge them over
+ * any transport, with no central backend.
+ * <p>
+ * Statistics hold the latest capture of every node they heard of, keyed
+ * by node id, and merging keeps the capture with the highest version of
+ * each node. That makes merging associative, commutative and idempotent,
+ * so the order in which captures travel, and whether some arrive twice,
+ * makes no difference. For that to hold, the captures of a node must be
+ * cumulative, which means its registries must not be reset between them,
+ * and their versions must increase. Fleet-wide figures add up the latest
+ * capture of every node.
+ * <p>
+ * Instances are immutable, and toBytes gives a compact versioned binary
+ * form of them, as written by the ExceptionStatisticsCodec.
+ */
+public final class ExceptionStatistics {
+
+    public static final int DEFAULT_MAX_SITES = 32;
+
+    private static final Comparator<ExceptionMetricsSnapshot.Entry> ENTRY_ORDER = Comparator
+            .comparing(ExceptionMetricsSnapshot.Entry::getTypeName)
+            .thenComparing(ExceptionMetricsSnapshot.Entry::getBriefPublicMessage);
+
+    private static final Comparator<SiteCount> SITE_ORDER = Comparator
+            .comparingLong(SiteCount::getCount).reversed()
+            .thenComparing(SiteCount::getTypeName)
+            .thenComparing(SiteCount::getClassName)
+            .thenComparing(SiteCount::getMethodName)
+            .thenComparingInt(SiteCount::getLineNumber);
+
+    private static final Comparator<ExceptionMetricsSnapshot.Entry> ENTRY_TIE_BREAK = ENTRY_ORDER
+            .thenComparingLong(ExceptionMetricsSnapshot.Entry::getCount);
+
+    private static final Comparator<SiteCount> SITE_TIE_BREAK = SITE_ORDER
+            .thenComparingLong(SiteCount::getError);
+
+    private static final Comparator<Map.Entry<String, LatencyHistogramSnapshot>> LATENCY_TIE_BREAK = Map.Entry
+            .<String, LatencyHistogramSnapshot>comparingByKey()
+            .thenComparing(Map.Entry::getValue, ExceptionStatistics::compareHistograms);
+
+    private static final ExceptionStatistics EMPTY = new ExceptionStatistics(new TreeMap<>());
+
+    private final TreeMap<String, NodeStatistics> nodes;
+
+    private ExceptionStatistics(TreeMap<String, NodeStatistics> nodes){
+        this.nodes = nodes;
+    }
+
+    /**
+     * Statistics of no node, which is the identity of merge.
+     * @return the empty statistics
+     */
+    public static ExceptionStatistics empty(){
+        return EMPTY;
+    }
+
+    public static ExceptionStatistics capture(String nodeId, long version){
+        return capture(nodeId, version, DEFAULT_MAX_SITES);
+    }
+
+    /**
+     * Captures the statistics of this node from the active ExceptionMetrics,
+     * ThrowSiteProfiler and HandlingLatencies, leaving them as they are.
+     * Registries which are off contribute nothing.
+     * @param nodeId the id of this node, unique across the fleet
+     * @param version the version of this capture, higher than the ones of
+     *                the previous captures of this node
+     * @param maxSites how many of the top throw sites to keep
+     * @return the statistics of this node alone
+     */
+    public static ExceptionStatistics capture(String nodeId, long version, int maxSites){
+        var metrics = ExceptionMetrics.active();
+        var profiler = ThrowSiteProfiler.active();
+        var latencies = HandlingLatencies.active();
+        return of(
+                nodeId,
+                version,
+                metrics == null? new ExceptionMetricsSnapshot(List.of()) : metrics.snapshot(),
+                profiler == null? List.of() : profiler.topK(maxSites + 1),
+                maxSites,
+                latencies == null? Map.of() : latencies.snapshot()
+        );
+    }
+
+    /**
+     * Builds the statistics of a node out of readings of its registries.
+     * @param nodeId the id of the node, unique across the fleet
+     * @param version the version of this capture
+     * @param counters the reading of its ExceptionMetrics
+     * @param topSites the top throw sites of its ThrowSiteProfiler
+     * @param maxSites how many of the top sites to keep
+     * @param latencies the reading of its HandlingLatencies
+     * @return the statistics of the node alone
+     */
+    public static ExceptionStatistics of(
+            String nodeId,
+            long version,
+            ExceptionMetricsSnapshot counters,
+            List<ThrowSiteProfiler.HeavyHitter> topSites,
+            int maxSites,
+            Map<String, LatencyHistogramSnapshot> latencies){
+        Objects.requireNonNull(nodeId, "nodeId");
+        if (version < 0){
+            throw new IllegalArgumentException("Versions can't be negative, got " + version);
+        }
+        if (maxSites < 0){
+            throw new IllegalArgumentException("The max amount of sites can't be negative, got " + maxSites);
+        }
+        var entries = new ArrayList<>(counters.getEntries());
+        entries.sort(ENTRY_ORDER);
+        var sorted = new ArrayList<>(topSites);
+        sorted.sort(Comparator.comparingLong(ThrowSiteProfiler.HeavyHitter::getCount).reversed());
+        var sites = new ArrayList<SiteCount>(Math.min(sorted.size(), maxSites));
+        for (var index = 0; index < sorted.size() && index < maxSites; index ++){
+            var hitter = sorted.get(index);
+            var site = hitter.getSite();
+            sites.add(new SiteCount(site.getExceptionType().getName(), site.getClassName(), site.getMethodName(), site.getLineNumber(), hitter.getCount(), hitter.getError()));
+        }
+        sites.sort(SITE_ORDER);
+        // Sites left out of the list may have up to the count of the first of them.
+        var sitesFloor = sorted.size() > maxSites? sorted.get(maxSites).getCount() : 0L;
+        var node = new NodeStatistics(version, entries, sites, sitesFloor, new TreeMap<>(latencies));
+        var nodes = new TreeMap<String, NodeStatistics>();
+        nodes.put(nodeId, node);
+        return new ExceptionStatistics(nodes);
+    }
+
+    /**
+     * Builds statistics out of the latest capture of each node, such as
+     * the ones given by getNodes.
+     * @param nodes the captures per node id
+     * @return the statistics
+     */
+    public static ExceptionStatistics ofNodes(Map<String, NodeStatistics> nodes){
+        return nodes.isEmpty()? EMPTY : new ExceptionStatistics(new TreeMap<>(nodes));
+    }
+
+    /**
+     * Merges both statistics, keeping the latest capture of every node.
+     * @param other the other statistics
+     * @return the merged statistics
+     */
+    public ExceptionStatistics merge(ExceptionStatistics other){
+        if (other.nodes.isEmpty()){
+            return this;
+        }
+        if (this.nodes.isEmpty()){
+            return other;
+        }
+        var merged = new TreeMap<>(this.nodes);
+        for (var node : other.nodes.entrySet()){
+            merged.merge(node.getKey(), node.getValue(), NodeStatistics::latest);
+        }
+        return new ExceptionStatistics(merged);
+    }
+
+    public Set<String> getNodeIds(){
+        return Collections.unmodifiableSet(this.nodes.keySet());
+    }
+
+    /**
+     * Getter method for the latest capture of every node.
+     * @return the captures per node id, sorted by node id
+     */
+    public SortedMap<String, NodeStatistics> getNodes(){
+        return Collections.unmodifiableSortedMap(this.nodes);
+    }
+
+    /**
+     * Getter method for the version of the latest capture of a node.
+     * @param nodeId the id of the node
+     * @return the version, or -1 for unknown nodes
+     */
+    public long getVersion(String nodeId){
+        var node = this.nodes.get(nodeId);
+        return node == null? -1 : node.version;
+    }
+
+    /**
+     * Adds up the counters of every node.
+     * @return the fleet-wide counters
+     */
+    public ExceptionMetricsSnapshot getCounters(){
+        var counts = new TreeMap<ExceptionMetricsSnapshot.Entry, Long>(ENTRY_ORDER);
+        for (var node : this.nodes.values()){
+            for (var entry : node.entries){
+                counts.merge(entry, entry.getCount(), Long::sum);
+            }
+        }
+        var entries = new ArrayList<ExceptionMetricsSnapshot.Entry>(counts.size());
+        counts.forEach((entry, count) -> entries.add(new ExceptionMetricsSnapshot.Entry(entry.getTypeName(), entry.getBriefPublicMessage(), count)));
+        return new ExceptionMetricsSnapshot(entries);
+    }
+
+    public long getCount(Class<?> type, String briefPublicMessage){
+        return this.getCount(type.getName(), briefPublicMessage);
+    }
+
+    public long getCount(String typeName, String briefPublicMessage){
+        var count = 0L;
+        for (var node : this.nodes.values()){
+            for (var entry : node.entries){
+                if (entry.getTypeName().equals(typeName) && entry.getBriefPublicMessage().equals(briefPublicMessage)){
+                    count += entry.getCount();
+                }
+            }
+        }
+        return count;
+    }
+
+    public long getTotalCount(){
+        var count = 0L;
+        for (var node : this.nodes.values()){
+            for (var entry : node.entries){
+                count += entry.getCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The fleet-wide top throw sites. The count of a site adds up its
+     * counts on the nodes which listed it and, as an upper bound, the
+     * highest count it could have on the nodes which left it out, which
+     * also goes into its error.
+     * @param k how many sites to give at most
+     * @return the sites, from the most counted one on
+     */
+    public List<SiteCount> topSites(int k){
+        var merged = new HashMap<SiteCount, long[]>();
+        var floorsTotal = 0L;
+        for (var node : this.nodes.values()){
+            floorsTotal += node.sitesFloor;
+            for (var site : node.sites){
+                var entry = merged.computeIfAbsent(site, key -> new long[3]);
+                entry[0] += site.count;
+                entry[1] += site.error;
+                entry[2] += node.sitesFloor;
+            }
+        }
+        var sites = new ArrayList<SiteCount>(merged.size());
+        for (var site : merged.entrySet()){
+            var entry = site.getValue();
+            var missingFloors = floorsTotal - entry[2];
+            var key = site.getKey();
+            sites.add(new SiteCount(key.typeName, key.className, key.methodName, key.lineNumber, entry[0] + missingFloors, entry[1] + missingFloors));
+        }
+        sites.sort(SITE_ORDER);
+        return sites.size() > k? new ArrayList<>(sites.subList(0, k)) : sites;
+    }
+
+    /**
+     * Merges the handling latencies of every node, per type.
+     * @return the fleet-wide latencies per type name
+     */
+    public Map<String, LatencyHistogramSnapshot> getLatencies(){
+        var merged = new TreeMap<String, LatencyHistogramSnapshot>();
+        for (var node : this.nodes.values()){
+            node.latencies.forEach((typeName, snapshot) -> merged.merge(typeName, snapshot, LatencyHistogramSnapshot::merge));
+        }
+        return Collections.unmodifiableMap(merged);
+    }
+
+    public LatencyHistogramSnapshot getLatencies(Class<?> type){
+        return this.getLatencies().getOrDefault(type.getName(), LatencyHistogramSnapshot.empty());
+    }
+
+    /**
+     * Encodes the statistics into their binary form.
+     * @return the encoded statistics
+     */
+    public byte[] toBytes(){
+        return ExceptionStatisticsCodec.encode(this);
+    }
+
+    /**
+     * Decodes statistics from their binary form.
+     * @param encoded the encoded statistics
+     * @return the decoded statistics
+     * @throws IllegalArgumentException if the bytes are no encoded
+     * statistics of a supported version
+     */
+    public static ExceptionStatistics fromBytes(byte[] encoded){
+        return ExceptionStatisticsCodec.decode(encoded);
+    }
+
+    @Override
+    public boolean equals(Object other){
+        if (this == other){
+            return true;
+        }
+        if (!(other instanceof ExceptionStatistics)){
+            return false;
+        }
+        return this.nodes.equals(((ExceptionStatistics) other).nodes);
+    }
+
+    @Override
+    public int hashCode(){
+        return this.nodes.hashCode();
+    }
+
+    @Override
+    public String toString(){
+        return "nodes=" + this.nodes.keySet() + ", total=" + this.getTotalCount();
+    }
+
+    /**
+     * Latest capture of a single node.
+     */
+    public static final class NodeStatistics {
+
+        private final long version;
+
+        private final List<ExceptionMetricsSnapshot.Entry> entries;
+
+        private final List<SiteCount> sites;
+
+        private final long sitesFloor;
+
+        private final TreeMap<String, LatencyHistogramSnapshot> latencies;
+
+        private NodeStatistics(long version, List<ExceptionMetricsSnapshot.Entry> entries, List<SiteCount> sites, long sitesFloor, TreeMap<String, LatencyHistogramSnapshot> latencies){
+            this.version = version;
+            this.entries = entries;
+            this.sites = sites;
+            this.sitesFloor = sitesFloor;
+            this.latencies = latencies;
+        }
+
+        /**
+         * Factory method for captures read back from some other form, such
+         * as the binary one.
+         * @param version the version of the capture
+         * @param entries the counters, sorted by type name and then by brief
+         *                public message
+         * @param sites the top throw sites, from the most counted one on
+         * @param sitesFloor the highest count the sites left out may have
+         * @param latencies the handling latencies per type name
+         * @return the capture
+         */
+        public static NodeStatistics of(
+                long version,
+                List<ExceptionMetricsSnapshot.Entry> entries,
+                List<SiteCount> sites,
+                long sitesFloor,
+                Map<String, LatencyHistogramSnapshot> latencies){
+            return new NodeStatistics(version, List.copyOf(entries), List.copyOf(sites), sitesFloor, new TreeMap<>(latencies));
+        }
+
+        public long getVersion(){
+            return this.version;
+        }
+
+        public List<ExceptionMetricsSnapshot.Entry> getEntries(){
+            return Collections.unmodifiableList(this.entries);
+        }
+
+        public List<SiteCount> getSites(){
+            return Collections.unmodifiableList(this.sites);
+        }
+
+        public long getSitesFloor(){
+            return this.sitesFloor;
+        }
+
+        public SortedMap<String, LatencyHistogramSnapshot> getLatencies(){
+            return Collections.unmodifiableSortedMap(this.latencies);
+        }
+
+        /**
+         * Picks the latest of two captures of the same node. Captures of
+         * the same version are expected to be equal, but should they not
+         * be, the pick depends on their contents only, never on the order
+         * of the arguments.
+         */
+        private static NodeStatistics latest(NodeStatistics first, NodeStatistics second){
+            if (first.version != second.version){
+                return first.version > second.version? first : second;
+            }
+            if (first.equals(second)){
+                return first;
+            }
+            return compareContents(first, second) >= 0? first : second;
+        }
+
+        private static int compareContents(NodeStatistics first, NodeStatistics second){
+            var result = compareLists(first.entries, second.entries, ENTRY_TIE_BREAK);
+            if (result == 0){
+                result = Long.compare(first.sitesFloor, second.sitesFloor);
+            }
+            if (result == 0){
+                result = compareLists(first.sites, second.sites, SITE_TIE_BREAK);
+            }
+            if (result == 0){
+                result = compareLists(new ArrayList<>(first.latencies.entrySet()), new ArrayList<>(second.latencies.entrySet()), LATENCY_TIE_BREAK);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object other){
+            if (this == other){
+                return true;
+            }
+            if (!(other instanceof NodeStatistics)){
+                return false;
+            }
+            var that = (NodeStatistics) other;
+            return this.version == that.version
+                    && this.sitesFloor == that.sitesFloor
+                    && this.entries.equals(that.entries)
+                    && compareLists(this.sites, that.sites, SITE_TIE_BREAK) == 0
+                    && this.latencies.equals(that.latencies);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(this.version, this.entries, this.sites, this.sitesFloor, this.latencies);
+        }
+
+    }
+
+    /**
+     * Throw site with its estimated count, which is an upper bound of the
+     * true one, and the error of that estimate. Sites are identified by
+     * name, so they can travel to nodes which don't have their classes.
+     */
+    public static final class SiteCount {
+
+        private final String typeName;
+
+        private final String className;
+
+        private final String methodName;
+
+        private final int lineNumber;
+
+        private final long count;
+
+        private final long error;
+
+        private SiteCount(String typeName, String className, String methodName, int lineNumber, long count, long error){
+            this.typeName = typeName;
+            this.className = className;
+            this.methodName = methodName;
+            this.lineNumber = lineNumber;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * Factory method for sites read back from some other form, such as
+         * the binary one.
+         * @param typeName the name of the exception type
+         * @param className the name of the class throwing it
+         * @param methodName the name of the method throwing it
+         * @param lineNumber the line throwing it
+         * @param count the estimated count
+         * @param error the error of the estimate
+         * @return the site
+         */
+        public static SiteCount of(String typeName, String className, String methodName, int lineNumber, long count, long error){
+            return new SiteCount(
+                    Objects.requireNonNull(typeName, "typeName"),
+                    Objects.requireNonNull(className, "className"),
+                    Objects.requireNonNull(methodName, "methodName"),
+                    lineNumber,
+                    count,
+                    error
+            );
+        }
+
+        public String getTypeName(){
+            return this.typeName;
+        }
+
+        public String getClassName(){
+            return this.className;
+        }
+
+        public String getMethodName(){
+            return this.methodName;
+        }
+
+        public int getLineNumber(){
+            return this.lineNumber;
+        }
+
+        public long getCount(){
+            return this.count;
+        }
+
+        public long getError(){
+            return this.error;
+        }
+
+        public long getGuaranteedCount(){
+            return this.count - this.error;
+        }
+
+        /**
+         * Sites are equal when they are the same place, whatever their
+         * counts, so that they can key the merge of the counts of a place.
+         */
+        @Override
+        public boolean equals(Object other){
+            if (this == other){
+                return true;
+            }
+            if (!(other instanceof SiteCount)){
+                return false;
+            }
+            var that = (SiteCount) other;
+            return this.lineNumber == that.lineNumber
+                    && this.typeName.equals(that.typeName)
+                    && this.className.equals(that.className)
+                    && this.methodName.equals(that.methodName);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(this.typeName, this.className, this.methodName, this.lineNumber);
+        }
+
+        @Override
+        public String toString(){
+            return this.typeName + " at " + this.className + "." + this.methodName + ":" + this.lineNumber + ": " + this.count + " (+/- " + this.error + ")";
+        }
+
+    }
+
+    private static <T> int compareLists(List<T> first, List<T> second, Comparator<? super T> order){
+        for (var index = 0; index < first.size() && index < second.size(); index ++){
+            var result = order.compare(first.get(index), second.get(index));
+            if (result != 0){
+                return result;
+            }
+        }
+        return Integer.compare(first.size(), second.size());
+    }
+
+    private static int compareHistograms(LatencyHistogramSnapshot first, LatencyHistogramSnapshot second){
+        var result = Long.compare(first.getSum(), second.getSum());
+        if (result == 0){
+            result = Long.compare(first.getMax(), second.getMax());
+        }
+        for (var index = 0; result == 0 && index < LatencyHistogram.BUCKETS; index ++){
+            result = Long.compare(first.getCountAt(index), second.getCountAt(index));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.MappedException;
+
+/**
+ * Entry point to the JFR events of the library, which keeps the jdk.jfr
+ * module optional. Whether the runtime has that module is checked once,
+ * and while it doesn't, emitting events does nothing instead of failing
+ * to link the event classes. None of the signatures here mention a JFR
+ * type, so callers can link against this class on any runtime.
+ */
+public final class FlightRecorderEvents {
+
+    public static final int FULL_RENDER = -1;
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private FlightRecorderEvents(){}
+
+    /**
+     * Tells whether the runtime has the jdk.jfr module, without which no
+     * event is ever emitted.
+     * @return whether JFR events can be emitted
+     */
+    public static boolean isAvailable(){
+        return AVAILABLE;
+    }
+
+    /**
+     * Emits the creation event of the exception, if JFR is available and
+     * some recording has the event enabled.
+     * @param exception the exception just created
+     */
+    public static void emitCreated(MappedException exception){
+        if (AVAILABLE){
+            MappedExceptionCreatedEvent.emit(exception);
+        }
+    }
+
+    /**
+     * Starts timing a rendering, if JFR is available and some recording
+     * has the rendering event enabled.
+     * @return the started event, to be given back to endRendering, or
+     * null when there is none
+     */
+    public static Object startRendering(){
+        return AVAILABLE? MappedExceptionRenderedEvent.start() : null;
+    }
+
+    /**
+     * Ends the rendering timed by the event, if it was started.
+     * @param startedEvent the event given by startRendering
+     * @param exception the exception whose stack trace was rendered
+     * @param linesRequested how many lines were asked for, or FULL_RENDER
+     */
+    public static void endRendering(Object startedEvent, MappedException exception, int linesRequested){
+        if (startedEvent != null){
+            MappedExceptionRenderedEvent.end((MappedExceptionRenderedEvent) startedEvent, exception, linesRequested);
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.cae.mapped_exceptions.observability;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in registry of the time MappedException instances take from their
+ * creation to their handling, per concrete type. While it's enabled, new
+ * instances keep their creation time and the id of the thread creating
+ * them, and the first call to their markHandled method records the
+ * elapsed time into the LatencyHistogram of their type, except for the
+ * shared instances of {@link com.cae.mapped_exceptions.SharedMappedExceptions},
+ * which keep no creation time.
+ * <p>
+ * The amount of types tracked apart is bounded, types beyond it sharing
+ * the overflow histogram. Recording into an existing histogram allocates
+ * nothing.
+ */
+public final class HandlingLatencies {
+
+    public static final String OVERFLOW = "<other>";
+
+    public static final int DEFAULT_MAX_TYPES = 64;
+
+    private static volatile HandlingLatencies active;
+
+    private final int maxTypes;
+
+    private final ConcurrentHashMap<Class<?>, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram overflow = new LatencyHistogram();
+
+    private HandlingLatencies(int maxTypes){
+        this.maxTypes = maxTypes;
+    }
+
+    public static HandlingLatencies enable(){
+        return enable(DEFAULT_MAX_TYPES);
+    }
+
+    /**
+     * Turns the registry on for every MappedException, replacing the
+     * previous registry, if any.
+     * @param maxTypes the maximum number of types tracked apart
+     * @return the registry which is now active
+     */
+    public static HandlingLatencies enable(int maxTypes){
+        if (maxTypes < 1){
+            throw new IllegalArgumentException("The registry needs room for at least one type, got " + maxTypes);
+        }
+        var latencies = new HandlingLatencies(maxTypes);
+        active = latencies;
+        return latencies;
+    }
+
+    public static void disable(){
+        active = null;
+    }
+
+    /**
+     * Getter method for the active registry.
+     * @return the active registry or null when tracking is off
+     */
+    public static HandlingLatencies active(){
+        return active;
+    }
+
+    /**
+     * Records the latency for the type.
+     * @param type the type of the exception handled
+     * @param nanos the time from its creation to its handling
+     */
+    public void record(Class<?> type, long nanos){
+        this.histogramOf(type).record(nanos);
+    }
+
+    private LatencyHistogram histogramOf(Class<?> type){
+        var histogram = this.histograms.get(type);
+        if (histogram != null){
+            return histogram;
+        }
+        synchronized (this.histograms){
+            histogram = this.histograms.get(type);
+            if (histogram == null){
+                if (this.histograms.size() >= this.maxTypes){
+                    return this.overflow;
+                }
+                histogram = new LatencyHistogram();
+                this.histograms.put(type, histogram);
+            }
+            return histogram;
+        }
+    }
+
+    /**
+     * Reads the histograms, leaving them as they are.
+     * @return the snapshots per type name, the overflow one under OVERFLOW
+     */
+    public Map<String, LatencyHistogramSnapshot> snapshot(){
+        return this.snapshot(false);
+    }
+
+    public Map<String, LatencyHistogramSnapshot> snapshotAndReset(){
+        return this.snapshot(true);
+    }
+
+    private Map<String, LatencyHistogramSnapshot> snapshot(boolean reset){
+        var snapshots = new LinkedHashMap<String, LatencyHistogramSnapshot>();
+        for (var histogram : this.histograms.entrySet()){
+            addSnapshot(snapshots, histogram.getKey().getName(), histogram.getValue(), reset);
+        }
+        addSnapshot(snapshots, OVERFLOW, this.overflow, reset);
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    private static void addSnapshot(Map<String, LatencyHistogramSnapshot> snapshots, String typeName, LatencyHistogram histogram, boolean reset){
+        var snapshot = reset? histogram.snapshotAndReset() : histogram.snapshot();
+        if (snapshot.getTotalCount() > 0){
+            snapshots.put(typeName, snapshot);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.cae.mapped_exceptions.observability;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of latencies in nanoseconds with log-linear
+ * buckets, in the style of HdrHistogram: values below 128 get a bucket
+ * each, and every power of two above that is split into 64 linear
+ * buckets, which keeps the relative error of any reading under 1/64.
+ * Values above MAX_TRACKABLE_NANOS, which is over an hour, fall into the
+ * last bucket.
+ * <p>
+ * Memory is fixed on creation and recording only increments counters,
+ * so it allocates nothing.
+ */
+public final class LatencyHistogram {
+
+    public static final long MAX_TRACKABLE_NANOS = (1L << 42) - 1;
+
+    static final int SUB_BUCKET_BITS = 6;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    static final int BUCKETS = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records the latency. Negative ones are recorded as zero.
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos){
+        var value = Math.max(0L, Math.min(nanos, MAX_TRACKABLE_NANOS));
+        this.counts.incrementAndGet(indexOf(value));
+        this.sum.addAndGet(value);
+        var currentMax = this.max.get();
+        while (value > currentMax && !this.max.compareAndSet(currentMax, value)){
+            currentMax = this.max.get();
+        }
+    }
+
+    /**
+     * Reads the histogram, leaving it as it is.
+     * @return the snapshot
+     */
+    public LatencyHistogramSnapshot snapshot(){
+        return this.snapshot(false);
+    }
+
+    /**
+     * Reads the histogram and resets it. Latencies recorded while it runs
+     * land either in this snapshot or in the next one.
+     * @return the snapshot
+     */
+    public LatencyHistogramSnapshot snapshotAndReset(){
+        return this.snapshot(true);
+    }
+
+    private LatencyHistogramSnapshot snapshot(boolean reset){
+        var snapshotCounts = new long[BUCKETS];
+        for (var index = 0; index < BUCKETS; index ++){
+            snapshotCounts[index] = reset? this.counts.getAndSet(index, 0) : this.counts.get(index);
+        }
+        var snapshotSum = reset? this.sum.getAndSet(0) : this.sum.get();
+        var snapshotMax = reset? this.max.getAndSet(0) : this.max.get();
+        return new LatencyHistogramSnapshot(snapshotCounts, snapshotSum, snapshotMax);
+    }
+
+    static int indexOf(long value){
+        if (value < SUB_BUCKETS * 2){
+            return (int) value;
+        }
+        var magnitude = 63 - Long.numberOfLeadingZeros(value);
+        var shift = magnitude - SUB_BUCKET_BITS;
+        var subBucket = (int) (value >>> shift);
+        return shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The highest value which falls into the bucket.
+     * @param index the index of the bucket
+     * @return the highest value of the bucket
+     */
+    static long highestValueOf(int index){
+        if (index < SUB_BUCKETS * 2){
+            return index;
+        }
+        var shift = index / SUB_BUCKETS - 1;
+        var subBucket = (long) (index % SUB_BUCKETS + SUB_BUCKETS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.cae.mapped_exceptions.observability;
+
+import java.util.Arrays;
+
+/**
+ * Immutable reading of a LatencyHistogram. Snapshots of different
+ * histograms, be them of other types, other periods or other nodes, can
+ * be merged into one holding all their latencies.
+ */
+public final class LatencyHistogramSnapshot {
+
+    private static final LatencyHistogramSnapshot EMPTY = new LatencyHistogramSnapshot(new long[LatencyHistogram.BUCKETS], 0, 0);
+
+    private final long[] counts;
+
+    private final long totalCount;
+
+    private final long sum;
+
+    private final long max;
+
+    LatencyHistogramSnapshot(long[] counts, long sum, long max){
+        this.counts = counts;
+        this.totalCount = Arrays.stream(counts).sum();
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Factory method for snapshots read back from some other form, such
+     * as the binary one of ExceptionStatistics.
+     * @param counts the count of each bucket, as many as getBucketCount
+     * @param sum the sum of the latencies
+     * @param max the highest latency
+     * @return the snapshot
+     */
+    public static LatencyHistogramSnapshot of(long[] counts, long sum, long max){
+        if (counts.length != LatencyHistogram.BUCKETS){
+            throw new IllegalArgumentException("Histograms have " + LatencyHistogram.BUCKETS + " buckets, got " + counts.length);
+        }
+        return new LatencyHistogramSnapshot(counts.clone(), sum, max);
+    }
+
+    public static int getBucketCount(){
+        return LatencyHistogram.BUCKETS;
+    }
+
+    /**
+     * Snapshot with no latencies, which is the identity of merge.
+     * @return the empty snapshot
+     */
+    public static LatencyHistogramSnapshot empty(){
+        return EMPTY;
+    }
+
+    /**
+     * Merges both snapshots into a new one.
+     * @param other the other snapshot
+     * @return the merged snapshot
+     */
+    public LatencyHistogramSnapshot merge(LatencyHistogramSnapshot other){
+        if (other.totalCount == 0){
+            return this;
+        }
+        if (this.totalCount == 0){
+            return other;
+        }
+        var mergedCounts = new long[LatencyHistogram.BUCKETS];
+        for (var index = 0; index < mergedCounts.length; index ++){
+            mergedCounts[index] = this.counts[index] + other.counts[index];
+        }
+        return new LatencyHistogramSnapshot(mergedCounts, this.sum + other.sum, Math.max(this.max, other.max));
+    }
+
+    public long getTotalCount(){
+        return this.totalCount;
+    }
+
+    /**
+     * Getter method for the sum of every latency, in nanoseconds.
+     * @return the sum
+     */
+    public long getSum(){
+        return this.sum;
+    }
+
+    public long getMax(){
+        return this.max;
+    }
+
+    public double getMean(){
+        return this.totalCount == 0? 0 : (double) this.sum / this.totalCount;
+    }
+
+    /**
+     * The latency below or at which the percentile of the recorded ones
+     * are, within the precision of the buckets.
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency in nanoseconds, or zero when there is none
+     */
+    public long getValueAtPercentile(double percentile){
+        if (percentile < 0 || percentile > 100){
+            throw new IllegalArgumentException("Percentiles go from 0 to 100, got " + percentile);
+        }
+        if (this.totalCount == 0){
+            return 0;
+        }
+        var target = Math.max(1, (long) Math.ceil(percentile / 100 * this.totalCount));
+        var seen = 0L;
+        for (var index = 0; index < this.counts.length; index ++){
+            seen += this.counts[index];
+            if (seen >= target){
+                return Math.min(LatencyHistogram.highestValueOf(index), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Getter method for how many latencies fall into the bucket.
+     * @param index the index of the bucket
+     * @return the count of the bucket
+     */
+    public long getCountAt(int index){
+        return this.counts[index];
+    }
+
+    @Override
+    public boolean equals(Object other){
+        if (this == other){
+            return true;
+        }
+        if (!(other instanceof LatencyHistogramSnapshot)){
+            return false;
+        }
+        var that = (LatencyHistogramSnapshot) other;
+        return this.sum == that.sum && this.max == that.max && Arrays.equals(this.counts, that.counts);
+    }
+
+    @Override
+    public int hashCode(){
+        return 31 * Arrays.hashCode(this.counts) + Long.hashCode(this.sum);
+    }
+
+    @Override
+    public String toString(){
+        return "count=" + this.totalCount
+                + ", mean=" + (long) this.getMean()
+                + ", p50=" + this.getValueAtPercentile(50)
+                + ", p99=" + this.getValueAtPercentile(99)
+                + ", max=" + this.max;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.MappedException;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted on the creation of every MappedException, except for
+ * the shared instances of {@link com.cae.mapped_exceptions.SharedMappedExceptions}.
+ * It's disabled by default: recordings must enable
+ * "com.cae.mapped_exceptions.Created" to get it, and while they don't,
+ * creating exceptions only costs an isEnabled check more.
+ */
+@Name(MappedExceptionCreatedEvent.NAME)
+@Label("Mapped Exception Created")
+@Description("Creation of a MappedException")
+@Category("Mapped Exceptions")
+@Enabled(false)
+@StackTrace(false)
+public final class MappedExceptionCreatedEvent extends Event {
+
+    public static final String NAME = "com.cae.mapped_exceptions.Created";
+
+    private static final MappedExceptionCreatedEvent PROBE = new MappedExceptionCreatedEvent();
+
+    @Label("Exception Type")
+    Class<?> exceptionType;
+
+    @Label("Brief Public Message")
+    String briefPublicMessage;
+
+    @Label("Stack Trace Captured")
+    boolean stackTraceCaptured;
+
+    /**
+     * Emits the event for the exception if some recording has it enabled.
+     * @param exception the exception just created
+     */
+    public static void emit(MappedException exception){
+        if (!PROBE.isEnabled()){
+            return;
+        }
+        var event = new MappedExceptionCreatedEvent();
+        event.exceptionType = exception.getClass();
+        event.briefPublicMessage = exception.getBriefPublicMessage();
+        event.stackTraceCaptured = exception.isStackTraceCaptured();
+        event.commit();
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.MappedException;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted when the stack trace of a MappedException gets
+ * rendered, be it in full or as lines, its duration being the one of the
+ * rendering. It's disabled by default: recordings must enable
+ * "com.cae.mapped_exceptions.Rendered" to get it. Rendering code starts
+ * it with the static start method, which gives null while it's disabled,
+ * and ends it with the static end method.
+ */
+@Name(MappedExceptionRenderedEvent.NAME)
+@Label("Mapped Exception Rendered")
+@Description("Rendering of the stack trace of a MappedException")
+@Category("Mapped Exceptions")
+@Enabled(false)
+@StackTrace(false)
+public final class MappedExceptionRenderedEvent extends Event {
+
+    public static final String NAME = "com.cae.mapped_exceptions.Rendered";
+
+    public static final int FULL_RENDER = FlightRecorderEvents.FULL_RENDER;
+
+    private static final MappedExceptionRenderedEvent PROBE = new MappedExceptionRenderedEvent();
+
+    @Label("Exception Type")
+    Class<?> exceptionType;
+
+    @Label("Brief Public Message")
+    String briefPublicMessage;
+
+    @Label("Stack Trace Captured")
+    boolean stackTraceCaptured;
+
+    @Label("Lines Requested")
+    @Description("How many lines were asked for, or -1 for full renders")
+    int linesRequested;
+
+    /**
+     * Starts timing a rendering if some recording has the event enabled.
+     * @return the started event, or null while it's disabled
+     */
+    public static MappedExceptionRenderedEvent start(){
+        if (!PROBE.isEnabled()){
+            return null;
+        }
+        var event = new MappedExceptionRenderedEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the rendering timed by the event, if it was started.
+     * @param event the event given by start
+     * @param exception the exception whose stack trace was rendered
+     * @param linesRequested how many lines were asked for, or FULL_RENDER
+     */
+    public static void end(MappedExceptionRenderedEvent event, MappedException exception, int linesRequested){
+        if (event == null){
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()){
+            event.exceptionType = exception.getClass();
+            event.briefPublicMessage = exception.getBriefPublicMessage();
+            event.stackTraceCaptured = exception.isStackTraceCaptured();
+            event.linesRequested = linesRequested;
+            event.commit();
+        }
+    }
+
+}
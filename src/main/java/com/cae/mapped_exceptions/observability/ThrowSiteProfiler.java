@@ -0,0 +1,379 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.stack_traces.FrameFilter;
+import com.cae.mapped_exceptions.stack_traces.ThrowSite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Opt-in tracker of the throw sites creating the most MappedException
+ * instances, a throw site being the exception type along with the first
+ * application frame which instantiated it. Once enabled, every creation
+ * gets recorded, except for the shared instances of
+ * {@link com.cae.mapped_exceptions.SharedMappedExceptions}.
+ * <p>
+ * It relies on the Space-Saving algorithm, so its memory is fixed no
+ * matter how many distinct sites there are: each of its stripes tracks
+ * up to capacity sites, and a new site evicts the least counted one,
+ * inheriting its count as error. The count given for each site
+ * overestimates the true one by at most its error, which is itself at
+ * most totalCount / capacity, and any site making more than 1 / capacity
+ * of the creations recorded in a stripe is guaranteed to be tracked.
+ * <p>
+ * Recording threads are spread over independently locked stripes, and
+ * queries merge them: a site missing from a stripe gets the minimum
+ * count of that stripe added to both its count and its error.
+ * <p>
+ * Locating the first application frame walks the top of the stack,
+ * which is why this is meant to be enabled while investigating rather
+ * than always. By default, the frames of this library are skipped too,
+ * so exceptions created on behalf of the caller, such as the ones of
+ * ExceptionTranslator, MappedResult or InputViolations, are attributed
+ * to the caller.
+ */
+public final class ThrowSiteProfiler {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    public static final FrameFilter JDK_FRAMES_EXCLUDED = FrameFilter.none().excluding("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    public static final FrameFilter LIBRARY_FRAMES_EXCLUDED = JDK_FRAMES_EXCLUDED.excluding("com.cae.mapped_exceptions.");
+
+    private static final StackWalker WALKER = StackWalker.getInstance(EnumSet.of(StackWalker.Option.RETAIN_CLASS_REFERENCE));
+
+    private static final int MAX_STRIPES = 16;
+
+    private static volatile ThrowSiteProfiler active;
+
+    private final int capacity;
+
+    private final FrameFilter applicationFrames;
+
+    private final Stripe[] stripes;
+
+    private ThrowSiteProfiler(int capacity, FrameFilter applicationFrames){
+        this.capacity = capacity;
+        this.applicationFrames = applicationFrames;
+        var stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1));
+        this.stripes = new Stripe[stripeCount];
+        for (var index = 0; index < stripeCount; index ++){
+            this.stripes[index] = new Stripe(capacity);
+        }
+    }
+
+    /**
+     * Creates a profiler which isn't fed by MappedException construction,
+     * only by explicit calls to record.
+     * @param capacity how many sites each stripe tracks
+     * @param applicationFrames the filter accepting application frames
+     * @return the profiler
+     */
+    public static ThrowSiteProfiler create(int capacity, FrameFilter applicationFrames){
+        if (capacity < 1){
+            throw new IllegalArgumentException("The profiler needs room for at least one site, got " + capacity);
+        }
+        return new ThrowSiteProfiler(capacity, applicationFrames);
+    }
+
+    public static ThrowSiteProfiler enable(){
+        return enable(DEFAULT_CAPACITY, LIBRARY_FRAMES_EXCLUDED);
+    }
+
+    /**
+     * Turns the profiler on for every MappedException, replacing the
+     * previous one, if any.
+     * @param capacity how many sites each stripe tracks
+     * @param applicationFrames the filter accepting application frames,
+     *                          such as one excluding framework packages
+     * @return the profiler which is now active
+     */
+    public static ThrowSiteProfiler enable(int capacity, FrameFilter applicationFrames){
+        var profiler = create(capacity, applicationFrames);
+        active = profiler;
+        return profiler;
+    }
+
+    public static void disable(){
+        active = null;
+    }
+
+    /**
+     * Getter method for the active profiler.
+     * @return the active profiler or null when profiling is off
+     */
+    public static ThrowSiteProfiler active(){
+        return active;
+    }
+
+    /**
+     * Records the creation of the exception at its throw site. It must be
+     * called while the exception is being constructed.
+     * @param exception the exception under construction
+     */
+    public void record(MappedException exception){
+        this.record(this.locateThrowSite(exception.getClass()));
+    }
+
+    public void record(ThrowSite site){
+        var stripe = this.stripes[(int) Thread.currentThread().getId() & (this.stripes.length - 1)];
+        synchronized (stripe){
+            stripe.offer(site);
+        }
+    }
+
+    private ThrowSite locateThrowSite(Class<?> exceptionType){
+        return WALKER.walk(frames -> frames
+                .filter(frame -> !isInfrastructureFrame(frame, exceptionType) && this.applicationFrames.accepts(frame.getClassName()))
+                .findFirst()
+                .map(frame -> new ThrowSite(exceptionType, frame.getClassName(), frame.getMethodName(), frame.getLineNumber()))
+                .orElseGet(() -> new ThrowSite(exceptionType, "", "", -1)));
+    }
+
+    private static boolean isInfrastructureFrame(StackWalker.StackFrame frame, Class<?> exceptionType){
+        var declaringClass = frame.getDeclaringClass();
+        return declaringClass == ThrowSiteProfiler.class || declaringClass.isAssignableFrom(exceptionType);
+    }
+
+    /**
+     * The tracked sites with the highest counts.
+     * @param k how many sites to give at most
+     * @return the sites, from the most counted one on
+     */
+    public List<HeavyHitter> topK(int k){
+        var merged = new HashMap<ThrowSite, long[]>();
+        var minimums = new long[this.stripes.length];
+        for (var index = 0; index < this.stripes.length; index ++){
+            var stripe = this.stripes[index];
+            synchronized (stripe){
+                minimums[index] = stripe.minimumCount();
+                for (var slot = 0; slot < stripe.size; slot ++){
+                    var entry = merged.computeIfAbsent(stripe.sites[slot], site -> new long[this.stripes.length * 2 + 1]);
+                    entry[index * 2] = stripe.counts[slot];
+                    entry[index * 2 + 1] = stripe.errors[slot];
+                    entry[this.stripes.length * 2] |= 1L << index;
+                }
+            }
+        }
+        var hitters = new ArrayList<HeavyHitter>(merged.size());
+        for (var site : merged.entrySet()){
+            var entry = site.getValue();
+            var presence = entry[this.stripes.length * 2];
+            var count = 0L;
+            var error = 0L;
+            for (var index = 0; index < this.stripes.length; index ++){
+                if ((presence & (1L << index)) != 0){
+                    count += entry[index * 2];
+                    error += entry[index * 2 + 1];
+                } else {
+                    count += minimums[index];
+                    error += minimums[index];
+                }
+            }
+            hitters.add(new HeavyHitter(site.getKey(), count, error));
+        }
+        hitters.sort(Comparator.comparingLong(HeavyHitter::getCount)
+                .thenComparingLong(HeavyHitter::getGuaranteedCount)
+                .reversed());
+        return hitters.size() > k? new ArrayList<>(hitters.subList(0, k)) : hitters;
+    }
+
+    /**
+     * Getter method for how many creations were recorded.
+     * @return the total count
+     */
+    public long getTotalCount(){
+        var total = 0L;
+        for (var stripe : this.stripes){
+            synchronized (stripe){
+                total += stripe.total;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * The bound of the error of every count given by topK, which is the
+     * total count divided by the capacity.
+     * @return the bound of the error
+     */
+    public long getMaxError(){
+        return this.getTotalCount() / this.capacity;
+    }
+
+    /**
+     * Getter method for how many sites are tracked at most, across all
+     * stripes, which bounds the memory of the profiler.
+     * @return the max amount of tracked sites
+     */
+    public int getMaxTrackedSites(){
+        return this.capacity * this.stripes.length;
+    }
+
+    public int getCapacity(){
+        return this.capacity;
+    }
+
+    public void reset(){
+        for (var stripe : this.stripes){
+            synchronized (stripe){
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Tracked throw site with its estimated count, which is an upper
+     * bound of the true one, and the error of that estimate: the true
+     * count is at least count - error.
+     */
+    public static final class HeavyHitter {
+
+        private final ThrowSite site;
+
+        private final long count;
+
+        private final long error;
+
+        HeavyHitter(ThrowSite site, long count, long error){
+            this.site = site;
+            this.count = count;
+            this.error = error;
+        }
+
+        public ThrowSite getSite(){
+            return this.site;
+        }
+
+        public long getCount(){
+            return this.count;
+        }
+
+        public long getError(){
+            return this.error;
+        }
+
+        public long getGuaranteedCount(){
+            return this.count - this.error;
+        }
+
+        @Override
+        public String toString(){
+            return this.site + ": " + this.count + " (+/- " + this.error + ")";
+        }
+
+    }
+
+    /**
+     * Space-Saving summary kept as a min-heap of counts, so the least
+     * counted site is always at the root.
+     */
+    private static final class Stripe {
+
+        private final ThrowSite[] sites;
+
+        private final long[] counts;
+
+        private final long[] errors;
+
+        private final HashMap<ThrowSite, Integer> positions;
+
+        private int size;
+
+        private long total;
+
+        private Stripe(int capacity){
+            this.sites = new ThrowSite[capacity];
+            this.counts = new long[capacity];
+            this.errors = new long[capacity];
+            this.positions = new HashMap<>(capacity * 2);
+        }
+
+        private void offer(ThrowSite site){
+            this.total ++;
+            var position = this.positions.get(site);
+            if (position != null){
+                this.counts[position] ++;
+                this.siftDown(position);
+                return;
+            }
+            if (this.size < this.sites.length){
+                var slot = this.size ++;
+                this.sites[slot] = site;
+                this.counts[slot] = 1;
+                this.errors[slot] = 0;
+                this.positions.put(site, slot);
+                this.siftUp(slot);
+                return;
+            }
+            this.positions.remove(this.sites[0]);
+            this.errors[0] = this.counts[0];
+            this.counts[0] ++;
+            this.sites[0] = site;
+            this.positions.put(site, 0);
+            this.siftDown(0);
+        }
+
+        private long minimumCount(){
+            return this.size < this.sites.length? 0 : this.counts[0];
+        }
+
+        private void siftUp(int slot){
+            while (slot > 0){
+                var parent = (slot - 1) / 2;
+                if (this.counts[parent] <= this.counts[slot]){
+                    return;
+                }
+                this.swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot){
+            while (true){
+                var smallest = slot;
+                var left = slot * 2 + 1;
+                var right = left + 1;
+                if (left < this.size && this.counts[left] < this.counts[smallest]){
+                    smallest = left;
+                }
+                if (right < this.size && this.counts[right] < this.counts[smallest]){
+                    smallest = right;
+                }
+                if (smallest == slot){
+                    return;
+                }
+                this.swap(slot, smallest);
+                slot = smallest;
+            }
+        }
+
+        private void swap(int first, int second){
+            var site = this.sites[first];
+            this.sites[first] = this.sites[second];
+            this.sites[second] = site;
+            var count = this.counts[first];
+            this.counts[first] = this.counts[second];
+            this.counts[second] = count;
+            var error = this.errors[first];
+            this.errors[first] = this.errors[second];
+            this.errors[second] = error;
+            this.positions.put(this.sites[first], first);
+            this.positions.put(this.sites[second], second);
+        }
+
+        private void clear(){
+            Arrays.fill(this.sites, null);
+            this.positions.clear();
+            this.size = 0;
+            this.total = 0;
+        }
+
+    }
+
+}
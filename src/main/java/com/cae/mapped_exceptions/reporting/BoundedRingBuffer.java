@@ -0,0 +1,97 @@
+package com.cae.mapped_exceptions.reporting;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each
+ * slot carries a sequence number telling whether it is free for the
+ * producer of a given position or ready for the consumer, so producers
+ * only compete on a compare-and-set of the tail and never wait for each
+ * other. A full buffer refuses new elements instead of blocking.
+ */
+final class BoundedRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only ever touched by the consumer.
+    private long head;
+
+    BoundedRingBuffer(int minCapacity){
+        if (minCapacity < 1 || minCapacity > 1 << 30){
+            throw new IllegalArgumentException("The capacity must go from 1 to 2^30, got " + minCapacity);
+        }
+        var capacity = minCapacity == 1? 1 : Integer.highestOneBit(minCapacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (var index = 0; index < capacity; index ++){
+            this.sequences.set(index, index);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds the element, unless the buffer is full.
+     * @param element the element, which must not be null
+     * @return whether the element was added
+     */
+    boolean offer(T element){
+        var position = this.tail.get();
+        while (true){
+            var index = (int) (position & this.mask);
+            var difference = this.sequences.get(index) - position;
+            if (difference == 0){
+                if (this.tail.compareAndSet(position, position + 1)){
+                    this.slots.lazySet(index, element);
+                    this.sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = this.tail.get();
+            }
+            else if (difference < 0){
+                return false;
+            }
+            else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest element. Must only be called by the consumer.
+     * @return the element or null when there is none ready
+     */
+    T poll(){
+        var position = this.head;
+        var index = (int) (position & this.mask);
+        if (this.sequences.get(index) != position + 1){
+            return null;
+        }
+        var element = this.slots.get(index);
+        this.slots.lazySet(index, null);
+        this.sequences.lazySet(index, position + this.mask + 1);
+        this.head = position + 1;
+        return element;
+    }
+
+    /**
+     * Tells whether no element was added beyond the ones taken, counting
+     * those still being published. Must only be called by the consumer.
+     * @return whether the buffer is empty
+     */
+    boolean isEmpty(){
+        return this.tail.get() == this.head;
+    }
+
+    int capacity(){
+        return this.mask + 1;
+    }
+
+}
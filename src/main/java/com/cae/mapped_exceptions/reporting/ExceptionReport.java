@@ -0,0 +1,84 @@
+package com.cae.mapped_exceptions.reporting;
+
+import com.cae.mapped_exceptions.MappedException;
+
+/**
+ * Record of the occurrences of the same exception within a window of an
+ * ExceptionReporter: same type, same brief public message and same stack
+ * fingerprint. It holds the first occurrence and its rendered stack
+ * trace, which all the others share.
+ */
+public final class ExceptionReport {
+
+    private final MappedException exception;
+
+    private final long count;
+
+    private final String renderedStackTrace;
+
+    private final long firstSeenMillis;
+
+    private final long lastSeenMillis;
+
+    ExceptionReport(MappedException exception, long count, String renderedStackTrace, long firstSeenMillis, long lastSeenMillis){
+        this.exception = exception;
+        this.count = count;
+        this.renderedStackTrace = renderedStackTrace;
+        this.firstSeenMillis = firstSeenMillis;
+        this.lastSeenMillis = lastSeenMillis;
+    }
+
+    /**
+     * Getter method for the first occurrence within the window.
+     * @return the first occurrence
+     */
+    public MappedException getException(){
+        return this.exception;
+    }
+
+    public Class<? extends MappedException> getType(){
+        return this.exception.getClass();
+    }
+
+    public String getBriefPublicMessage(){
+        return this.exception.getBriefPublicMessage();
+    }
+
+    public long getFingerprint(){
+        return this.exception.fingerprint();
+    }
+
+    /**
+     * Getter method for how many occurrences were collapsed into this
+     * record, the first one included.
+     * @return the number of occurrences
+     */
+    public long getCount(){
+        return this.count;
+    }
+
+    public String getRenderedStackTrace(){
+        return this.renderedStackTrace;
+    }
+
+    /**
+     * Getter method for when the reporter took the first occurrence out
+     * of its buffer, which is shortly after it was reported.
+     * @return the epoch milliseconds
+     */
+    public long getFirstSeenMillis(){
+        return this.firstSeenMillis;
+    }
+
+    public long getLastSeenMillis(){
+        return this.lastSeenMillis;
+    }
+
+    @Override
+    public String toString(){
+        return this.count == 1?
+                this.renderedStackTrace :
+                "[" + this.count + " occurrences] " + this.renderedStackTrace;
+    }
+
+}
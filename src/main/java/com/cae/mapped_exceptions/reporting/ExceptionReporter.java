@@ -0,0 +1,348 @@
+package com.cae.mapped_exceptions.reporting;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.stack_traces.StackTraceRenderer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reports MappedException instances off the threads throwing them.
+ * Reporting an exception only publishes it into a bounded lock-free ring
+ * buffer, while a background thread renders its stack trace and forwards
+ * it to the sink. When the buffer is full, the exception is dropped and
+ * counted, so an error storm never stalls the threads reporting it.
+ * <p>
+ * Occurrences of the same exception within a window (same type, same
+ * brief public message and same stack fingerprint) are collapsed into a
+ * single ExceptionReport with their count, which gets rendered once and
+ * forwarded when the window ends.
+ * <p>
+ * The background thread parks while it has nothing to do: until the
+ * pending window ends, or until something gets reported when nothing is
+ * pending.
+ */
+public final class ExceptionReporter implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 4_096;
+
+    public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(1);
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final BoundedRingBuffer<MappedException> buffer;
+
+    private final ReportSink sink;
+
+    private final StackTraceRenderer renderer;
+
+    private final long windowNanos;
+
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    // Set by the worker while it parks, so reporters only pay for an
+    // unpark when there is someone to wake up.
+    private volatile boolean parked;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder sinkFailures = new LongAdder();
+
+    // Only ever touched by the worker.
+    private final HashMap<ReportKey, PendingReport> pending = new HashMap<>();
+    private long windowStart;
+
+    private ExceptionReporter(ReportSink sink, int capacity, Duration window, StackTraceRenderer renderer){
+        this.buffer = new BoundedRingBuffer<>(capacity);
+        this.sink = sink;
+        this.renderer = renderer;
+        this.windowNanos = window.toNanos();
+        this.worker = new Thread(this::work, "mapped-exception-reporter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public static ExceptionReporter start(ReportSink sink){
+        return start(sink, DEFAULT_CAPACITY, DEFAULT_WINDOW);
+    }
+
+    public static ExceptionReporter start(ReportSink sink, int capacity, Duration window){
+        return start(sink, capacity, window, StackTraceRenderer.defaults());
+    }
+
+    /**
+     * Starts a reporter and its background thread.
+     * @param sink where the records go
+     * @param capacity how many exceptions can wait in the buffer, rounded
+     *                 up to a power of two
+     * @param window how long occurrences of the same exception keep being
+     *               collapsed into one record, zero collapsing only the
+     *               ones taken out of the buffer together
+     * @param renderer renders the stack traces of the records
+     * @return the running reporter
+     */
+    public static ExceptionReporter start(ReportSink sink, int capacity, Duration window, StackTraceRenderer renderer){
+        Objects.requireNonNull(sink, "sink");
+        Objects.requireNonNull(renderer, "renderer");
+        if (window.isNegative()){
+            throw new IllegalArgumentException("The window can't be negative, got " + window);
+        }
+        return new ExceptionReporter(sink, capacity, window, renderer);
+    }
+
+    /**
+     * Publishes the exception to be reported. It never blocks: when the
+     * buffer is full or the reporter is closed, the exception is dropped.
+     * @param exception the exception to report
+     * @return whether the exception was accepted
+     */
+    public boolean report(MappedException exception){
+        if (this.running && this.buffer.offer(exception)){
+            this.published.increment();
+            if (this.parked){
+                LockSupport.unpark(this.worker);
+            }
+            return true;
+        }
+        this.dropped.increment();
+        return false;
+    }
+
+    private void work(){
+        while (this.running){
+            var drained = this.drain();
+            if (!this.pending.isEmpty() && System.nanoTime() - this.windowStart >= this.windowNanos){
+                this.flush();
+            }
+            if (drained == 0){
+                this.idle();
+            }
+        }
+        this.drain();
+        this.flush();
+    }
+
+    private void idle(){
+        this.parked = true;
+        // Checked after raising the flag: a report published before it was
+        // raised is seen here, and one published after it unparks.
+        if (this.running && this.buffer.isEmpty()){
+            if (this.pending.isEmpty()){
+                LockSupport.park(this);
+            }
+            else {
+                var remaining = this.windowStart + this.windowNanos - System.nanoTime();
+                if (remaining > 0){
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+        }
+        else {
+            Thread.onSpinWait();
+        }
+        this.parked = false;
+    }
+
+    private int drain(){
+        var drained = 0;
+        var capacity = this.buffer.capacity();
+        MappedException exception;
+        while (drained < capacity && (exception = this.buffer.poll()) != null){
+            this.collapse(exception);
+            drained ++;
+        }
+        return drained;
+    }
+
+    private void collapse(MappedException exception){
+        var now = System.currentTimeMillis();
+        var key = new ReportKey(exception);
+        var report = this.pending.get(key);
+        if (report == null){
+            if (this.pending.isEmpty()){
+                this.windowStart = System.nanoTime();
+            }
+            this.pending.put(key, new PendingReport(exception, now));
+        }
+        else {
+            report.count ++;
+            report.lastSeenMillis = now;
+            this.collapsed.increment();
+        }
+    }
+
+    private void flush(){
+        if (this.pending.isEmpty()){
+            return;
+        }
+        var reports = new ArrayList<>(this.pending.values());
+        this.pending.clear();
+        for (var report : reports){
+            this.forward(report);
+        }
+    }
+
+    private void forward(PendingReport report){
+        try {
+            var rendered = new StringBuilder(1_024);
+            this.renderer.render(report.exception, rendered);
+            this.sink.accept(new ExceptionReport(report.exception, report.count, rendered.toString(), report.firstSeenMillis, report.lastSeenMillis));
+            this.forwarded.increment();
+        } catch (IOException | RuntimeException exception){
+            this.sinkFailures.increment();
+        }
+    }
+
+    /**
+     * Stops accepting exceptions, forwards whatever is still buffered or
+     * pending and stops the background thread. Exceptions reported while
+     * it closes may be dropped, in which case they are counted.
+     */
+    @Override
+    public void close(){
+        if (!this.running){
+            return;
+        }
+        this.running = false;
+        LockSupport.unpark(this.worker);
+        try {
+            this.worker.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (!this.worker.isAlive()){
+            while (this.buffer.poll() != null){
+                this.published.decrement();
+                this.dropped.increment();
+            }
+        }
+    }
+
+    public boolean isRunning(){
+        return this.running;
+    }
+
+    public Statistics getStatistics(){
+        return new Statistics(this.published.sum(), this.dropped.sum(), this.forwarded.sum(), this.collapsed.sum(), this.sinkFailures.sum());
+    }
+
+    private static final class ReportKey {
+
+        private final Class<?> type;
+
+        private final String briefPublicMessage;
+
+        private final long fingerprint;
+
+        private ReportKey(MappedException exception){
+            this.type = exception.getClass();
+            this.briefPublicMessage = exception.getBriefPublicMessage();
+            this.fingerprint = exception.fingerprint();
+        }
+
+        @Override
+        public boolean equals(Object other){
+            if (!(other instanceof ReportKey)){
+                return false;
+            }
+            var otherKey = (ReportKey) other;
+            return this.fingerprint == otherKey.fingerprint
+                    && this.type == otherKey.type
+                    && Objects.equals(this.briefPublicMessage, otherKey.briefPublicMessage);
+        }
+
+        @Override
+        public int hashCode(){
+            return (int) (this.fingerprint ^ (this.fingerprint >>> 32));
+        }
+
+    }
+
+    private static final class PendingReport {
+
+        private final MappedException exception;
+
+        private final long firstSeenMillis;
+
+        private long lastSeenMillis;
+
+        private long count = 1;
+
+        private PendingReport(MappedException exception, long firstSeenMillis){
+            this.exception = exception;
+            this.firstSeenMillis = firstSeenMillis;
+            this.lastSeenMillis = firstSeenMillis;
+        }
+
+    }
+
+    /**
+     * Point-in-time statistics of the reporter.
+     */
+    public static final class Statistics {
+
+        private final long published;
+        private final long dropped;
+        private final long forwarded;
+        private final long collapsed;
+        private final long sinkFailures;
+
+        private Statistics(long published, long dropped, long forwarded, long collapsed, long sinkFailures){
+            this.published = published;
+            this.dropped = dropped;
+            this.forwarded = forwarded;
+            this.collapsed = collapsed;
+            this.sinkFailures = sinkFailures;
+        }
+
+        /**
+         * Getter method for how many exceptions made it into the buffer.
+         * @return the number of exceptions published
+         */
+        public long getPublished(){
+            return this.published;
+        }
+
+        public long getDropped(){
+            return this.dropped;
+        }
+
+        /**
+         * Getter method for how many records the sink accepted.
+         * @return the number of records forwarded
+         */
+        public long getForwarded(){
+            return this.forwarded;
+        }
+
+        /**
+         * Getter method for how many occurrences were folded into the
+         * record of an earlier one.
+         * @return the number of occurrences collapsed
+         */
+        public long getCollapsed(){
+            return this.collapsed;
+        }
+
+        public long getSinkFailures(){
+            return this.sinkFailures;
+        }
+
+        @Override
+        public String toString(){
+            return "published=" + this.published + ", dropped=" + this.dropped + ", forwarded=" + this.forwarded + ", collapsed=" + this.collapsed + ", sinkFailures=" + this.sinkFailures;
+        }
+
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.cae.mapped_exceptions.reporting;
+
+/**
+ * Destination of the records of an ExceptionReporter, such as a logger
+ * or an error tracker. It is only ever called by the background thread
+ * of the reporter, so it needs no synchronization of its own.
+ */
+@FunctionalInterface
+public interface ReportSink {
+
+    void accept(ExceptionReport report);
+
+}
@@ -0,0 +1,277 @@
+package com.cae.mapped_exceptions.results;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.classification.ExceptionClassifier;
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Outcome of an operation which either succeeded with a value or failed
+ * with the same parts a MappedException carries: a category, a brief
+ * public message, details and an original exception. Hot paths such as
+ * validation and lookups can return it instead of throwing, which spares
+ * them the unwinding and the deoptimization throws cause, and call
+ * orElseThrow only at the boundary, when the matching specifics
+ * exception gets created.
+ * <p>
+ * Failures propagate through map and flatMap without any allocation.
+ * @param <T> the type of the value of successful results
+ */
+public final class MappedResult<T> {
+
+    private final T value;
+
+    private final MappedExceptionCategory category;
+
+    private final String briefPublicMessage;
+
+    private final String details;
+
+    private final Exception originalException;
+
+    private MappedResult(
+            T value,
+            MappedExceptionCategory category,
+            String briefPublicMessage,
+            String details,
+            Exception originalException){
+        this.value = value;
+        this.category = category;
+        this.briefPublicMessage = briefPublicMessage;
+        this.details = details;
+        this.originalException = originalException;
+    }
+
+    /**
+     * Successful result.
+     * @param value the value, which might be null
+     * @return the result
+     * @param <T> the type of the value
+     */
+    public static <T> MappedResult<T> success(T value){
+        return new MappedResult<>(value, null, null, null, null);
+    }
+
+    public static <T> MappedResult<T> failure(MappedExceptionCategory category, String briefPublicMessage){
+        return failure(category, briefPublicMessage, null, null);
+    }
+
+    public static <T> MappedResult<T> failure(MappedExceptionCategory category, String briefPublicMessage, String details){
+        return failure(category, briefPublicMessage, details, null);
+    }
+
+    /**
+     * Failed result.
+     * @param category the category of the failure
+     * @param briefPublicMessage the brief and public info
+     * @param details the more detailed info, if any
+     * @param originalException the exception behind the failure, if any
+     * @return the result
+     * @param <T> the type of the value successful results would have
+     */
+    public static <T> MappedResult<T> failure(
+            MappedExceptionCategory category,
+            String briefPublicMessage,
+            String details,
+            Exception originalException){
+        Objects.requireNonNull(category, "Failed results need a category");
+        return new MappedResult<>(null, category, briefPublicMessage, details, originalException);
+    }
+
+    /**
+     * Failed result carrying the parts of the exception, categorized by
+     * the default HTTP classifier.
+     * @param exception the exception
+     * @return the result
+     * @param <T> the type of the value successful results would have
+     */
+    public static <T> MappedResult<T> failure(MappedException exception){
+        return new MappedResult<>(
+                null,
+                ExceptionClassifier.http().categoryOf(exception),
+                exception.getBriefPublicMessage(),
+                exception.getDetails().orElse(null),
+                exception.getOriginalException().orElse(null)
+        );
+    }
+
+    /**
+     * Runs the operation, turning the MappedException it might throw into
+     * a failed result. That's the bridge from code which still throws.
+     * @param operation the operation
+     * @return the result
+     * @param <T> the type of the value
+     */
+    public static <T> MappedResult<T> catching(Supplier<? extends T> operation){
+        try {
+            return success(operation.get());
+        } catch (MappedException exception){
+            return failure(exception);
+        }
+    }
+
+    public boolean isSuccess(){
+        return this.category == null;
+    }
+
+    public boolean isFailure(){
+        return this.category != null;
+    }
+
+    /**
+     * Getter method for the category of failed results.
+     * @return the category
+     * @throws IllegalStateException if the result is successful
+     */
+    public MappedExceptionCategory getCategory(){
+        this.requireFailure();
+        return this.category;
+    }
+
+    /**
+     * Getter method for the brief public message of failed results.
+     * @return the brief public message
+     * @throws IllegalStateException if the result is successful
+     */
+    public String getBriefPublicMessage(){
+        this.requireFailure();
+        return this.briefPublicMessage;
+    }
+
+    public Optional<String> getDetails(){
+        return Optional.ofNullable(this.details);
+    }
+
+    public Optional<Exception> getOriginalException(){
+        return Optional.ofNullable(this.originalException);
+    }
+
+    /**
+     * Maps the value of successful results. Failed ones are returned as
+     * they are.
+     * @param mapper the mapper of the value
+     * @return the mapped result
+     * @param <U> the type of the mapped value
+     */
+    public <U> MappedResult<U> map(Function<? super T, ? extends U> mapper){
+        if (this.isFailure()){
+            return this.castFailure();
+        }
+        return success(mapper.apply(this.value));
+    }
+
+    /**
+     * Chains another operation to successful results. Failed ones are
+     * returned as they are.
+     * @param mapper the operation to chain
+     * @return the result of the chained operation
+     * @param <U> the type of the value of the chained operation
+     */
+    public <U> MappedResult<U> flatMap(Function<? super T, MappedResult<U>> mapper){
+        if (this.isFailure()){
+            return this.castFailure();
+        }
+        return Objects.requireNonNull(mapper.apply(this.value), "The chained operation returned no result");
+    }
+
+    /**
+     * Turns failed results into successful ones with the value the
+     * recovery computes from the failure. Successful results are returned
+     * as they are.
+     * @param recovery the recovery, which gets the failed result
+     * @return the recovered result
+     */
+    public MappedResult<T> recover(Function<? super MappedResult<T>, ? extends T> recovery){
+        if (this.isSuccess()){
+            return this;
+        }
+        return success(recovery.apply(this));
+    }
+
+    /**
+     * Same as recover, but only for failures of the category.
+     * @param category the category to recover from
+     * @param recovery the recovery, which gets the failed result
+     * @return the recovered result
+     */
+    public MappedResult<T> recover(MappedExceptionCategory category, Function<? super MappedResult<T>, ? extends T> recovery){
+        if (this.category != category){
+            return this;
+        }
+        return success(recovery.apply(this));
+    }
+
+    public T orElse(T other){
+        return this.isSuccess()? this.value : other;
+    }
+
+    /**
+     * Returns the value of successful results and throws the specifics
+     * exception matching the category of failed ones.
+     * @return the value
+     * @throws MappedException if the result is failed
+     */
+    public T orElseThrow(){
+        if (this.isFailure()){
+            throw this.toException();
+        }
+        return this.value;
+    }
+
+    /**
+     * Creates the specifics exception matching the category of failed
+     * results, with the same brief public message, details and original
+     * exception.
+     * @return the exception
+     * @throws IllegalStateException if the result is successful
+     */
+    public MappedException toException(){
+        this.requireFailure();
+        return this.category.instantiate(this.briefPublicMessage, this.details, this.originalException);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <U> MappedResult<U> castFailure(){
+        return (MappedResult<U>) this;
+    }
+
+    private void requireFailure(){
+        if (this.isSuccess()){
+            throw new IllegalStateException("Successful results have no failure info");
+        }
+    }
+
+    @Override
+    public boolean equals(Object other){
+        if (this == other){
+            return true;
+        }
+        if (!(other instanceof MappedResult)){
+            return false;
+        }
+        var that = (MappedResult<?>) other;
+        return Objects.equals(this.value, that.value)
+                && this.category == that.category
+                && Objects.equals(this.briefPublicMessage, that.briefPublicMessage)
+                && Objects.equals(this.details, that.details)
+                && Objects.equals(this.originalException, that.originalException);
+    }
+
+    @Override
+    public int hashCode(){
+        return Objects.hash(this.value, this.category, this.briefPublicMessage, this.details, this.originalException);
+    }
+
+    @Override
+    public String toString(){
+        if (this.isSuccess()){
+            return "Success[" + this.value + "]";
+        }
+        return "Failure[" + this.category + ": " + this.briefPublicMessage + (this.details == null? "" : " | " + this.details) + "]";
+    }
+
+}
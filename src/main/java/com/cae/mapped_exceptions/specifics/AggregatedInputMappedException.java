@@ -0,0 +1,47 @@
+package com.cae.mapped_exceptions.specifics;
+
+import java.io.IOException;
+
+/**
+ * InputMappedException carrying all the violations found while
+ * validating a batch, instead of one exception per violation. Its stack
+ * is captured once, its details are only composed when asked for and
+ * list just the first violations, while the whole set can be streamed
+ * from getViolations or rendered with renderViolationsTo.
+ */
+public class AggregatedInputMappedException extends InputMappedException {
+
+    public static final int VIOLATIONS_IN_DETAILS = 10;
+
+    private final InputViolations violations;
+
+    /**
+     * Constructor method for exceptions carrying the violations. From
+     * then on the violations can't be added to anymore.
+     * @param briefPublicMessage the public and brief message
+     * @param violations the violations
+     */
+    public AggregatedInputMappedException(String briefPublicMessage, InputViolations violations){
+        super(briefPublicMessage, null, () -> violations.summarize(VIOLATIONS_IN_DETAILS));
+        violations.seal();
+        this.violations = violations;
+    }
+
+    /**
+     * Getter method for the violations.
+     * @return the violations
+     */
+    public InputViolations getViolations(){
+        return this.violations;
+    }
+
+    /**
+     * Renders all the retained violations, one per line.
+     * @param appendable where to render them
+     * @throws IOException if the appendable fails
+     */
+    public void renderViolationsTo(Appendable appendable) throws IOException {
+        this.violations.renderTo(appendable);
+    }
+
+}
@@ -2,6 +2,9 @@ package com.cae.mapped_exceptions.specifics;
 
 
 import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.SharedMappedExceptions;
+
+import java.util.function.Supplier;
 
 public class InputMappedException extends MappedException {
 
@@ -21,5 +24,85 @@ public class InputMappedException extends MappedException {
         super(briefPublicMessage, originalException);
     }
 
+    public InputMappedException(String briefPublicMessage, String details, boolean stackless){
+        super(briefPublicMessage, details, stackless);
+    }
+
+    public InputMappedException(String briefPublicMessage, boolean stackless){
+        super(briefPublicMessage, stackless);
+    }
+
+    public InputMappedException(String briefPublicMessage, String details, Exception originalException, boolean stackless){
+        super(briefPublicMessage, details, originalException, stackless);
+    }
+
+    public InputMappedException(String briefPublicMessage, Exception originalException, boolean stackless){
+        super(briefPublicMessage, originalException, stackless);
+    }
+
+    /**
+     * Constructor method for subclasses with deferred details, the
+     * original exception being optional. Its parameters come in another
+     * order than the ones of the other constructors, so that a null
+     * details argument never makes a call ambiguous; callers get the
+     * withDeferredDetails factory methods instead.
+     * @param briefPublicMessage the brief and public info
+     * @param originalException the exception being mapped, if any
+     * @param detailsSupplier the supplier of the more detailed info
+     */
+    protected InputMappedException(String briefPublicMessage, Exception originalException, Supplier<String> detailsSupplier){
+        super(briefPublicMessage, originalException, detailsSupplier);
+    }
+
+    /**
+     * Factory method for details built from a template in the SLF4J
+     * style, formatted on the first access to them.
+     * @param briefPublicMessage the brief and public info
+     * @param detailsTemplate the template of the more detailed info
+     * @param detailsArguments the values for the "{}" anchors
+     * @return the exception
+     */
+    public static InputMappedException withDetails(String briefPublicMessage, String detailsTemplate, Object... detailsArguments){
+        return new InputMappedException(briefPublicMessage, null, MappedException.detailsFrom(detailsTemplate, detailsArguments));
+    }
+
+    /**
+     * Factory method for details which are costly to build. The supplier
+     * is only called on the first access to the details, which is then
+     * memoized.
+     * @param briefPublicMessage the brief and public info
+     * @param detailsSupplier the supplier of the more detailed info
+     * @return the exception
+     */
+    public static InputMappedException withDeferredDetails(String briefPublicMessage, Supplier<String> detailsSupplier){
+        return new InputMappedException(briefPublicMessage, null, detailsSupplier);
+    }
+
+    public static InputMappedException withDeferredDetails(String briefPublicMessage, Supplier<String> detailsSupplier, Exception originalException){
+        return new InputMappedException(briefPublicMessage, originalException, detailsSupplier);
+    }
+
+    /**
+     * Constructor method for immutable instances, such as the shared ones.
+     * @param briefPublicMessage the brief and public info
+     * @param stackless whether the stack trace capture must be skipped
+     * @param immutable whether the instance must refuse mutations
+     */
+    protected InputMappedException(String briefPublicMessage, boolean stackless, boolean immutable){
+        super(briefPublicMessage, stackless, immutable);
+    }
+
+    /**
+     * Factory method for the preallocated, immutable and stackless
+     * instance of the brief public message, shared by every caller.
+     * Meant for hot exceptions which carry nothing but a constant brief
+     * public message. Its throws aren't seen by the creation hooks, see
+     * {@link SharedMappedExceptions}.
+     * @param briefPublicMessage the constant brief and public info
+     * @return the shared instance
+     */
+    public static InputMappedException shared(String briefPublicMessage){
+        return SharedMappedExceptions.get(InputMappedException.class, briefPublicMessage, message -> new InputMappedException(message, true, true));
+    }
 
 }
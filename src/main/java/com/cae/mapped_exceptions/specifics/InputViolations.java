@@ -0,0 +1,252 @@
+package com.cae.mapped_exceptions.specifics;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Collector of the input violations found while validating a batch,
+ * such as the rows of an import. Violations are kept in a columnar
+ * structure, one array per part (field path, code, brief message and
+ * details), so collecting them creates neither one exception nor one
+ * object per violation. Once the retention cap is reached, further
+ * violations are only counted.
+ * <p>
+ * When done, throwIfAny throws a single
+ * AggregatedInputMappedException carrying all the violations, which
+ * means the stack is captured at most once per batch. Instances are not
+ * thread-safe and stop accepting violations once handed to the
+ * exception. They are serialized along with it.
+ */
+public final class InputViolations implements Serializable {
+
+    public static final int DEFAULT_MAX_RETAINED = 1_000;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxRetained;
+
+    private String[] fieldPaths;
+
+    private String[] codes;
+
+    private String[] briefMessages;
+
+    private String[] details;
+
+    private int size;
+
+    private long overflowCount;
+
+    private boolean sealed;
+
+    private InputViolations(int maxRetained){
+        this.maxRetained = maxRetained;
+        var initialCapacity = Math.min(INITIAL_CAPACITY, maxRetained);
+        this.fieldPaths = new String[initialCapacity];
+        this.codes = new String[initialCapacity];
+        this.briefMessages = new String[initialCapacity];
+        this.details = new String[initialCapacity];
+    }
+
+    /**
+     * Collector retaining up to DEFAULT_MAX_RETAINED violations.
+     * @return the collector
+     */
+    public static InputViolations create(){
+        return new InputViolations(DEFAULT_MAX_RETAINED);
+    }
+
+    /**
+     * Collector retaining up to the amount of violations given.
+     * @param maxRetained the max amount of violations to retain
+     * @return the collector
+     */
+    public static InputViolations retainingUpTo(int maxRetained){
+        if (maxRetained < 1){
+            throw new IllegalArgumentException("The max amount of retained violations must be positive");
+        }
+        return new InputViolations(maxRetained);
+    }
+
+    /**
+     * Adds a violation, or just counts it when the retention cap was
+     * already reached.
+     * @param fieldPath the path of the violating field, such as "rows[42].email"
+     * @param code the machine-readable code of the violation
+     * @param briefMessage the brief and public info about the violation
+     * @param details the more detailed info, if any
+     * @return this collector
+     */
+    public InputViolations add(String fieldPath, String code, String briefMessage, String details){
+        if (this.sealed){
+            throw new IllegalStateException("Violations can't be added once they've been thrown");
+        }
+        if (this.size == this.maxRetained){
+            this.overflowCount ++;
+            return this;
+        }
+        if (this.size == this.fieldPaths.length){
+            this.grow();
+        }
+        this.fieldPaths[this.size] = fieldPath;
+        this.codes[this.size] = code;
+        this.briefMessages[this.size] = briefMessage;
+        this.details[this.size] = details;
+        this.size ++;
+        return this;
+    }
+
+    public InputViolations add(String fieldPath, String code, String briefMessage){
+        return this.add(fieldPath, code, briefMessage, null);
+    }
+
+    private void grow(){
+        var newCapacity = (int) Math.min((long) this.fieldPaths.length * 2, this.maxRetained);
+        this.fieldPaths = Arrays.copyOf(this.fieldPaths, newCapacity);
+        this.codes = Arrays.copyOf(this.codes, newCapacity);
+        this.briefMessages = Arrays.copyOf(this.briefMessages, newCapacity);
+        this.details = Arrays.copyOf(this.details, newCapacity);
+    }
+
+    /**
+     * Throws an AggregatedInputMappedException with the violations if
+     * there is any.
+     * @param briefPublicMessage the brief and public info of the exception
+     * @throws AggregatedInputMappedException if there is any violation
+     */
+    public void throwIfAny(String briefPublicMessage){
+        if (this.hasAny()){
+            throw new AggregatedInputMappedException(briefPublicMessage, this);
+        }
+    }
+
+    void seal(){
+        this.sealed = true;
+    }
+
+    public boolean hasAny(){
+        return this.size > 0 || this.overflowCount > 0;
+    }
+
+    /**
+     * Getter method for the amount of retained violations.
+     * @return the amount of retained violations
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * Getter method for the amount of violations which were counted but
+     * not retained because of the cap.
+     * @return the amount of violations over the cap
+     */
+    public long getOverflowCount(){
+        return this.overflowCount;
+    }
+
+    /**
+     * Getter method for the amount of violations ever added, retained or
+     * not.
+     * @return the total amount of violations
+     */
+    public long getTotalCount(){
+        return this.size + this.overflowCount;
+    }
+
+    public int getMaxRetained(){
+        return this.maxRetained;
+    }
+
+    public String getFieldPathAt(int index){
+        return this.fieldPaths[this.checkIndex(index)];
+    }
+
+    public String getCodeAt(int index){
+        return this.codes[this.checkIndex(index)];
+    }
+
+    public String getBriefMessageAt(int index){
+        return this.briefMessages[this.checkIndex(index)];
+    }
+
+    public String getDetailsAt(int index){
+        return this.details[this.checkIndex(index)];
+    }
+
+    private int checkIndex(int index){
+        if (index < 0 || index >= this.size){
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + this.size + " retained violations");
+        }
+        return index;
+    }
+
+    /**
+     * Streams the retained violations to the consumer, in the order they
+     * were added, without creating one object per violation.
+     * @param consumer the consumer of the violations
+     */
+    public void forEach(ViolationConsumer consumer){
+        for (var index = 0; index < this.size; index ++){
+            consumer.accept(this.fieldPaths[index], this.codes[index], this.briefMessages[index], this.details[index]);
+        }
+    }
+
+    /**
+     * Renders the retained violations, one per line, followed by how many
+     * were over the cap, if any.
+     * @param appendable where to render them
+     * @throws IOException if the appendable fails
+     */
+    public void renderTo(Appendable appendable) throws IOException {
+        this.renderTo(appendable, this.size);
+    }
+
+    void renderTo(Appendable appendable, int maxViolations) throws IOException {
+        var rendered = Math.min(maxViolations, this.size);
+        for (var index = 0; index < rendered; index ++){
+            if (index > 0){
+                appendable.append(System.lineSeparator());
+            }
+            appendable.append(String.valueOf(this.fieldPaths[index]))
+                    .append(" [").append(String.valueOf(this.codes[index])).append("]: ")
+                    .append(String.valueOf(this.briefMessages[index]));
+            if (this.details[index] != null){
+                appendable.append(" (").append(this.details[index]).append(')');
+            }
+        }
+        var notRendered = this.getTotalCount() - rendered;
+        if (notRendered > 0){
+            if (rendered > 0){
+                appendable.append(System.lineSeparator());
+            }
+            appendable.append("... and ").append(String.valueOf(notRendered)).append(" more violation(s)");
+        }
+    }
+
+    String summarize(int maxViolations){
+        var builder = new StringBuilder()
+                .append(this.getTotalCount()).append(" violation(s)")
+                .append(System.lineSeparator());
+        try {
+            this.renderTo(builder, maxViolations);
+        } catch (IOException exception){
+            throw new UncheckedIOException(exception);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Consumer of violations, which gets their parts rather than an
+     * object per violation.
+     */
+    @FunctionalInterface
+    public interface ViolationConsumer {
+
+        void accept(String fieldPath, String code, String briefMessage, String details);
+
+    }
+
+}
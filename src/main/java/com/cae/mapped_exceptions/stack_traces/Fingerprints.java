@@ -0,0 +1,109 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.ExceptionSummary;
+import com.cae.mapped_exceptions.MappedException;
+
+/**
+ * Computes stable 64-bit fingerprints of exceptions, meant to group
+ * occurrences of the same problem. The FNV-1a hash runs over the type
+ * names, the brief messages of mapped exceptions and the top frames of
+ * each exception in the chain of original exceptions, reading their
+ * fields directly instead of rendering them, and it doesn't depend on
+ * identity hash codes, so different JVMs running the same code come
+ * up with the same fingerprints.
+ */
+public final class Fingerprints {
+
+    public static final int DEFAULT_DEPTH = 10;
+
+    public static final int MAX_CHAIN_LENGTH = 8;
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x9e3779b97f4a7c15L;
+
+    private Fingerprints(){}
+
+    public static long of(Throwable throwable){
+        return of(throwable, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Computes the fingerprint of the throwable and of the chain of its
+     * original exceptions (or causes, for non-mapped ones).
+     * @param throwable the throwable to fingerprint
+     * @param depth how many top frames of each throwable to consider
+     * @return the fingerprint, which is never zero
+     */
+    public static long of(Throwable throwable, int depth){
+        var hash = OFFSET_BASIS;
+        var current = throwable;
+        var chainLength = 0;
+        while (current != null && chainLength < MAX_CHAIN_LENGTH){
+            hash = hashString(hash, ExceptionSummary.typeNameOf(current));
+            if (current instanceof MappedException){
+                var mappedException = (MappedException) current;
+                hash = hashString(hash, mappedException.getBriefPublicMessage());
+                hash = hashFrames(hash, mappedException.getStackSnapshot(), depth);
+                current = mappedException.getOriginalException().orElse(null);
+            }
+            else {
+                var snapshot = current instanceof ExceptionSummary?
+                        ((ExceptionSummary) current).getStackSnapshot() :
+                        StackSnapshot.of(current.getStackTrace());
+                hash = hashFrames(hash, snapshot, depth);
+                current = current.getCause() == current? null : current.getCause();
+            }
+            chainLength ++;
+        }
+        return hash == 0L? PRIME : hash;
+    }
+
+    /**
+     * Hashes the top frames of a snapshot, which is enough to tell
+     * whether two stack traces are the same one for every frame up to
+     * the given depth. Frames below that depth, and how deep the stack
+     * was, are left out, so the same throw site reached through deeper
+     * or shallower call paths hashes the same.
+     * @param hash the hash to carry on from
+     * @param snapshot the snapshot whose frames are to be hashed
+     * @param depth how many top frames to consider
+     * @return the resulting hash
+     */
+    public static long hashFrames(long hash, StackSnapshot snapshot, int depth){
+        var framesToHash = Math.min(depth, snapshot.getCapturedDepth());
+        for (var index = 0; index < framesToHash; index ++){
+            var frame = snapshot.frameAt(index);
+            hash = hashString(hash, frame.getClassName());
+            hash = hashString(hash, frame.getMethodName());
+            hash = hashString(hash, frame.getFileName());
+            hash = hashInt(hash, frame.getLineNumber());
+        }
+        return hash;
+    }
+
+    public static long hashString(long hash, String value){
+        if (value == null){
+            return hashLong(hash, NULL_MARKER);
+        }
+        var length = value.length();
+        for (var index = 0; index < length; index ++){
+            hash ^= value.charAt(index);
+            hash *= PRIME;
+        }
+        return hashInt(hash, length);
+    }
+
+    public static long hashInt(long hash, int value){
+        for (var shift = 0; shift < Integer.SIZE; shift += Byte.SIZE){
+            hash ^= (value >>> shift) & 0xff;
+            hash *= PRIME;
+        }
+        return hash;
+    }
+
+    private static long hashLong(long hash, long value){
+        return hashInt(hashInt(hash, (int) value), (int) (value >>> Integer.SIZE));
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.util.Arrays;
+
+/**
+ * Filter of stack frames by the name of their declaring classes, meant
+ * to leave framework frames (reflection, proxies, servlet filters and
+ * so on) out of the captured stack traces. Include and exclude rules
+ * are prefixes of fully qualified class names and, when more than one
+ * of them matches, the longest one wins. Frames matching no rule are
+ * kept.
+ * <p>
+ * The rules are compiled into a prefix trie, so checking a frame costs
+ * a single pass over the name of its class, no matter how many rules
+ * there are. Filters are immutable: each new rule derives a new one.
+ */
+public final class FrameFilter {
+
+    private static final byte NO_RULE = 0;
+    private static final byte INCLUDE = 1;
+    private static final byte EXCLUDE = 2;
+
+    private static final FrameFilter NONE = new FrameFilter(new Node());
+
+    private final Node root;
+
+    private FrameFilter(Node root){
+        this.root = root;
+    }
+
+    /**
+     * Filter without rules, which keeps every frame.
+     * @return the empty filter
+     */
+    public static FrameFilter none(){
+        return NONE;
+    }
+
+    /**
+     * Derives a filter which leaves out the frames whose classes start
+     * with any of the prefixes, unless a longer include rule matches them.
+     * @param prefixes the prefixes to exclude, such as "jdk.internal.reflect."
+     * @return the derived filter
+     */
+    public FrameFilter excluding(String... prefixes){
+        return this.withRule(EXCLUDE, prefixes);
+    }
+
+    /**
+     * Derives a filter which keeps the frames whose classes start with
+     * any of the prefixes, even if a shorter exclude rule matches them.
+     * @param prefixes the prefixes to include
+     * @return the derived filter
+     */
+    public FrameFilter including(String... prefixes){
+        return this.withRule(INCLUDE, prefixes);
+    }
+
+    /**
+     * Tells whether the frames of the class are to be kept.
+     * @param className the fully qualified name of the class
+     * @return whether its frames are kept
+     */
+    public boolean accepts(String className){
+        var node = this.root;
+        var decision = node.rule;
+        var length = className.length();
+        for (var index = 0; index < length && node != null; index ++){
+            node = node.child(className.charAt(index));
+            if (node != null && node.rule != NO_RULE){
+                decision = node.rule;
+            }
+        }
+        return decision != EXCLUDE;
+    }
+
+    public boolean isEmpty(){
+        return this.root.isLeaf() && this.root.rule == NO_RULE;
+    }
+
+    private FrameFilter withRule(byte rule, String[] prefixes){
+        var root = this.root.copy();
+        for (var prefix : prefixes){
+            var node = root;
+            for (var index = 0; index < prefix.length(); index ++){
+                node = node.childOrCreate(prefix.charAt(index));
+            }
+            node.rule = rule;
+        }
+        return new FrameFilter(root);
+    }
+
+    private static final class Node {
+
+        private char[] labels = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private byte rule = NO_RULE;
+
+        private Node child(char label){
+            for (var index = 0; index < this.labels.length; index ++){
+                if (this.labels[index] == label){
+                    return this.children[index];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char label){
+            var existing = this.child(label);
+            if (existing != null){
+                return existing;
+            }
+            var created = new Node();
+            this.labels = Arrays.copyOf(this.labels, this.labels.length + 1);
+            this.children = Arrays.copyOf(this.children, this.children.length + 1);
+            this.labels[this.labels.length - 1] = label;
+            this.children[this.children.length - 1] = created;
+            return created;
+        }
+
+        private boolean isLeaf(){
+            return this.labels.length == 0;
+        }
+
+        private Node copy(){
+            var copy = new Node();
+            copy.rule = this.rule;
+            copy.labels = this.labels.clone();
+            copy.children = new Node[this.children.length];
+            for (var index = 0; index < this.children.length; index ++){
+                copy.children[index] = this.children[index].copy();
+            }
+            return copy;
+        }
+
+    }
+
+}
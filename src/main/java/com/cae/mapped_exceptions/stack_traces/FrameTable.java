@@ -0,0 +1,89 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent table of deduplicated stack frames. Snapshots interned in
+ * it hold the instances kept by the table in place of their own frames,
+ * so exceptions retained in memory share a single StackTraceElement
+ * instance per distinct frame instead of each holding its own copies.
+ * <p>
+ * The table never grows beyond its capacity: once full, interning fails
+ * and the snapshots just keep their own frames.
+ */
+public final class FrameTable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final FrameTable GLOBAL = new FrameTable(DEFAULT_CAPACITY);
+
+    private static final int NOT_INTERNED = -1;
+
+    private final Map<StackTraceElement, Integer> indexes = new ConcurrentHashMap<>();
+
+    private final AtomicReferenceArray<StackTraceElement> frames;
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    private FrameTable(int capacity){
+        this.frames = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Creates a table of its own, apart from the global one.
+     * @param capacity the maximum number of distinct frames to hold
+     * @return the new table
+     */
+    public static FrameTable withCapacity(int capacity){
+        if (capacity < 1){
+            throw new IllegalArgumentException("The frame table needs room for at least one frame, got " + capacity);
+        }
+        return new FrameTable(capacity);
+    }
+
+    public static FrameTable global(){
+        return GLOBAL;
+    }
+
+    /**
+     * Interns the frame, giving back its index in the table.
+     * @param frame the frame to intern
+     * @return the index of the frame or -1 if the table is full
+     */
+    public int intern(StackTraceElement frame){
+        var index = this.indexes.get(frame);
+        if (index != null){
+            return index;
+        }
+        if (this.nextIndex.get() >= this.frames.length()){
+            return NOT_INTERNED;
+        }
+        index = this.indexes.computeIfAbsent(frame, this::store);
+        return index == null? NOT_INTERNED : index;
+    }
+
+    private Integer store(StackTraceElement frame){
+        var index = this.nextIndex.getAndIncrement();
+        if (index >= this.frames.length()){
+            return null;
+        }
+        this.frames.set(index, frame);
+        return index;
+    }
+
+    public StackTraceElement frameAt(int index){
+        return this.frames.get(index);
+    }
+
+    public int size(){
+        return Math.min(this.nextIndex.get(), this.frames.length());
+    }
+
+    public int capacity(){
+        return this.frames.length();
+    }
+
+}
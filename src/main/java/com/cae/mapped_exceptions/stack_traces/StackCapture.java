@@ -0,0 +1,113 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * Captures bounded stack snapshots through the StackWalker API, so only
+ * the top frames get materialized as StackTraceElement instances while
+ * the rest of the stack is just counted.
+ */
+public final class StackCapture {
+
+    private static final StackWalker WALKER = StackWalker.getInstance(
+            EnumSet.of(StackWalker.Option.RETAIN_CLASS_REFERENCE, StackWalker.Option.SHOW_REFLECT_FRAMES)
+    );
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private StackCapture(){}
+
+    public static StackSnapshot capture(Throwable throwable, int maxFrames){
+        return capture(throwable, maxFrames, FrameFilter.none());
+    }
+
+    /**
+     * Captures the stack of the current thread as seen by the throwable
+     * being constructed. Just like the JVM does, the frames of its
+     * constructors and of the fillInStackTrace method are skipped. Frames
+     * rejected by the filter are only counted, never materialized.
+     * @param throwable the throwable under construction
+     * @param maxFrames the maximum number of frames to keep
+     * @param filter the filter of the frames to keep
+     * @return the captured snapshot
+     */
+    public static StackSnapshot capture(Throwable throwable, int maxFrames, FrameFilter filter){
+        return capture(throwable, maxFrames, filter, null);
+    }
+
+    /**
+     * Same as the capture without a sampler, except that the sampler is
+     * consulted at the throw site, which is the first frame reached once
+     * the constructors are skipped. Occurrences it leaves out stop the
+     * walk right there, so sampling takes no walk of its own.
+     * @param throwable the throwable under construction
+     * @param maxFrames the maximum number of frames to keep
+     * @param filter the filter of the frames to keep
+     * @param sampler the sampler of the occurrences, if any
+     * @return the captured snapshot, or null if the sampler left this
+     * occurrence out
+     */
+    static StackSnapshot capture(Throwable throwable, int maxFrames, FrameFilter filter, StackTraceSampler sampler){
+        var throwableType = throwable.getClass();
+        var filtering = !filter.isEmpty();
+        return WALKER.walk(frames -> {
+            var captured = new StackTraceElement[Math.min(maxFrames, INITIAL_CAPACITY)];
+            var capturedCount = 0;
+            var totalDepth = 0;
+            var filteredDepth = 0;
+            var skipping = true;
+            var iterator = frames.iterator();
+            while (iterator.hasNext()){
+                var frame = iterator.next();
+                if (skipping){
+                    if (isCaptureFrame(frame, throwableType)){
+                        continue;
+                    }
+                    skipping = false;
+                    if (sampler != null && !sampler.shouldCapture(throwableType, frame.getClassName(), frame.getMethodName(), frame.getLineNumber())){
+                        return null;
+                    }
+                }
+                totalDepth ++;
+                if (filtering && !filter.accepts(frame.getClassName())){
+                    filteredDepth ++;
+                }
+                else if (capturedCount < maxFrames){
+                    if (capturedCount == captured.length){
+                        captured = Arrays.copyOf(captured, Math.min(maxFrames, captured.length * 2));
+                    }
+                    captured[capturedCount ++] = frame.toStackTraceElement();
+                }
+            }
+            var frameArray = capturedCount == captured.length? captured : Arrays.copyOf(captured, capturedCount);
+            return new StackSnapshot(frameArray, totalDepth, filteredDepth);
+        });
+    }
+
+    /**
+     * Locates the frame which instantiated the throwable under
+     * construction, walking only as far as needed to find it.
+     * @param throwable the throwable under construction
+     * @return the throw site
+     */
+    public static ThrowSite locateThrowSite(Throwable throwable){
+        var throwableType = throwable.getClass();
+        return WALKER.walk(frames -> frames
+                .filter(frame -> !isCaptureFrame(frame, throwableType))
+                .findFirst()
+                .map(frame -> new ThrowSite(throwableType, frame.getClassName(), frame.getMethodName(), frame.getLineNumber()))
+                .orElseGet(() -> new ThrowSite(throwableType, "", "", -1)));
+    }
+
+    private static boolean isCaptureFrame(StackWalker.StackFrame frame, Class<?> throwableType){
+        var declaringClass = frame.getDeclaringClass();
+        if (declaringClass == StackCapture.class || declaringClass == StackTraceSampler.class || declaringClass == StackTracePolicy.class){
+            return true;
+        }
+        var methodName = frame.getMethodName();
+        return declaringClass.isAssignableFrom(throwableType)
+                && ("<init>".equals(methodName) || "fillInStackTrace".equals(methodName));
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact view of a stack trace: it holds the frames which were kept
+ * and how deep the stack actually was, so the number of hidden lines
+ * can still be told even if only the top frames were captured. Once
+ * interned in a FrameTable, its frames are the instances held by the
+ * table, shared with every other snapshot interned in it.
+ */
+public final class StackSnapshot {
+
+    private final StackTraceElement[] frames;
+
+    private final boolean interned;
+
+    private final int totalDepth;
+
+    private final int filteredDepth;
+
+    StackSnapshot(StackTraceElement[] frames, int totalDepth){
+        this(frames, totalDepth, 0);
+    }
+
+    StackSnapshot(StackTraceElement[] frames, int totalDepth, int filteredDepth){
+        this(frames, false, totalDepth, filteredDepth);
+    }
+
+    private StackSnapshot(StackTraceElement[] frames, boolean interned, int totalDepth, int filteredDepth){
+        this.frames = frames;
+        this.interned = interned;
+        this.totalDepth = totalDepth;
+        this.filteredDepth = filteredDepth;
+    }
+
+    /**
+     * Wraps an already materialized stack trace, such as the one
+     * returned by the getStackTrace method of any Throwable.
+     * @param frames the frames of the stack trace
+     * @return the snapshot of the whole stack trace
+     */
+    public static StackSnapshot of(StackTraceElement[] frames){
+        return new StackSnapshot(frames, frames.length);
+    }
+
+    /**
+     * Wraps the top frames of a stack trace which was deeper than them,
+     * such as the bounded frames kept by an ExceptionSummary.
+     * @param frames the top frames of the stack trace
+     * @param totalDepth how deep the stack trace was
+     * @return the snapshot
+     */
+    public static StackSnapshot of(StackTraceElement[] frames, int totalDepth){
+        return new StackSnapshot(frames, Math.max(frames.length, totalDepth));
+    }
+
+    /**
+     * Wraps the top frames of a stack trace which was deeper than them,
+     * part of the hidden frames having been left out by a FrameFilter.
+     * @param frames the top frames of the stack trace
+     * @param totalDepth how deep the stack trace was
+     * @param filteredDepth how many of the hidden frames were filtered
+     * @return the snapshot
+     */
+    public static StackSnapshot of(StackTraceElement[] frames, int totalDepth, int filteredDepth){
+        return new StackSnapshot(frames, Math.max(frames.length, totalDepth), filteredDepth);
+    }
+
+    /**
+     * Derives a snapshot whose frames are the ones held by the table, so
+     * that equal frames end up as a single instance. If the table has no
+     * room left for some of them, this very snapshot is returned instead.
+     * @param frameTable the table to intern the frames in
+     * @return the interned snapshot
+     */
+    public StackSnapshot internedIn(FrameTable frameTable){
+        if (this.interned){
+            return this;
+        }
+        var shared = new StackTraceElement[this.frames.length];
+        for (var position = 0; position < shared.length; position ++){
+            var index = frameTable.intern(this.frames[position]);
+            if (index < 0){
+                return this;
+            }
+            shared[position] = frameTable.frameAt(index);
+        }
+        return new StackSnapshot(shared, true, this.totalDepth, this.filteredDepth);
+    }
+
+    public boolean isInterned(){
+        return this.interned;
+    }
+
+    public int getCapturedDepth(){
+        return this.frames.length;
+    }
+
+    public int getTotalDepth(){
+        return this.totalDepth;
+    }
+
+    /**
+     * Getter method for how many frames were left out by a FrameFilter
+     * at capture time. They are part of the total depth.
+     * @return the number of filtered frames
+     */
+    public int getFilteredDepth(){
+        return this.filteredDepth;
+    }
+
+    /**
+     * Gives access to a single frame without copying the whole array.
+     * @param index the position of the frame, from the top of the stack
+     * @return the frame
+     */
+    public StackTraceElement frameAt(int index){
+        return this.frames[index];
+    }
+
+    public StackTraceElement[] getFrames(){
+        return this.frames.clone();
+    }
+
+    /**
+     * Renders the top lines of the stack trace, followed by a line
+     * telling how many were left out, if any. When frames were filtered
+     * at capture time, that line also tells how many of the hidden ones
+     * were filtered and how many were just truncated.
+     * @param numberOfLines the maximum number of frames to render
+     * @return the rendered lines
+     */
+    public List<String> toLines(Integer numberOfLines){
+        var linesToShow = Math.max(0, Math.min(this.getCapturedDepth(), numberOfLines));
+        var linesToReturn = new ArrayList<String>(linesToShow + 1);
+        for (var index = 0; index < linesToShow; index ++){
+            linesToReturn.add(this.frameAt(index).toString());
+        }
+        var hiddenLines = this.totalDepth - linesToShow;
+        if (hiddenLines > 0 && this.filteredDepth > 0){
+            var truncatedLines = hiddenLines - this.filteredDepth;
+            linesToReturn.add(hiddenLines + " hidden line(s) (" + this.filteredDepth + " filtered, " + truncatedLines + " truncated)");
+        }
+        else if (hiddenLines > 0){
+            linesToReturn.add(hiddenLines + " hidden line(s)");
+        }
+        return linesToReturn;
+    }
+
+}
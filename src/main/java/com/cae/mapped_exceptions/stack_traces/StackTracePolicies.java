@@ -0,0 +1,83 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global registry of StackTracePolicy instances per MappedException
+ * type. The policy of a type is the one registered for it or, if none
+ * was, the one registered for its closest registered superclass. Types
+ * without any registered policy in their hierarchy keep capturing the
+ * full stack trace.
+ * <p>
+ * The InternalMappedException type comes registered with the full
+ * policy, so it keeps its stack traces even when a broader type such
+ * as the MappedException itself is set to be stackless.
+ */
+public class StackTracePolicies {
+
+    private StackTracePolicies(){}
+
+    private static final Map<Class<?>, StackTracePolicy> REGISTERED = new ConcurrentHashMap<>();
+
+    private static volatile Map<Class<?>, StackTracePolicy> resolved = new ConcurrentHashMap<>();
+
+    static {
+        registerDefaults();
+    }
+
+    /**
+     * Registers the policy to be applied to the type and its subtypes
+     * which don't have a more specific registration.
+     * @param type the MappedException type
+     * @param policy the policy to apply
+     */
+    public static void register(Class<? extends MappedException> type, StackTracePolicy policy){
+        REGISTERED.put(type, policy);
+        resolved = new ConcurrentHashMap<>();
+    }
+
+    public static void unregister(Class<? extends MappedException> type){
+        REGISTERED.remove(type);
+        resolved = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Drops every custom registration, going back to the default state.
+     */
+    public static void reset(){
+        REGISTERED.clear();
+        registerDefaults();
+        resolved = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Resolves the policy which applies to the type. Results are cached
+     * until the next change in the registry.
+     * @param type the type to resolve the policy for
+     * @return the applicable policy
+     */
+    public static StackTracePolicy resolve(Class<?> type){
+        return resolved.computeIfAbsent(type, StackTracePolicies::lookUp);
+    }
+
+    private static StackTracePolicy lookUp(Class<?> type){
+        var current = type;
+        while (current != null){
+            var policy = REGISTERED.get(current);
+            if (policy != null){
+                return policy;
+            }
+            current = current.getSuperclass();
+        }
+        return StackTracePolicy.full();
+    }
+
+    private static void registerDefaults(){
+        REGISTERED.put(InternalMappedException.class, StackTracePolicy.full());
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.time.Duration;
+
+/**
+ * Describes how the stack trace of a MappedException type should be
+ * captured at construction time. Policies are immutable and are meant
+ * to be registered per type at the StackTracePolicies registry.
+ */
+public final class StackTracePolicy {
+
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final StackTracePolicy FULL = new StackTracePolicy(true, UNBOUNDED, null, FrameFilter.none(), null);
+    private static final StackTracePolicy STACKLESS = new StackTracePolicy(false, 0, null, FrameFilter.none(), null);
+
+    private final boolean capturing;
+
+    private final int maxFrames;
+
+    private final StackTraceSampler sampler;
+
+    private final FrameFilter frameFilter;
+
+    private final FrameTable frameTable;
+
+    private StackTracePolicy(boolean capturing, int maxFrames, StackTraceSampler sampler, FrameFilter frameFilter, FrameTable frameTable){
+        this.capturing = capturing;
+        this.maxFrames = maxFrames;
+        this.sampler = sampler;
+        this.frameFilter = frameFilter;
+        this.frameTable = frameTable;
+    }
+
+    /**
+     * Policy which keeps the default JVM behavior: the whole stack
+     * is captured when the exception gets instantiated.
+     * @return the full capture policy
+     */
+    public static StackTracePolicy full(){
+        return FULL;
+    }
+
+    /**
+     * Policy which skips the stack walk entirely. Useful for exceptions
+     * that are thrown as expected control flow and whose stack traces
+     * are never read, such as the NotFoundMappedException ones.
+     * @return the stackless policy
+     */
+    public static StackTracePolicy stackless(){
+        return STACKLESS;
+    }
+
+    /**
+     * Policy which only keeps the top frames of the stack, walking it
+     * through the StackWalker API instead of letting the JVM materialize
+     * all of its frames. The frames beneath are just counted, so the
+     * number of hidden lines stays accurate.
+     * @param maxFrames how many of the top frames should be kept
+     * @return the bounded capture policy
+     */
+    public static StackTracePolicy topFrames(int maxFrames){
+        if (maxFrames < 1){
+            throw new IllegalArgumentException("The number of frames to capture must be positive, got " + maxFrames);
+        }
+        return new StackTracePolicy(true, maxFrames, null, FrameFilter.none(), null);
+    }
+
+    /**
+     * Policy which captures the full stack trace of only a sample of
+     * the occurrences. See the withSampling method for the details.
+     * @param firstOccurrences how many occurrences per throw site are
+     *                         always captured within each window
+     * @param window the time window after which counting starts over
+     * @param oneInN the rate of capture after the first occurrences
+     * @return the sampled capture policy
+     */
+    public static StackTracePolicy sampled(int firstOccurrences, Duration window, int oneInN){
+        return FULL.withSampling(firstOccurrences, window, oneInN);
+    }
+
+    /**
+     * Derives a policy which only captures the stack trace of a sample
+     * of the occurrences, counted per exception type and throw site:
+     * within each time window, the first occurrences are all captured
+     * and, after them, only one in every N is. The remaining ones are
+     * left stackless.
+     * @param firstOccurrences how many occurrences per throw site are
+     *                         always captured within each window
+     * @param window the time window after which counting starts over
+     * @param oneInN the rate of capture after the first occurrences
+     * @return the derived policy
+     */
+    public StackTracePolicy withSampling(int firstOccurrences, Duration window, int oneInN){
+        return new StackTracePolicy(this.capturing, this.maxFrames, new StackTraceSampler(firstOccurrences, window, oneInN), this.frameFilter, this.frameTable);
+    }
+
+    /**
+     * Derives a policy which applies the filter while walking the stack,
+     * so the frames it rejects are never materialized. Since the filter
+     * is applied through the StackWalker API, even full captures stop
+     * relying on the JVM's own stack trace filling.
+     * @param frameFilter the filter of the frames to keep
+     * @return the derived policy
+     */
+    public StackTracePolicy withFrameFilter(FrameFilter frameFilter){
+        return new StackTracePolicy(this.capturing, this.maxFrames, this.sampler, frameFilter, this.frameTable);
+    }
+
+    public StackTracePolicy withInternedFrames(){
+        return this.withInternedFrames(FrameTable.global());
+    }
+
+    /**
+     * Derives a policy whose captured frames get interned in the table,
+     * so exceptions retained in memory for a while share a single
+     * StackTraceElement instance per distinct frame. Each exception still
+     * holds its own array of frames, since Throwable reads it directly
+     * when printing causes and when serializing.
+     * @param frameTable the table to intern the frames in
+     * @return the derived policy
+     */
+    public StackTracePolicy withInternedFrames(FrameTable frameTable){
+        return new StackTracePolicy(this.capturing, this.maxFrames, this.sampler, this.frameFilter, frameTable);
+    }
+
+    /**
+     * Captures the stack of the throwable under construction through the
+     * StackWalker API, applying the bounds, the filter, the sampling and
+     * the interning of this policy in a single walk.
+     * @param throwable the throwable under construction
+     * @return the captured snapshot, or null if sampling left this
+     * occurrence out
+     */
+    public StackSnapshot capture(Throwable throwable){
+        var snapshot = StackCapture.capture(throwable, this.maxFrames, this.frameFilter, this.sampler);
+        if (snapshot != null && this.frameTable != null){
+            snapshot = snapshot.internedIn(this.frameTable);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Tells whether the stack trace of the throwable under construction
+     * should be captured, considering its sampling, if any.
+     * @param throwable the throwable under construction
+     * @return whether its stack trace should be captured
+     */
+    public boolean shouldCapture(Throwable throwable){
+        return this.capturing && (this.sampler == null || this.sampler.shouldCapture(throwable));
+    }
+
+    public boolean isCapturing(){
+        return this.capturing;
+    }
+
+    public boolean isBounded(){
+        return this.capturing && this.maxFrames != UNBOUNDED;
+    }
+
+    public int getMaxFrames(){
+        return this.maxFrames;
+    }
+
+    public boolean isSampled(){
+        return this.sampler != null;
+    }
+
+    public FrameFilter getFrameFilter(){
+        return this.frameFilter;
+    }
+
+    public boolean isInterningFrames(){
+        return this.capturing && this.frameTable != null;
+    }
+
+    public FrameTable getFrameTable(){
+        return this.frameTable;
+    }
+
+    /**
+     * Tells whether captures under this policy are taken through the
+     * StackWalker API, which is the case for the bounded, the filtered,
+     * the interned and the sampled ones. Sampled captures locate their
+     * throw site within that same walk.
+     * @return whether the StackWalker API is used
+     */
+    public boolean isWalkingTheStack(){
+        return this.capturing && (this.isBounded() || this.frameTable != null || this.sampler != null || !this.frameFilter.isEmpty());
+    }
+
+}
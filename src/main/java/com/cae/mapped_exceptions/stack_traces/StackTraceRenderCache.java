@@ -0,0 +1,272 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in, size-bounded cache of rendered stack traces, keyed by the hash
+ * of their frames. Exceptions thrown over and over from the same site
+ * then get their stack trace lines rendered only once, while the next
+ * occurrences cost a hash plus a lookup.
+ * <p>
+ * Entries are spread over independently locked stripes, each of them
+ * evicting its least recently used entries once full. Small caches get
+ * fewer stripes, so none of them gets too few entries to keep a working
+ * set, and the entries left over from dividing the capacity among the
+ * stripes go to the first ones.
+ */
+public final class StackTraceRenderCache {
+
+    private static final int MAX_STRIPES = 16;
+
+    private static final int MIN_ENTRIES_PER_STRIPE = 8;
+
+    private static final int FULL_RENDER = -1;
+
+    private static volatile StackTraceRenderCache active;
+
+    private final Stripe[] stripes;
+
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private StackTraceRenderCache(int maxEntries){
+        var stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, maxEntries / MIN_ENTRIES_PER_STRIPE)));
+        this.stripes = new Stripe[stripeCount];
+        var entriesPerStripe = maxEntries / stripeCount;
+        var remainder = maxEntries % stripeCount;
+        var capacity = 0;
+        for (var index = 0; index < stripeCount; index ++){
+            var stripeEntries = entriesPerStripe + (index < remainder? 1 : 0);
+            this.stripes[index] = new Stripe(stripeEntries, this.evictions);
+            capacity += stripeEntries;
+        }
+        this.maxEntries = capacity;
+    }
+
+    /**
+     * Turns the cache on for every MappedException, replacing the
+     * previous cache, if any.
+     * @param maxEntries the maximum number of rendered entries to keep
+     * @return the cache which is now active
+     */
+    public static StackTraceRenderCache enable(int maxEntries){
+        if (maxEntries < 1){
+            throw new IllegalArgumentException("The cache needs room for at least one entry, got " + maxEntries);
+        }
+        var cache = new StackTraceRenderCache(maxEntries);
+        active = cache;
+        return cache;
+    }
+
+    public static void disable(){
+        active = null;
+    }
+
+    /**
+     * Getter method for the active cache.
+     * @return the active cache or null when caching is off
+     */
+    public static StackTraceRenderCache active(){
+        return active;
+    }
+
+    /**
+     * Hashes every frame of the snapshot along with its total and filtered
+     * depths, which tell the hidden lines apart, and is what identifies a
+     * rendered stack trace in this cache.
+     * @param snapshot the snapshot to be rendered
+     * @return the key of its renders
+     */
+    public static long keyOf(StackSnapshot snapshot){
+        var hash = Fingerprints.hashFrames(0L, snapshot, Integer.MAX_VALUE);
+        hash = Fingerprints.hashInt(hash, snapshot.getTotalDepth());
+        return Fingerprints.hashInt(hash, snapshot.getFilteredDepth());
+    }
+
+    /**
+     * Gets the rendered frames of a full stack trace, rendering them if
+     * they are not in the cache yet.
+     * @param stackKey the key of the snapshot, as given by the keyOf method
+     * @param renderer renders the frames on a miss
+     * @return the rendered frames
+     */
+    public String getFullRender(long stackKey, Supplier<String> renderer){
+        return (String) this.get(new RenderKey(stackKey, FULL_RENDER), renderer);
+    }
+
+    /**
+     * Gets the rendered top lines of a stack trace, rendering them if
+     * they are not in the cache yet.
+     * @param stackKey the key of the snapshot, as given by the keyOf method
+     * @param numberOfLines the number of lines requested
+     * @param renderer renders the lines on a miss
+     * @return the rendered lines, which must not be modified
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getLines(long stackKey, int numberOfLines, Supplier<List<String>> renderer){
+        return (List<String>) this.get(new RenderKey(stackKey, numberOfLines), () -> Collections.unmodifiableList(renderer.get()));
+    }
+
+    private Object get(RenderKey key, Supplier<?> renderer){
+        var stripe = this.stripes[key.hashCode() & (this.stripes.length - 1)];
+        var cached = stripe.get(key);
+        if (cached != null){
+            this.hits.increment();
+            return cached;
+        }
+        this.misses.increment();
+        var rendered = renderer.get();
+        stripe.put(key, rendered);
+        return rendered;
+    }
+
+    public void clear(){
+        for (var stripe : this.stripes){
+            stripe.clear();
+        }
+    }
+
+    public Statistics getStatistics(){
+        var size = 0;
+        for (var stripe : this.stripes){
+            size += stripe.size();
+        }
+        return new Statistics(this.hits.sum(), this.misses.sum(), this.evictions.sum(), size, this.maxEntries);
+    }
+
+    private static final class RenderKey {
+
+        private final long stackKey;
+
+        private final int numberOfLines;
+
+        private RenderKey(long stackKey, int numberOfLines){
+            this.stackKey = stackKey;
+            this.numberOfLines = numberOfLines;
+        }
+
+        @Override
+        public boolean equals(Object other){
+            if (!(other instanceof RenderKey)){
+                return false;
+            }
+            var otherKey = (RenderKey) other;
+            return this.stackKey == otherKey.stackKey && this.numberOfLines == otherKey.numberOfLines;
+        }
+
+        @Override
+        public int hashCode(){
+            var mixed = this.stackKey * 31 + this.numberOfLines;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+
+    }
+
+    private static final class Stripe extends LinkedHashMap<RenderKey, Object> {
+
+        private final int maxEntries;
+
+        private final LongAdder evictions;
+
+        private Stripe(int maxEntries, LongAdder evictions){
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+            this.evictions = evictions;
+        }
+
+        @Override
+        public synchronized Object get(Object key){
+            return super.get(key);
+        }
+
+        @Override
+        public synchronized Object put(RenderKey key, Object value){
+            return super.put(key, value);
+        }
+
+        @Override
+        public synchronized void clear(){
+            super.clear();
+        }
+
+        @Override
+        public synchronized int size(){
+            return super.size();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RenderKey, Object> eldest){
+            if (this.size() > this.maxEntries){
+                this.evictions.increment();
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * Point-in-time statistics of the cache.
+     */
+    public static final class Statistics {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final int maxEntries;
+
+        private Statistics(long hits, long misses, long evictions, int size, int maxEntries){
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.maxEntries = maxEntries;
+        }
+
+        public long getHits(){
+            return this.hits;
+        }
+
+        public long getMisses(){
+            return this.misses;
+        }
+
+        public long getEvictions(){
+            return this.evictions;
+        }
+
+        public int getSize(){
+            return this.size;
+        }
+
+        /**
+         * Getter method for the capacity of the cache, summed over all of
+         * its stripes.
+         * @return the maximum number of entries kept
+         */
+        public int getMaxEntries(){
+            return this.maxEntries;
+        }
+
+        public double getHitRate(){
+            var requests = this.hits + this.misses;
+            return requests == 0? 0.0 : (double) this.hits / requests;
+        }
+
+        @Override
+        public String toString(){
+            return "hits=" + this.hits + ", misses=" + this.misses + ", evictions=" + this.evictions + ", size=" + this.size + "/" + this.maxEntries;
+        }
+
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.MappedException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Renders stack traces straight into a destination, be it an Appendable
+ * (such as a Writer or a StringBuilder) or a ByteBuffer, which gets the
+ * UTF-8 bytes as they are produced. No intermediate String holding the
+ * whole stack trace is ever built.
+ * <p>
+ * The layout is the one of the printStackTrace method, with the chain
+ * of original exceptions of mapped exceptions rendered as causes. The
+ * depth of that chain and the frames rendered for each of its links can
+ * be limited, and the frames a cause has in common with the exception
+ * it caused can be collapsed into a "... N more" line.
+ */
+public final class StackTraceRenderer {
+
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final StackTraceRenderer DEFAULTS = new StackTraceRenderer(UNLIMITED, UNLIMITED, true);
+
+    private final int maxDepth;
+
+    private final int maxFramesPerCause;
+
+    private final boolean collapsingCommonFrames;
+
+    private StackTraceRenderer(int maxDepth, int maxFramesPerCause, boolean collapsingCommonFrames){
+        this.maxDepth = maxDepth;
+        this.maxFramesPerCause = maxFramesPerCause;
+        this.collapsingCommonFrames = collapsingCommonFrames;
+    }
+
+    /**
+     * Renderer with no limits which collapses common frames, just like
+     * the printStackTrace method does.
+     * @return the default renderer
+     */
+    public static StackTraceRenderer defaults(){
+        return DEFAULTS;
+    }
+
+    /**
+     * Derives a renderer which stops after the given number of links
+     * of the chain, the first one being the exception itself.
+     * @param maxDepth how many links of the chain to render
+     * @return the derived renderer
+     */
+    public StackTraceRenderer withMaxDepth(int maxDepth){
+        requirePositive(maxDepth, "depth");
+        return new StackTraceRenderer(maxDepth, this.maxFramesPerCause, this.collapsingCommonFrames);
+    }
+
+    /**
+     * Derives a renderer which renders at most the given number of frames
+     * for each link of the chain, summing up the rest in a "... N more"
+     * line.
+     * @param maxFramesPerCause how many frames to render per link
+     * @return the derived renderer
+     */
+    public StackTraceRenderer withMaxFramesPerCause(int maxFramesPerCause){
+        requirePositive(maxFramesPerCause, "frames per cause");
+        return new StackTraceRenderer(this.maxDepth, maxFramesPerCause, this.collapsingCommonFrames);
+    }
+
+    public StackTraceRenderer withCommonFramesCollapsed(boolean collapsingCommonFrames){
+        return new StackTraceRenderer(this.maxDepth, this.maxFramesPerCause, collapsingCommonFrames);
+    }
+
+    /**
+     * Renders the stack trace into a ByteBuffer, encoded as UTF-8.
+     * @param throwable the throwable to render
+     * @param destination the buffer to write into
+     * @throws java.nio.BufferOverflowException if the buffer runs out of space
+     */
+    public void render(Throwable throwable, ByteBuffer destination){
+        try {
+            var appendable = new Utf8ByteBufferAppendable(destination);
+            this.render(throwable, appendable);
+            appendable.flush();
+        } catch (IOException exception){
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Renders the stack trace into an Appendable, such as a Writer or a
+     * StringBuilder.
+     * @param throwable the throwable to render
+     * @param destination the destination to append into
+     * @throws IOException if the destination fails to append
+     */
+    public void render(Throwable throwable, Appendable destination) throws IOException {
+        var lineSeparator = System.lineSeparator();
+        var rendered = new Throwable[Math.min(this.maxDepth, Fingerprints.MAX_CHAIN_LENGTH)];
+        StackSnapshot enclosingSnapshot = null;
+        var current = throwable;
+        var depth = 0;
+        while (current != null && depth < this.maxDepth){
+            if (depth > 0){
+                destination.append("Caused by: ");
+            }
+            if (isAlreadyRendered(current, rendered, depth)){
+                destination.append("[CIRCULAR REFERENCE: ").append(current.toString()).append(']').append(lineSeparator);
+                return;
+            }
+            destination.append(current.toString()).append(lineSeparator);
+            var snapshot = snapshotOf(current);
+            this.renderFrames(snapshot, enclosingSnapshot, destination, lineSeparator);
+            if (depth == rendered.length){
+                rendered = Arrays.copyOf(rendered, depth * 2);
+            }
+            rendered[depth] = current;
+            enclosingSnapshot = snapshot;
+            current = nextOf(current);
+            depth ++;
+        }
+    }
+
+    private void renderFrames(StackSnapshot snapshot, StackSnapshot enclosingSnapshot, Appendable destination, String lineSeparator) throws IOException {
+        var inCommon = this.collapsingCommonFrames? countFramesInCommon(snapshot, enclosingSnapshot) : 0;
+        var framesToRender = Math.min(snapshot.getCapturedDepth() - inCommon, this.maxFramesPerCause);
+        for (var index = 0; index < framesToRender; index ++){
+            destination.append("\tat ").append(snapshot.frameAt(index).toString()).append(lineSeparator);
+        }
+        var notRendered = snapshot.getTotalDepth() - framesToRender;
+        if (notRendered > 0){
+            destination.append("\t... ").append(Integer.toString(notRendered)).append(" more").append(lineSeparator);
+        }
+    }
+
+    private static int countFramesInCommon(StackSnapshot snapshot, StackSnapshot enclosingSnapshot){
+        if (enclosingSnapshot == null || !isComplete(snapshot) || !isComplete(enclosingSnapshot)){
+            return 0;
+        }
+        var index = snapshot.getCapturedDepth() - 1;
+        var enclosingIndex = enclosingSnapshot.getCapturedDepth() - 1;
+        var inCommon = 0;
+        while (index >= 0 && enclosingIndex >= 0 && snapshot.frameAt(index).equals(enclosingSnapshot.frameAt(enclosingIndex))){
+            inCommon ++;
+            index --;
+            enclosingIndex --;
+        }
+        return inCommon;
+    }
+
+    private static boolean isComplete(StackSnapshot snapshot){
+        return snapshot.getCapturedDepth() == snapshot.getTotalDepth();
+    }
+
+    private static boolean isAlreadyRendered(Throwable throwable, Throwable[] rendered, int depth){
+        for (var index = 0; index < depth; index ++){
+            if (rendered[index] == throwable){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StackSnapshot snapshotOf(Throwable throwable){
+        if (throwable instanceof MappedException){
+            return ((MappedException) throwable).getStackSnapshot();
+        }
+        return StackSnapshot.of(throwable.getStackTrace());
+    }
+
+    private static Throwable nextOf(Throwable throwable){
+        if (throwable instanceof MappedException){
+            var originalException = ((MappedException) throwable).getOriginalException();
+            if (originalException.isPresent()){
+                return originalException.get();
+            }
+        }
+        return throwable.getCause();
+    }
+
+    private static void requirePositive(int value, String name){
+        if (value < 1){
+            throw new IllegalArgumentException("The maximum " + name + " must be positive, got " + value);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which occurrences of an exception get their stack traces
+ * captured: within each time window, the first occurrences of every
+ * throw site are all captured, and after that only one in every N of
+ * them is. Counters are kept per throw site and are updated without
+ * locking, so concurrent throwers don't contend on a shared monitor.
+ * <p>
+ * Counters live in a fixed table indexed by the hash of their throw
+ * site, which holds its names only, so no class gets pinned and memory
+ * stays the same however many sites there are. A site gets the first
+ * free slot among the few following its index. When all of them are
+ * taken by other sites, it shares the counter of the first one instead
+ * of replacing it, so colliding sites are sampled together rather than
+ * resetting each other's counts back to their first occurrences.
+ */
+public final class StackTraceSampler {
+
+    static final int DEFAULT_TABLE_SIZE = 1024;
+
+    private static final int PROBES = 4;
+
+    private final int firstOccurrences;
+
+    private final long windowNanos;
+
+    private final int oneInN;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicReferenceArray<SiteCounter> counters;
+
+    private final int mask;
+
+    StackTraceSampler(int firstOccurrences, Duration window, int oneInN, LongSupplier nanoClock, int tableSize){
+        if (firstOccurrences < 0 || oneInN < 1 || window.isNegative() || window.isZero()){
+            throw new IllegalArgumentException(
+                    "Sampling needs non-negative first occurrences, a positive window and a positive 1-in-N rate"
+            );
+        }
+        if (tableSize < 1 || Integer.bitCount(tableSize) != 1){
+            throw new IllegalArgumentException("The table size must be a positive power of two, got " + tableSize);
+        }
+        this.firstOccurrences = firstOccurrences;
+        this.windowNanos = window.toNanos();
+        this.oneInN = oneInN;
+        this.nanoClock = nanoClock;
+        this.counters = new AtomicReferenceArray<>(tableSize);
+        this.mask = tableSize - 1;
+    }
+
+    StackTraceSampler(int firstOccurrences, Duration window, int oneInN, LongSupplier nanoClock){
+        this(firstOccurrences, window, oneInN, nanoClock, DEFAULT_TABLE_SIZE);
+    }
+
+    StackTraceSampler(int firstOccurrences, Duration window, int oneInN){
+        this(firstOccurrences, window, oneInN, System::nanoTime);
+    }
+
+    /**
+     * Records an occurrence for the throw site of the throwable under
+     * construction and tells whether its stack trace should be captured.
+     * This walks the top of the stack to find the site; captures taken
+     * through a sampled policy consult the sampler from within their
+     * own walk instead.
+     * @param throwable the throwable under construction
+     * @return whether the stack trace should be captured
+     */
+    public boolean shouldCapture(Throwable throwable){
+        return this.shouldCapture(StackCapture.locateThrowSite(throwable));
+    }
+
+    boolean shouldCapture(ThrowSite throwSite){
+        return this.shouldCapture(
+                throwSite.getExceptionType(),
+                throwSite.getClassName(),
+                throwSite.getMethodName(),
+                throwSite.getLineNumber()
+        );
+    }
+
+    boolean shouldCapture(Class<?> exceptionType, String className, String methodName, int lineNumber){
+        var siteKey = Fingerprints.hashString(0L, exceptionType.getName());
+        siteKey = Fingerprints.hashString(siteKey, className);
+        siteKey = Fingerprints.hashString(siteKey, methodName);
+        siteKey = Fingerprints.hashInt(siteKey, lineNumber);
+        var now = this.nanoClock.getAsLong();
+        var occurrence = this.counterOf(siteKey, now).record(now, this.windowNanos);
+        return occurrence <= this.firstOccurrences || (occurrence - this.firstOccurrences) % this.oneInN == 0;
+    }
+
+    private SiteCounter counterOf(long siteKey, long now){
+        var index = (int) (siteKey ^ (siteKey >>> 32)) & this.mask;
+        var probes = Math.min(PROBES, this.mask + 1);
+        for (var probe = 0; probe < probes; probe ++){
+            var slot = (index + probe) & this.mask;
+            var counter = this.counters.get(slot);
+            if (counter == null){
+                var fresh = new SiteCounter(siteKey, now);
+                if (this.counters.compareAndSet(slot, null, fresh)){
+                    return fresh;
+                }
+                counter = this.counters.get(slot);
+            }
+            if (counter.siteKey == siteKey){
+                return counter;
+            }
+        }
+        return this.counters.get(index);
+    }
+
+    private static final class SiteCounter {
+
+        private final long siteKey;
+
+        private final AtomicLong windowStart;
+
+        private final AtomicLong occurrences = new AtomicLong();
+
+        private SiteCounter(long siteKey, long windowStart){
+            this.siteKey = siteKey;
+            this.windowStart = new AtomicLong(windowStart);
+        }
+
+        private long record(long now, long windowNanos){
+            var currentStart = this.windowStart.get();
+            if (now - currentStart >= windowNanos && this.windowStart.compareAndSet(currentStart, now)){
+                this.occurrences.set(0);
+            }
+            return this.occurrences.incrementAndGet();
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.util.Objects;
+
+/**
+ * Identifies the place where some type of exception gets thrown: the
+ * exception type along with the class, method and line of the frame
+ * which instantiated it.
+ */
+public final class ThrowSite {
+
+    private final Class<?> exceptionType;
+
+    private final String className;
+
+    private final String methodName;
+
+    private final int lineNumber;
+
+    public ThrowSite(Class<?> exceptionType, String className, String methodName, int lineNumber){
+        this.exceptionType = exceptionType;
+        this.className = className;
+        this.methodName = methodName;
+        this.lineNumber = lineNumber;
+    }
+
+    public Class<?> getExceptionType(){
+        return this.exceptionType;
+    }
+
+    public String getClassName(){
+        return this.className;
+    }
+
+    public String getMethodName(){
+        return this.methodName;
+    }
+
+    public int getLineNumber(){
+        return this.lineNumber;
+    }
+
+    @Override
+    public boolean equals(Object other){
+        if (this == other){
+            return true;
+        }
+        if (!(other instanceof ThrowSite)){
+            return false;
+        }
+        var otherSite = (ThrowSite) other;
+        return this.lineNumber == otherSite.lineNumber
+                && this.exceptionType == otherSite.exceptionType
+                && this.methodName.equals(otherSite.methodName)
+                && this.className.equals(otherSite.className);
+    }
+
+    @Override
+    public int hashCode(){
+        return Objects.hash(this.exceptionType, this.className, this.methodName, this.lineNumber);
+    }
+
+    @Override
+    public String toString(){
+        return this.exceptionType.getName() + " at " + this.className + "." + this.methodName + ":" + this.lineNumber;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Appendable which encodes the chars it receives as UTF-8 straight into
+ * a ByteBuffer. Surrogate pairs split across calls are put back together
+ * and unpaired surrogates are written as '?', just like the JDK encoder
+ * does by default.
+ */
+final class Utf8ByteBufferAppendable implements Appendable {
+
+    private final ByteBuffer destination;
+
+    private char pendingHighSurrogate;
+
+    Utf8ByteBufferAppendable(ByteBuffer destination){
+        this.destination = destination;
+    }
+
+    @Override
+    public Appendable append(CharSequence sequence){
+        var chars = sequence == null? "null" : sequence;
+        return this.append(chars, 0, chars.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence sequence, int start, int end){
+        var chars = sequence == null? "null" : sequence;
+        for (var index = start; index < end; index ++){
+            this.append(chars.charAt(index));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char character){
+        if (this.pendingHighSurrogate != 0){
+            var highSurrogate = this.pendingHighSurrogate;
+            this.pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(character)){
+                this.writeCodePoint(Character.toCodePoint(highSurrogate, character));
+                return this;
+            }
+            this.destination.put((byte) '?');
+        }
+        if (Character.isHighSurrogate(character)){
+            this.pendingHighSurrogate = character;
+        }
+        else if (Character.isLowSurrogate(character)){
+            this.destination.put((byte) '?');
+        }
+        else {
+            this.writeCodePoint(character);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a high surrogate left without its pair, if any.
+     */
+    void flush(){
+        if (this.pendingHighSurrogate != 0){
+            this.pendingHighSurrogate = 0;
+            this.destination.put((byte) '?');
+        }
+    }
+
+    private void writeCodePoint(int codePoint){
+        if (codePoint < 0x80){
+            this.destination.put((byte) codePoint);
+        }
+        else if (codePoint < 0x800){
+            this.destination.put((byte) (0xc0 | (codePoint >> 6)));
+            this.destination.put((byte) (0x80 | (codePoint & 0x3f)));
+        }
+        else if (codePoint < 0x10000){
+            this.destination.put((byte) (0xe0 | (codePoint >> 12)));
+            this.destination.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+            this.destination.put((byte) (0x80 | (codePoint & 0x3f)));
+        }
+        else {
+            this.destination.put((byte) (0xf0 | (codePoint >> 18)));
+            this.destination.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+            this.destination.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+            this.destination.put((byte) (0x80 | (codePoint & 0x3f)));
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.cae.mapped_exceptions.translation;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates third-party exceptions (SQLException, IOException,
+ * TimeoutException and the like) into MappedException instances, based
+ * on declarative TranslationRule instances, replacing the ad-hoc
+ * try/catch blocks adapters usually have for that.
+ * <p>
+ * The cause chain of the exception is walked from the outermost link
+ * and the first rule matching a link wins, rules being tried in the
+ * order they were added. MappedException instances found along the way
+ * are returned as they are, since they were already translated. When no
+ * rule matches, the fallback applies.
+ * <p>
+ * Which rules apply to each exception type is resolved only once and
+ * cached in a ClassValue, so steady-state translation does neither
+ * reflection nor rule scanning: only the rules applying to the type get
+ * their instance conditions checked.
+ */
+public final class ExceptionTranslator {
+
+    public static final int MAX_CHAIN_LENGTH = 16;
+
+    private static final TranslationRule[] NO_RULES = new TranslationRule[0];
+
+    private final List<TranslationRule> rules;
+
+    private final TranslationRule.MappedExceptionFactory fallback;
+
+    private final ClassValue<TranslationRule[]> rulesPerType = new ClassValue<>() {
+        @Override
+        protected TranslationRule[] computeValue(Class<?> type) {
+            return ExceptionTranslator.this.rulesApplyingTo(type);
+        }
+    };
+
+    private ExceptionTranslator(List<TranslationRule> rules, TranslationRule.MappedExceptionFactory fallback){
+        this.rules = rules;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Translator with no rules, which translates everything into
+     * InternalMappedException instances.
+     * @return the empty translator
+     */
+    public static ExceptionTranslator create(){
+        return new ExceptionTranslator(List.of(), (thrown, matched) -> MappedExceptionCategory.INTERNAL.instantiate("Internal error", thrown.getMessage(), thrown));
+    }
+
+    /**
+     * Derives a translator with the rule added after the existing ones.
+     * @param rule the rule to add
+     * @return the derived translator
+     */
+    public ExceptionTranslator withRule(TranslationRule rule){
+        var newRules = new ArrayList<>(this.rules);
+        newRules.add(rule);
+        return new ExceptionTranslator(List.copyOf(newRules), this.fallback);
+    }
+
+    public ExceptionTranslator withFallback(MappedExceptionCategory category, String briefPublicMessage){
+        return new ExceptionTranslator(this.rules, (thrown, matched) -> category.instantiate(briefPublicMessage, thrown.getMessage(), thrown));
+    }
+
+    /**
+     * Translates the exception into a MappedException.
+     * @param exception the exception to translate
+     * @return the translated exception
+     */
+    public MappedException translate(Exception exception){
+        Throwable current = exception;
+        var chainLength = 0;
+        while (current != null && chainLength < MAX_CHAIN_LENGTH){
+            if (current instanceof MappedException){
+                return (MappedException) current;
+            }
+            for (var rule : this.rulesPerType.get(current.getClass())){
+                if (!rule.hasInstanceConditions() || rule.matchesInstance(current)){
+                    return rule.translate(exception, current);
+                }
+            }
+            var cause = current.getCause();
+            current = cause == current? null : cause;
+            chainLength ++;
+        }
+        return this.fallback.create(exception, exception);
+    }
+
+    private TranslationRule[] rulesApplyingTo(Class<?> type){
+        var applying = this.rules.stream()
+                .filter(rule -> rule.getType().isAssignableFrom(type))
+                .toArray(TranslationRule[]::new);
+        return applying.length == 0? NO_RULES : applying;
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.cae.mapped_exceptions.translation;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Declarative rule of the ExceptionTranslator: it matches exceptions of
+ * a type and, optionally, of a SQLState, a vendor code or a message, and
+ * tells which MappedException they translate into. Rules are immutable:
+ * each condition derives a new one.
+ */
+public final class TranslationRule {
+
+    private final Class<? extends Throwable> type;
+
+    private final String sqlStatePrefix;
+
+    private final Integer vendorCode;
+
+    private final Predicate<String> messagePredicate;
+
+    private final MappedExceptionFactory factory;
+
+    private TranslationRule(
+            Class<? extends Throwable> type,
+            String sqlStatePrefix,
+            Integer vendorCode,
+            Predicate<String> messagePredicate,
+            MappedExceptionFactory factory){
+        this.type = type;
+        this.sqlStatePrefix = sqlStatePrefix;
+        this.vendorCode = vendorCode;
+        this.messagePredicate = messagePredicate;
+        this.factory = factory;
+    }
+
+    /**
+     * Starts a rule matching the type and its subtypes, which translates
+     * them into InternalMappedException instances unless told otherwise.
+     * @param type the type to match
+     * @return the rule
+     */
+    public static TranslationRule forType(Class<? extends Throwable> type){
+        Objects.requireNonNull(type, "Translation rules need a type to match");
+        return new TranslationRule(type, null, null, null, categoryFactory(MappedExceptionCategory.INTERNAL, "Internal error"));
+    }
+
+    /**
+     * Derives a rule which only matches SQLException instances whose
+     * SQLState starts with the prefix, be it a full SQLState such as
+     * "23505" or just its class, such as "23".
+     * @param sqlStatePrefix the SQLState or SQLState class to match
+     * @return the derived rule
+     */
+    public TranslationRule withSqlState(String sqlStatePrefix){
+        return new TranslationRule(this.type, sqlStatePrefix, this.vendorCode, this.messagePredicate, this.factory);
+    }
+
+    /**
+     * Derives a rule which only matches SQLException instances with the
+     * vendor code.
+     * @param vendorCode the vendor code to match
+     * @return the derived rule
+     */
+    public TranslationRule withVendorCode(int vendorCode){
+        return new TranslationRule(this.type, this.sqlStatePrefix, vendorCode, this.messagePredicate, this.factory);
+    }
+
+    /**
+     * Derives a rule which only matches exceptions whose message meets
+     * the predicate. Null messages never do.
+     * @param messagePredicate the predicate on the message
+     * @return the derived rule
+     */
+    public TranslationRule withMessageMatching(Predicate<String> messagePredicate){
+        return new TranslationRule(this.type, this.sqlStatePrefix, this.vendorCode, messagePredicate, this.factory);
+    }
+
+    /**
+     * Derives a rule which translates the matched exceptions into the
+     * specifics type of the category, with the brief public message, the
+     * message of the matched exception as details and the translated
+     * exception as the original one.
+     * @param category the category to translate into
+     * @param briefPublicMessage the brief and public info
+     * @return the derived rule
+     */
+    public TranslationRule translatingTo(MappedExceptionCategory category, String briefPublicMessage){
+        return this.translatingWith(categoryFactory(category, briefPublicMessage));
+    }
+
+    /**
+     * Derives a rule which translates the matched exceptions with the
+     * factory.
+     * @param factory the factory of the translated exceptions
+     * @return the derived rule
+     */
+    public TranslationRule translatingWith(MappedExceptionFactory factory){
+        return new TranslationRule(this.type, this.sqlStatePrefix, this.vendorCode, this.messagePredicate, factory);
+    }
+
+    Class<? extends Throwable> getType(){
+        return this.type;
+    }
+
+    boolean hasInstanceConditions(){
+        return this.sqlStatePrefix != null || this.vendorCode != null || this.messagePredicate != null;
+    }
+
+    boolean matchesInstance(Throwable throwable){
+        if (this.sqlStatePrefix != null || this.vendorCode != null){
+            if (!(throwable instanceof SQLException)){
+                return false;
+            }
+            var sqlException = (SQLException) throwable;
+            var sqlState = sqlException.getSQLState();
+            if (this.sqlStatePrefix != null && (sqlState == null || !sqlState.startsWith(this.sqlStatePrefix))){
+                return false;
+            }
+            if (this.vendorCode != null && sqlException.getErrorCode() != this.vendorCode){
+                return false;
+            }
+        }
+        if (this.messagePredicate != null){
+            var message = throwable.getMessage();
+            return message != null && this.messagePredicate.test(message);
+        }
+        return true;
+    }
+
+    MappedException translate(Exception thrown, Throwable matched){
+        return this.factory.create(thrown, matched);
+    }
+
+    private static MappedExceptionFactory categoryFactory(MappedExceptionCategory category, String briefPublicMessage){
+        return (thrown, matched) -> category.instantiate(briefPublicMessage, matched.getMessage(), thrown);
+    }
+
+    /**
+     * Creates the MappedException an exception translates into.
+     */
+    @FunctionalInterface
+    public interface MappedExceptionFactory {
+
+        /**
+         * @param thrown the exception given to the translator
+         * @param matched the link of its cause chain the rule matched
+         * @return the translated exception
+         */
+        MappedException create(Exception thrown, Throwable matched);
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.cae.mapped_exceptions;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DetailsFormatterTest {
+
+    @Test
+    void shouldReplaceEachAnchorWithTheArgumentsInOrder(){
+        var formatted = DetailsFormatter.format("Company {} has no branch {}", new Object[]{42, "north"});
+        Assertions.assertEquals("Company 42 has no branch north", formatted);
+    }
+
+    @Test
+    void shouldKeepAnchorsWithoutMatchingArguments(){
+        var formatted = DetailsFormatter.format("{} and {}", new Object[]{"one"});
+        Assertions.assertEquals("one and {}", formatted);
+    }
+
+    @Test
+    void shouldIgnoreExtraArguments(){
+        var formatted = DetailsFormatter.format("Only {}", new Object[]{"one", "two"});
+        Assertions.assertEquals("Only one", formatted);
+    }
+
+    @Test
+    void shouldKeepEscapedAnchorsAsLiterals(){
+        var formatted = DetailsFormatter.format("Literal \\{} then {}", new Object[]{"value"});
+        Assertions.assertEquals("Literal {} then value", formatted);
+    }
+
+    @Test
+    void shouldRenderNullsAndArrays(){
+        var formatted = DetailsFormatter.format("{} {} {}", new Object[]{null, new int[]{1, 2}, new String[]{"a"}});
+        Assertions.assertEquals("null [1, 2] [a]", formatted);
+    }
+
+    @Test
+    void shouldReturnTheTemplateWhenThereAreNoArguments(){
+        Assertions.assertEquals("As is {}", DetailsFormatter.format("As is {}", new Object[0]));
+        Assertions.assertNull(DetailsFormatter.format(null, new Object[]{"x"}));
+    }
+
+}
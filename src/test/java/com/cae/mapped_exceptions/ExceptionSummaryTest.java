@@ -0,0 +1,64 @@
+package com.cae.mapped_exceptions;
+
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+
+@ExtendWith(MockitoExtension.class)
+class ExceptionSummaryTest {
+
+    @Test
+    void shouldReadLikeTheExceptionItSummarizes(){
+        var original = new IllegalStateException("Pool exhausted", new IOException("Broken pipe"));
+        var summary = ExceptionSummary.of(original, 3);
+        Assertions.assertEquals(original.toString(), summary.toString());
+        Assertions.assertEquals(original.getCause().toString(), summary.getCause().toString());
+        Assertions.assertEquals("java.lang.IllegalStateException", summary.getTypeName());
+        Assertions.assertEquals(3, summary.getStackTrace().length);
+        Assertions.assertEquals(original.getStackTrace().length, summary.getTotalDepth());
+        Assertions.assertEquals(original.getStackTrace().length - 3, summary.getStackSnapshot().getTotalDepth() - summary.getStackSnapshot().getCapturedDepth());
+        Assertions.assertEquals(original.getStackTrace()[0], summary.getStackTrace()[0]);
+        Assertions.assertEquals(3, summary.getCause().getStackTrace().length);
+        Assertions.assertSame(summary, ExceptionSummary.of(summary, 3));
+        Assertions.assertEquals(new ExceptionSummary("java.lang.Exception", null, null, null).toString(), new Exception().toString());
+    }
+
+    @Test
+    void shouldFollowOriginalExceptionsOfMappedOnes(){
+        var mapped = new NotFoundMappedException("Not found", new IOException("Broken pipe"));
+        var summary = ExceptionSummary.of(mapped, 0);
+        Assertions.assertEquals(mapped.toString(), summary.toString());
+        Assertions.assertEquals("java.io.IOException: Broken pipe", summary.getCause().toString());
+    }
+
+    @Test
+    void shouldBoundTheChainAndStopAtCycles(){
+        Exception chain = new IOException("0");
+        for (var index = 1; index < 20; index ++){
+            chain = new IOException(String.valueOf(index), chain);
+        }
+        var length = 0;
+        for (var link = ExceptionSummary.of(chain, 0); link != null; link = link.getCause()){
+            length ++;
+        }
+        Assertions.assertEquals(ExceptionSummary.MAX_CHAIN_LENGTH, length);
+        var first = new IllegalStateException("first");
+        var second = new IllegalStateException("second", first);
+        first.initCause(second);
+        Assertions.assertEquals("second", ExceptionSummary.of(first, 0).getCause().getMessage());
+        Assertions.assertNull(ExceptionSummary.of(first, 0).getCause().getCause());
+    }
+
+    @Test
+    void shouldRefuseMutations(){
+        var summary = ExceptionSummary.of(new IOException("Broken pipe"), 1);
+        Assertions.assertThrows(IllegalStateException.class, () -> summary.initCause(new IOException()));
+        summary.setStackTrace(new StackTraceElement[0]);
+        Assertions.assertEquals(1, summary.getStackTrace().length);
+    }
+
+}
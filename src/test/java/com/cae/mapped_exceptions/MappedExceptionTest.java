@@ -5,10 +5,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @ExtendWith(MockitoExtension.class)
 class MappedExceptionTest {
@@ -126,6 +136,238 @@ class MappedExceptionTest {
         Assertions.assertDoesNotThrow(() -> testSubjectWithoutDetails.getLinesFromStackTraceFromOriginalException(numberOfLinesWayGreaterThanItShouldBe));
     }
 
+    @Test
+    void shouldNotRenderTheOriginalExceptionUntilTheMessageIsRequested(){
+        var originalException = new CountingToStringException();
+        var testSubject = new TestSubjectException("Lazy", "Some details", originalException);
+        Assertions.assertEquals(0, originalException.timesRendered);
+        var firstMessage = testSubject.getMessage();
+        var secondMessage = testSubject.getMessage();
+        Assertions.assertEquals(1, originalException.timesRendered);
+        Assertions.assertSame(firstMessage, secondMessage);
+        Assertions.assertEquals("Lazy | Some details | Original: " + originalException, firstMessage);
+    }
+
+    @Test
+    void shouldKeepRenderingNullPartsAsBeforeWhenTheyAreExplicitlyPassed(){
+        var testSubject = new TestSubjectException("Explicit", (String) null, (Exception) null);
+        Assertions.assertEquals("Explicit | null | Original: null", testSubject.getMessage());
+    }
+
+    @Test
+    void shouldUseTheComposedMessageWhenConvertedToString(){
+        var testSubject = new TestSubjectException("Brief", "Details");
+        Assertions.assertEquals(TestSubjectException.class.getName() + ": Brief | Details", testSubject.toString());
+    }
+
+    @Test
+    void shouldOnlyCallTheDetailsSupplierOnceAndOnlyWhenTheDetailsAreRead(){
+        var calls = new AtomicInteger();
+        var testSubject = new TestSubjectException("Deferred", null, () -> "Built on demand #" + calls.incrementAndGet());
+        Assertions.assertEquals(0, calls.get());
+        Assertions.assertEquals("Built on demand #1", testSubject.getDetails().orElseThrow());
+        Assertions.assertEquals("Built on demand #1", testSubject.getDetails().orElseThrow());
+        Assertions.assertEquals("Deferred | Built on demand #1", testSubject.getMessage());
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldComposeTheMessageWithTheSuppliedDetailsAndOriginalException(){
+        var originalException = new RuntimeException("Opsie... hi-hi-hi");
+        var testSubject = new TestSubjectException("Deferred", originalException, () -> "Supplied");
+        Assertions.assertEquals("Deferred | Supplied | Original: " + originalException, testSubject.getMessage());
+        Assertions.assertEquals(originalException, testSubject.getOriginalException().orElseThrow());
+    }
+
+    @Test
+    void shouldFormatTheDetailsTemplateWithTheArguments(){
+        var testSubject = new TestSubjectException("Not there", null, MappedException.detailsFrom("Company {} has no branch {}", 42, "north"));
+        Assertions.assertEquals("Company 42 has no branch north", testSubject.getDetails().orElseThrow());
+        Assertions.assertEquals("Not there | Company 42 has no branch north", testSubject.getMessage());
+    }
+
+    @Test
+    void shouldNotMistakeABooleanTemplateArgumentForTheStacklessFlag(){
+        var testSubject = MappedException.withDetails("Bad", "flag was {}", true);
+        Assertions.assertEquals("flag was true", testSubject.getDetails().orElseThrow());
+        Assertions.assertTrue(testSubject.isStackTraceCaptured());
+    }
+
+    @Test
+    void shouldDeferTheDetailsGivenToTheFactoryMethods(){
+        var calls = new AtomicInteger();
+        var testSubject = MappedException.withDeferredDetails("Deferred", () -> "Supplied #" + calls.incrementAndGet());
+        Assertions.assertEquals(0, calls.get());
+        Assertions.assertEquals("Deferred | Supplied #1", testSubject.getMessage());
+        var originalException = new RuntimeException("Opsie... hi-hi-hi");
+        var withOriginal = MappedException.withDeferredDetails("Deferred", () -> "Supplied", originalException);
+        Assertions.assertEquals("Deferred | Supplied | Original: " + originalException, withOriginal.getMessage());
+    }
+
+    @Test
+    void shouldReturnEmptyDetailsWhenTheSupplierProvidesNone(){
+        var testSubject = new TestSubjectException("Nothing", null, () -> null);
+        Assertions.assertFalse(testSubject.getDetails().isPresent());
+    }
+
+    @Test
+    void shouldNotCaptureTheStackTraceWhenTheStacklessFlagIsOn(){
+        var briefPublicMessage = "Lighter";
+        var details = "No stack trace for this one";
+        var testSubject = new TestSubjectException(briefPublicMessage, details, true);
+        Assertions.assertEquals(0, testSubject.getStackTrace().length);
+        Assertions.assertTrue(testSubject.getLinesFromStackTrace(5).isEmpty());
+        Assertions.assertFalse(testSubject.isStackTraceCaptured());
+        Assertions.assertEquals(briefPublicMessage + " | " + details, testSubject.getMessage());
+    }
+
+    @Test
+    void shouldCaptureTheStackTraceWhenTheStacklessFlagIsOff(){
+        var testSubject = new TestSubjectException("Regular", "Stack trace for this one", false);
+        Assertions.assertTrue(testSubject.getStackTrace().length > 0);
+        Assertions.assertTrue(testSubject.isStackTraceCaptured());
+    }
+
+    @Test
+    void shouldHaveNoContextByDefault(){
+        var testSubject = new TestSubjectException("Something went wrong", "Details");
+        Assertions.assertTrue(testSubject.getContext().isEmpty());
+        Assertions.assertTrue(testSubject.getContextValue("tenant").isEmpty());
+        Assertions.assertSame(testSubject.getContext(), new TestSubjectException("Other").getContext());
+    }
+
+    @Test
+    void shouldAddContextWithoutChangingTheMessage(){
+        var testSubject = new TestSubjectException("Something went wrong", "Details")
+                .withContext("tenant", "acme")
+                .withContext("useCase", "CreateCompany");
+        Assertions.assertEquals("acme", testSubject.getContextValue("tenant").orElseThrow());
+        Assertions.assertEquals(2, testSubject.getContext().size());
+        Assertions.assertEquals("Something went wrong | Details", testSubject.getMessage());
+    }
+
+    @Test
+    void shouldReplaceTheOriginalExceptionWithItsSummaryWhenDetached(){
+        var original = new IllegalStateException("Pool exhausted", new java.io.IOException("Broken pipe"));
+        var testSubject = new TestSubjectException("Something went wrong", "Details", original);
+        var message = testSubject.getMessage();
+        var lines = testSubject.getLinesFromStackTraceFromOriginalException(3);
+        Assertions.assertFalse(testSubject.isDetached());
+        Assertions.assertSame(testSubject, testSubject.detach());
+        Assertions.assertTrue(testSubject.isDetached());
+        var summary = (ExceptionSummary) testSubject.getOriginalException().orElseThrow();
+        Assertions.assertEquals(original.toString(), summary.toString());
+        Assertions.assertEquals("java.io.IOException: Broken pipe", summary.getCause().toString());
+        Assertions.assertEquals(lines, testSubject.getLinesFromStackTraceFromOriginalException(3));
+        Assertions.assertEquals(message, new TestSubjectException("Something went wrong", "Details", summary).getMessage());
+        Assertions.assertSame(summary, testSubject.detach().getOriginalException().orElseThrow());
+    }
+
+    @Test
+    void shouldKeepTheMessageOfOriginalsOverridingToStringWhenDetached(){
+        var original = new IllegalStateException("Pool exhausted"){
+            @Override
+            public String toString(){
+                return "Pool of 10 connections exhausted";
+            }
+        };
+        var testSubject = new TestSubjectException("Something went wrong", "Details", original);
+        testSubject.detach();
+        Assertions.assertEquals("Something went wrong | Details | Original: Pool of 10 connections exhausted", testSubject.getMessage());
+    }
+
+    @Test
+    void shouldKeepTheFingerprintWhenDetached(){
+        var original = new IllegalStateException("Pool exhausted");
+        var pair = new TestSubjectException[2];
+        for (var index = 0; index < pair.length; index ++){
+            pair[index] = new TestSubjectException("Something went wrong", "Details", original);
+        }
+        Assertions.assertEquals(pair[0].fingerprint(), pair[1].detach().fingerprint());
+    }
+
+    @Test
+    void shouldResolveTheDetailsWhenDetached(){
+        var calls = new AtomicInteger();
+        var testSubject = new TestSubjectException("Something went wrong", null, () -> "Resolved " + calls.incrementAndGet());
+        testSubject.detach();
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals("Resolved 1", testSubject.getDetails().orElseThrow());
+        Assertions.assertEquals("Something went wrong | Resolved 1", testSubject.getMessage());
+    }
+
+    @Test
+    void shouldSerializeInstancesWithDeferredDetails() throws Exception {
+        var fromSupplier = roundTrip(new TestSubjectException("Something went wrong", null, () -> "Supplied details"));
+        Assertions.assertEquals("Supplied details", fromSupplier.getDetails().orElseThrow());
+        Assertions.assertEquals("Something went wrong | Supplied details", fromSupplier.getMessage());
+        var fromTemplate = roundTrip(MappedException.withDetails("Something went wrong", "Company {}", 42));
+        Assertions.assertEquals("Company 42", fromTemplate.getDetails().orElseThrow());
+    }
+
+    @Test
+    void shouldReleaseTheSupplierOnceTheDetailsAreResolved(){
+        var calls = new AtomicInteger();
+        var testSubject = new TestSubjectException("Something went wrong", null, () -> "Resolved " + calls.incrementAndGet());
+        testSubject.getDetails();
+        testSubject.getDetails();
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldResolveTheDetailsOnceWhenReadConcurrently() throws InterruptedException {
+        for (var round = 0; round < 50; round ++){
+            var calls = new AtomicInteger();
+            var testSubject = new TestSubjectException("Something went wrong", null, () -> "Resolved " + calls.incrementAndGet());
+            var start = new CountDownLatch(1);
+            var failures = new ConcurrentLinkedQueue<Throwable>();
+            var readers = new ArrayList<Thread>();
+            for (var reader = 0; reader < 8; reader ++){
+                readers.add(new Thread(() -> {
+                    try {
+                        start.await();
+                        Assertions.assertEquals("Resolved 1", testSubject.getDetails().orElseThrow());
+                        Assertions.assertEquals("Something went wrong | Resolved 1", testSubject.getMessage());
+                    } catch (Throwable failure){
+                        failures.add(failure);
+                    }
+                }));
+            }
+            readers.forEach(Thread::start);
+            start.countDown();
+            for (var reader : readers){
+                reader.join();
+            }
+            Assertions.assertTrue(failures.isEmpty(), () -> "Failed with " + failures.peek());
+            Assertions.assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    void shouldSerializeInstancesWithContext() throws Exception {
+        var testSubject = new TestSubjectException("Something went wrong");
+        testSubject.withContext("correlationId", "abc-123").withContext("tenant", "acme");
+        var read = roundTrip(testSubject);
+        Assertions.assertEquals(Optional.of("abc-123"), read.getContextValue("correlationId"));
+        Assertions.assertEquals(Optional.of("acme"), read.getContextValue("tenant"));
+    }
+
+    /**
+     * Serializes the exception and reads it back, just like Java
+     * serialization does when exceptions travel through RMI or caches.
+     */
+    static <T extends Throwable> T roundTrip(T exception) throws IOException, ClassNotFoundException {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)){
+            output.writeObject(exception);
+        }
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+            @SuppressWarnings("unchecked")
+            var read = (T) input.readObject();
+            return read;
+        }
+    }
+
     public static class TestSubjectException extends MappedException{
 
         public TestSubjectException(String briefPublicMessage, String details) {
@@ -143,6 +385,25 @@ class MappedExceptionTest {
         public TestSubjectException(String briefPublicMessage, Exception originalException) {
             super(briefPublicMessage, originalException);
         }
+
+        public TestSubjectException(String briefPublicMessage, String details, boolean stackless) {
+            super(briefPublicMessage, details, stackless);
+        }
+
+        public TestSubjectException(String briefPublicMessage, Exception originalException, Supplier<String> detailsSupplier) {
+            super(briefPublicMessage, originalException, detailsSupplier);
+        }
+    }
+
+    public static class CountingToStringException extends RuntimeException{
+
+        private int timesRendered;
+
+        @Override
+        public String toString() {
+            this.timesRendered ++;
+            return "CountingToStringException";
+        }
     }
 
     private List<String> getLines(Exception exception, Integer numberOfLines){
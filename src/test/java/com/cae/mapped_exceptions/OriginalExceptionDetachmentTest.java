@@ -0,0 +1,61 @@
+package com.cae.mapped_exceptions;
+
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+
+@ExtendWith(MockitoExtension.class)
+class OriginalExceptionDetachmentTest {
+
+    @AfterEach
+    void tearDown(){
+        OriginalExceptionDetachment.reset();
+    }
+
+    @Test
+    void shouldKeepOriginalExceptionsByDefault(){
+        var original = new IOException("Broken pipe");
+        var exception = new InternalMappedException("Failed", "While writing", original);
+        Assertions.assertSame(original, exception.getOriginalException().orElseThrow());
+        Assertions.assertFalse(exception.isDetached());
+    }
+
+    @Test
+    void shouldDetachOnConstructionWhenEnabled(){
+        OriginalExceptionDetachment.enableOnConstruct();
+        OriginalExceptionDetachment.setMaxFrames(2);
+        var original = new IOException("Broken pipe");
+        var exception = new InternalMappedException("Failed", "While writing", original);
+        Assertions.assertTrue(exception.isDetached());
+        var summary = (ExceptionSummary) exception.getOriginalException().orElseThrow();
+        Assertions.assertEquals("java.io.IOException", summary.getTypeName());
+        Assertions.assertEquals(2, summary.getStackTrace().length);
+        Assertions.assertEquals("Failed | While writing | Original: java.io.IOException: Broken pipe", exception.getMessage());
+        Assertions.assertEquals(3, exception.getLinesFromStackTraceFromOriginalException(5).size());
+    }
+
+    @Test
+    void shouldKeepTheMessageOfOriginalsOverridingToStringWhenDetachedOnConstruction(){
+        OriginalExceptionDetachment.enableOnConstruct();
+        var original = new IOException("Broken pipe"){
+            @Override
+            public String toString(){
+                return "Broken pipe while writing to 10.0.0.1";
+            }
+        };
+        var exception = new InternalMappedException("Failed", "While writing", original);
+        Assertions.assertTrue(exception.isDetached());
+        Assertions.assertEquals("Failed | While writing | Original: Broken pipe while writing to 10.0.0.1", exception.getMessage());
+    }
+
+    @Test
+    void shouldRejectNegativeFrameBounds(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> OriginalExceptionDetachment.setMaxFrames(-1));
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.cae.mapped_exceptions;
+
+import com.cae.mapped_exceptions.specifics.NotAuthenticatedMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SharedMappedExceptionsTest {
+
+    @Test
+    void shouldGiveTheSameInstanceForTheSameTypeAndMessage(){
+        var first = NotFoundMappedException.shared("Company not found");
+        var second = NotFoundMappedException.shared("Company not found");
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals("Company not found", first.getMessage());
+    }
+
+    @Test
+    void shouldKeepDifferentTypesAndMessagesApart(){
+        var notFound = NotFoundMappedException.shared("Nope");
+        var notAuthenticated = NotAuthenticatedMappedException.shared("Nope");
+        Assertions.assertNotSame(notFound, notAuthenticated);
+        Assertions.assertNotSame(notFound, NotFoundMappedException.shared("Nope, again"));
+    }
+
+    @Test
+    void shouldRefuseContextOnSharedInstances(){
+        var testSubject = NotFoundMappedException.shared("Company not found, with context");
+        Assertions.assertThrows(IllegalStateException.class, () -> testSubject.withContext("tenant", "acme"));
+        Assertions.assertTrue(testSubject.getContext().isEmpty());
+    }
+
+    @Test
+    void shouldGiveImmutableStacklessInstances(){
+        var testSubject = NotFoundMappedException.shared("Company not found, once more");
+        Assertions.assertTrue(testSubject.isImmutable());
+        Assertions.assertFalse(testSubject.isStackTraceCaptured());
+        Assertions.assertEquals(0, testSubject.getStackTrace().length);
+    }
+
+    @Test
+    void shouldRefuseMutationsOfSharedInstances(){
+        var testSubject = NotFoundMappedException.shared("Immutable one");
+        testSubject.addSuppressed(new RuntimeException("Ignored"));
+        testSubject.setStackTrace(new StackTraceElement[]{new StackTraceElement("some.Type", "method", "Type.java", 1)});
+        testSubject.fillInStackTrace();
+        Assertions.assertEquals(0, testSubject.getSuppressed().length);
+        Assertions.assertEquals(0, testSubject.getStackTrace().length);
+        Assertions.assertThrows(IllegalStateException.class, () -> testSubject.initCause(new RuntimeException("Refused")));
+        Assertions.assertNull(testSubject.getCause());
+    }
+
+    @Test
+    void shouldStopCachingPastTheLimitPerType(){
+        for (var index = 0; index < SharedMappedExceptions.MAX_INSTANCES_PER_TYPE; index ++){
+            LimitedException.shared("Message " + index);
+        }
+        var pastTheLimit = LimitedException.shared("One too many");
+        Assertions.assertTrue(pastTheLimit.isImmutable());
+        Assertions.assertNotSame(pastTheLimit, LimitedException.shared("One too many"));
+        Assertions.assertSame(LimitedException.shared("Message 0"), LimitedException.shared("Message 0"));
+    }
+
+    @Test
+    void shouldRefuseMutableInstances(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SharedMappedExceptions.get(LimitedException.class, "Mutable", LimitedException::new));
+    }
+
+    public static class LimitedException extends MappedException{
+
+        public LimitedException(String briefPublicMessage) {
+            super(briefPublicMessage);
+        }
+
+        private LimitedException(String briefPublicMessage, boolean stackless, boolean immutable) {
+            super(briefPublicMessage, stackless, immutable);
+        }
+
+        public static LimitedException shared(String briefPublicMessage){
+            return SharedMappedExceptions.get(LimitedException.class, briefPublicMessage, message -> new LimitedException(message, true, true));
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.cae.mapped_exceptions.classification;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthenticatedMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthorizedMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExceptionClassifierTest {
+
+    @Test
+    void shouldClassifyTheSpecificsTypesIntoTheirCategories(){
+        var testSubject = ExceptionClassifier.http();
+        Assertions.assertEquals(400, testSubject.statusOf(new InputMappedException("Bad input")));
+        Assertions.assertEquals(404, testSubject.statusOf(new NotFoundMappedException("Not found")));
+        Assertions.assertEquals(403, testSubject.statusOf(new NotAuthorizedMappedException("Not authorized")));
+        Assertions.assertEquals(401, testSubject.statusOf(new NotAuthenticatedMappedException("Not authenticated")));
+        Assertions.assertEquals(500, testSubject.statusOf(new InternalMappedException("Oops", "Something broke")));
+        Assertions.assertEquals(MappedExceptionCategory.NOT_FOUND, testSubject.categoryOf(new NotFoundMappedException("Not found")));
+    }
+
+    @Test
+    void shouldClassifyUserDefinedSubtypesByTheirClosestSpecificsType(){
+        var classification = ExceptionClassifier.http().classify(CompanyNotFoundException.class);
+        Assertions.assertEquals(MappedExceptionCategory.NOT_FOUND, classification.getCategory());
+        Assertions.assertEquals(404, classification.getStatus());
+    }
+
+    @Test
+    void shouldUseGrpcStatusesForTheGrpcClassifier(){
+        Assertions.assertEquals(5, ExceptionClassifier.grpc().statusOf(new CompanyNotFoundException()));
+        Assertions.assertEquals(3, ExceptionClassifier.grpc().statusOf(new InputMappedException("Bad input")));
+    }
+
+    @Test
+    void shouldClassifyAnythingElseAsUnmapped(){
+        Assertions.assertEquals(MappedExceptionCategory.UNMAPPED, ExceptionClassifier.http().categoryOf(new IllegalStateException()));
+        Assertions.assertEquals(MappedExceptionCategory.UNMAPPED, ExceptionClassifier.http().categoryOf(new MappedException("Plain")));
+    }
+
+    @Test
+    void shouldHonorTheCategoryAnnotation(){
+        var classification = ExceptionClassifier.http().classify(new QuotaExceededException());
+        Assertions.assertEquals(MappedExceptionCategory.INPUT, classification.getCategory());
+        Assertions.assertEquals(429, classification.getStatus());
+        Assertions.assertEquals(3, ExceptionClassifier.grpc().statusOf(new QuotaExceededException()));
+        Assertions.assertEquals(429, ExceptionClassifier.http().statusOf(new DailyQuotaExceededException()));
+    }
+
+    @Test
+    void shouldLetProgrammaticOverridesWinOverAnnotations(){
+        var testSubject = ExceptionClassifier.http().withOverride(QuotaExceededException.class, MappedExceptionCategory.NOT_AUTHORIZED);
+        Assertions.assertEquals(403, testSubject.statusOf(new DailyQuotaExceededException()));
+        Assertions.assertEquals(429, ExceptionClassifier.http().statusOf(new DailyQuotaExceededException()));
+    }
+
+    @Test
+    void shouldClassifyThirdPartyTypesThroughOverrides(){
+        var testSubject = ExceptionClassifier.http().withOverride(IllegalArgumentException.class, MappedExceptionCategory.INPUT, 422);
+        Assertions.assertEquals(422, testSubject.statusOf(new NumberFormatException()));
+    }
+
+    @Test
+    void shouldMapCategoriesToConfiguredStatuses(){
+        var testSubject = ExceptionClassifier.http().withStatus(MappedExceptionCategory.NOT_AUTHORIZED, 404);
+        Assertions.assertEquals(404, testSubject.statusOf(new NotAuthorizedMappedException("Hidden")));
+        Assertions.assertEquals(403, ExceptionClassifier.http().statusOf(new NotAuthorizedMappedException("Shown")));
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromTheCache(){
+        var testSubject = ExceptionClassifier.http();
+        Assertions.assertSame(testSubject.classify(CompanyNotFoundException.class), testSubject.classify(new CompanyNotFoundException()));
+    }
+
+    public static class CompanyNotFoundException extends NotFoundMappedException{
+
+        public CompanyNotFoundException() {
+            super("Company not found");
+        }
+    }
+
+    @MappedCategory(value = MappedExceptionCategory.INPUT, httpStatus = 429)
+    public static class QuotaExceededException extends MappedException{
+
+        public QuotaExceededException() {
+            super("Quota exceeded");
+        }
+    }
+
+    public static class DailyQuotaExceededException extends QuotaExceededException{ }
+
+}
@@ -0,0 +1,29 @@
+package com.cae.mapped_exceptions.classification;
+
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MappedExceptionCategoryTest {
+
+    @Test
+    void shouldLeaveAbsentPartsOutOfTheMessageOfEveryCategory(){
+        var original = new IllegalStateException();
+        for (var category : MappedExceptionCategory.values()){
+            Assertions.assertEquals("Oops", category.instantiate("Oops", null, null).getMessage(), category.name());
+            Assertions.assertEquals("Oops | Original: " + original, category.instantiate("Oops", null, original).getMessage(), category.name());
+            Assertions.assertEquals("Oops | Broke", category.instantiate("Oops", "Broke", null).getMessage(), category.name());
+        }
+    }
+
+    @Test
+    void shouldInstantiateTheSpecificsTypeOfTheCategory(){
+        var testSubject = MappedExceptionCategory.INTERNAL.instantiate("Oops", null, new IllegalStateException());
+        Assertions.assertInstanceOf(InternalMappedException.class, testSubject);
+        Assertions.assertTrue(testSubject.getDetails().isEmpty());
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.cae.mapped_exceptions.context;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+class DiagnosticContextTest {
+
+    @Test
+    void shouldDeriveContextsWithEntries(){
+        var empty = DiagnosticContext.empty();
+        var context = empty.with("tenant", "acme").with("useCase", "CreateCompany");
+        Assertions.assertTrue(empty.isEmpty());
+        Assertions.assertEquals(2, context.size());
+        Assertions.assertEquals("acme", context.get("tenant").orElseThrow());
+        Assertions.assertTrue(context.get("missing").isEmpty());
+        Assertions.assertEquals("useCase", context.keyAt(1));
+        Assertions.assertEquals("CreateCompany", context.valueAt(1));
+    }
+
+    @Test
+    void shouldReplaceValuesOfExistingKeys(){
+        var context = DiagnosticContext.of("tenant", "acme");
+        Assertions.assertSame(context, context.with("tenant", "acme"));
+        var replaced = context.with("tenant", "globex");
+        Assertions.assertEquals(1, replaced.size());
+        Assertions.assertEquals("globex", replaced.get("tenant").orElseThrow());
+        Assertions.assertEquals("acme", context.get("tenant").orElseThrow());
+    }
+
+    @Test
+    void shouldMergeContexts(){
+        var base = DiagnosticContext.of("tenant", "acme").with("useCase", "CreateCompany");
+        var merged = base.withAll(DiagnosticContext.of("tenant", "globex").with("correlationId", "42"));
+        Assertions.assertEquals(Map.of("tenant", "globex", "useCase", "CreateCompany", "correlationId", "42"), merged.toMap());
+        Assertions.assertSame(base, base.withAll(DiagnosticContext.empty()));
+    }
+
+    @Test
+    void shouldKeepValueSemantics(){
+        Assertions.assertEquals(DiagnosticContext.of("a", "1").with("b", "2"), DiagnosticContext.of("a", "1").with("b", "2"));
+        Assertions.assertEquals("{a=1, b=2}", DiagnosticContext.of("a", "1").with("b", "2").toString());
+        Assertions.assertThrows(NullPointerException.class, () -> DiagnosticContext.of(null, "1"));
+    }
+
+    @Test
+    void shouldBeSerializable() throws Exception {
+        var context = DiagnosticContext.of("a", "1").with("b", "2");
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)){
+            output.writeObject(context);
+        }
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+            Assertions.assertEquals(context, input.readObject());
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.cae.mapped_exceptions.context;
+
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+@ExtendWith(MockitoExtension.class)
+class ThreadLocalContextProviderTest {
+
+    @BeforeEach
+    void setUp(){
+        DiagnosticContexts.setProvider(ThreadLocalContextProvider.instance());
+    }
+
+    @AfterEach
+    void tearDown(){
+        DiagnosticContexts.clearProvider();
+    }
+
+    @Test
+    void shouldPopulateExceptionsCreatedWithinScopes(){
+        try (var tenant = ThreadLocalContextProvider.open("tenant", "acme")){
+            try (var correlation = ThreadLocalContextProvider.open("correlationId", "42")){
+                var exception = new NotFoundMappedException("Company not found");
+                Assertions.assertEquals("acme", exception.getContextValue("tenant").orElseThrow());
+                Assertions.assertEquals("42", exception.getContextValue("correlationId").orElseThrow());
+            }
+            var exception = new NotFoundMappedException("Company not found");
+            Assertions.assertEquals(1, exception.getContext().size());
+        }
+        Assertions.assertNull(ThreadLocalContextProvider.instance().current());
+        Assertions.assertTrue(new NotFoundMappedException("Company not found").getContext().isEmpty());
+    }
+
+    @Test
+    void shouldKeepContextsPerThread() throws InterruptedException {
+        var fromOtherThread = new AtomicReference<DiagnosticContext>();
+        try (var scope = ThreadLocalContextProvider.open(DiagnosticContext.of("tenant", "acme"))){
+            var thread = new Thread(() -> fromOtherThread.set(new NotFoundMappedException("Company not found").getContext()));
+            thread.start();
+            thread.join();
+        }
+        Assertions.assertTrue(fromOtherThread.get().isEmpty());
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.cae.mapped_exceptions.encoding;
+
+import com.cae.mapped_exceptions.ExceptionSummary;
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.context.DiagnosticContext;
+import com.cae.mapped_exceptions.context.DiagnosticContexts;
+import com.cae.mapped_exceptions.observability.ExceptionMetrics;
+import com.cae.mapped_exceptions.specifics.AggregatedInputMappedException;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.InputViolations;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthenticatedMappedException;
+import com.cae.mapped_exceptions.specifics.NotAuthorizedMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryExceptionCodecTest {
+
+    private final BinaryExceptionCodec testSubject = BinaryExceptionCodec.defaults();
+
+    @Test
+    void shouldRebuildTheMatchingSpecificsType(){
+        assertRoundTrip(new InputMappedException("Invalid", "Name is blank"), InputMappedException.class);
+        assertRoundTrip(new NotFoundMappedException("Not found"), NotFoundMappedException.class);
+        assertRoundTrip(new NotAuthorizedMappedException("Forbidden", "Missing role"), NotAuthorizedMappedException.class);
+        assertRoundTrip(new NotAuthenticatedMappedException("Who are you?"), NotAuthenticatedMappedException.class);
+        assertRoundTrip(new InternalMappedException("Failed", "While saving"), InternalMappedException.class);
+        assertRoundTrip(new MappedException("Plain", "Details"), MappedException.class);
+        assertRoundTrip(new AggregatedInputMappedException("Invalid import", InputViolations.create().add("a", "A", "First")), InputMappedException.class);
+    }
+
+    @Test
+    void shouldKeepTheMessageAndTheOriginalExceptionChain(){
+        var exception = new InternalMappedException("Failed", "While saving", new IllegalStateException("Pool exhausted", new SQLException("Timeout")));
+        var decoded = this.testSubject.decode(this.testSubject.encode(exception));
+        Assertions.assertEquals(exception.getMessage(), decoded.getMessage());
+        var original = (ExceptionSummary) decoded.getOriginalException().orElseThrow();
+        Assertions.assertEquals("java.lang.IllegalStateException", original.getTypeName());
+        Assertions.assertEquals("Pool exhausted", original.getMessage());
+        Assertions.assertEquals("java.sql.SQLException: Timeout", original.getCause().toString());
+        Assertions.assertNull(original.getCause().getCause());
+    }
+
+    @Test
+    void shouldKeepBoundedFramesWithoutCapturingLocally(){
+        var exception = new NotFoundMappedException("Not found", "Details");
+        var decoded = BinaryExceptionCodec.defaults().withMaxFrames(3).decode(BinaryExceptionCodec.defaults().withMaxFrames(3).encode(exception));
+        Assertions.assertEquals(3, decoded.getStackTrace().length);
+        for (var index = 0; index < 3; index ++){
+            var frame = exception.getStackTrace()[index];
+            var decodedFrame = decoded.getStackTrace()[index];
+            Assertions.assertEquals(frame.getClassName(), decodedFrame.getClassName());
+            Assertions.assertEquals(frame.getMethodName(), decodedFrame.getMethodName());
+            Assertions.assertEquals(frame.getFileName(), decodedFrame.getFileName());
+            Assertions.assertEquals(frame.getLineNumber(), decodedFrame.getLineNumber());
+        }
+        Assertions.assertTrue(decoded.isStackTraceCaptured());
+        var stackless = this.testSubject.decode(this.testSubject.encode(new NotFoundMappedException("Not found", true)));
+        Assertions.assertEquals(0, stackless.getStackTrace().length);
+    }
+
+    @Test
+    void shouldWriteRepeatedStringsOnce(){
+        var exception = new NotFoundMappedException("Repeated", "Repeated");
+        var encoded = this.testSubject.withMaxFrames(0).encode(exception);
+        Assertions.assertEquals(2 + 1 + 2 + "Repeated".length() + 1 + 1 + 1, encoded.length);
+    }
+
+    @Test
+    void shouldDecodeFromBuffersOfAnyKind(){
+        var exception = new InputMappedException("Inválido", "Nome em branco");
+        var destination = ByteBuffer.allocateDirect(4_096);
+        this.testSubject.encode(exception, destination);
+        destination.flip();
+        var decoded = this.testSubject.decode(destination);
+        Assertions.assertEquals(exception.getMessage(), decoded.getMessage());
+    }
+
+    @Test
+    void shouldNotCountDecodedExceptionsAsLocalCreations(){
+        var encoded = this.testSubject.encode(new NotFoundMappedException("Company not found", "No company under the id 42"));
+        var metrics = ExceptionMetrics.enable();
+        DiagnosticContexts.setProvider(() -> DiagnosticContext.of("requestId", "local"));
+        try {
+            var decoded = this.testSubject.decode(encoded);
+            Assertions.assertEquals(0, metrics.snapshot().getTotalCount());
+            Assertions.assertTrue(decoded.getContextValue("requestId").isEmpty());
+            Assertions.assertTrue(decoded.getCreationNanoTime() < 0);
+        } finally {
+            ExceptionMetrics.disable();
+            DiagnosticContexts.clearProvider();
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownInput(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.testSubject.decode(new byte[]{1, 2, 3}));
+        var encoded = this.testSubject.encode(new NotFoundMappedException("Not found"));
+        encoded[1] = 99;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.testSubject.decode(encoded));
+        var truncated = Arrays.copyOf(this.testSubject.encode(new NotFoundMappedException("Not found")), 6);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.testSubject.decode(truncated));
+    }
+
+    @Test
+    void shouldRejectHostileCounts(){
+        var negativeFrames = new byte[]{(byte) BinaryExceptionCodec.MAGIC, BinaryExceptionCodec.VERSION, 2, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.testSubject.decode(negativeFrames));
+        var hugeFrames = new byte[]{(byte) BinaryExceptionCodec.MAGIC, BinaryExceptionCodec.VERSION, 2, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.testSubject.decode(hugeFrames));
+        var framesOverTheMax = new byte[]{(byte) BinaryExceptionCodec.MAGIC, BinaryExceptionCodec.VERSION, 2, 0, 0, 3, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.testSubject.withMaxFrames(2).decode(framesOverTheMax));
+        var hugeCauses = new byte[]{(byte) BinaryExceptionCodec.MAGIC, BinaryExceptionCodec.VERSION, 2, 0, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.testSubject.decode(hugeCauses));
+        var unknownString = new byte[]{(byte) BinaryExceptionCodec.MAGIC, BinaryExceptionCodec.VERSION, 2, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> this.testSubject.decode(unknownString));
+    }
+
+    @Test
+    void shouldBeSmallerThanJavaSerialization() throws IOException {
+        var exception = new InternalMappedException("Failed", "While saving", new IllegalStateException("Pool exhausted", new SQLException("Timeout")));
+        var serialized = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(serialized)){
+            output.writeObject(exception);
+        }
+        var encoded = this.testSubject.encode(exception);
+        Assertions.assertTrue(encoded.length * 4 < serialized.size(), encoded.length + " vs " + serialized.size());
+    }
+
+    private void assertRoundTrip(MappedException exception, Class<?> expectedType){
+        var decoded = this.testSubject.decode(this.testSubject.encode(exception));
+        Assertions.assertEquals(expectedType, decoded.getClass());
+        Assertions.assertEquals(exception.getBriefPublicMessage(), decoded.getBriefPublicMessage());
+        Assertions.assertEquals(exception.getDetails(), decoded.getDetails());
+        Assertions.assertEquals(exception.getMessage(), decoded.getMessage());
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.cae.mapped_exceptions.encoding;
+
+import com.cae.mapped_exceptions.observability.ExceptionMetricsSnapshot;
+import com.cae.mapped_exceptions.observability.ExceptionStatistics;
+import com.cae.mapped_exceptions.observability.LatencyHistogramSnapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+class ExceptionStatisticsCodecTest {
+
+    private static ExceptionStatistics statistics(){
+        var counts = new long[LatencyHistogramSnapshot.getBucketCount()];
+        counts[3] = 2;
+        counts[40] = 1;
+        var node = ExceptionStatistics.NodeStatistics.of(
+                7,
+                List.of(ExceptionMetricsSnapshot.Entry.of("some.NotFound", "Company not found", 3)),
+                List.of(ExceptionStatistics.SiteCount.of("some.NotFound", "some.Service", "find", -1, 3, 0)),
+                0,
+                Map.of("some.NotFound", LatencyHistogramSnapshot.of(counts, 1_500, 900))
+        );
+        return ExceptionStatistics.ofNodes(Map.of("node-1", node, "node-2", node));
+    }
+
+    @Test
+    void shouldRoundTripTheCaptureOfEveryNode(){
+        var statistics = statistics();
+        var decoded = ExceptionStatisticsCodec.decode(ExceptionStatisticsCodec.encode(statistics));
+        Assertions.assertEquals(statistics, decoded);
+        var node = decoded.getNodes().get("node-2");
+        Assertions.assertEquals(7, node.getVersion());
+        Assertions.assertEquals(-1, node.getSites().get(0).getLineNumber());
+        Assertions.assertEquals(2, node.getLatencies().get("some.NotFound").getCountAt(3));
+    }
+
+    @Test
+    void shouldWriteRepeatedNamesOnce(){
+        var encoded = ExceptionStatisticsCodec.encode(statistics());
+        var occurrences = 0;
+        var name = "some.NotFound".getBytes();
+        for (var index = 0; index + name.length <= encoded.length; index ++){
+            if (Arrays.equals(encoded, index, index + name.length, name, 0, name.length)){
+                occurrences ++;
+            }
+        }
+        Assertions.assertEquals(1, occurrences);
+    }
+
+    @Test
+    void shouldRejectBytesOfNoStatistics(){
+        var encoded = ExceptionStatisticsCodec.encode(statistics());
+        var truncated = Arrays.copyOf(encoded, encoded.length / 2);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatisticsCodec.decode(truncated));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatisticsCodec.decode(new byte[]{1, 2, 3}));
+        var otherVersion = encoded.clone();
+        otherVersion[1] = 9;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatisticsCodec.decode(otherVersion));
+    }
+
+    @Test
+    void shouldRejectHostileCounts(){
+        var hugeNodeCount = new byte[]{(byte) ExceptionStatisticsCodec.MAGIC, ExceptionStatisticsCodec.VERSION, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatisticsCodec.decode(hugeNodeCount));
+        var missingNodeId = new byte[]{(byte) ExceptionStatisticsCodec.MAGIC, ExceptionStatisticsCodec.VERSION, 1, 0, 0, 0, 0, 0, 0};
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatisticsCodec.decode(missingNodeId));
+    }
+
+}
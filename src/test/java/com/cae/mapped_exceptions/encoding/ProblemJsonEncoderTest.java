@@ -0,0 +1,94 @@
+package com.cae.mapped_exceptions.encoding;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.classification.ExceptionClassifier;
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+@ExtendWith(MockitoExtension.class)
+class ProblemJsonEncoderTest {
+
+    @Test
+    void shouldOnlyEncodePublicMembersInThePublicView(){
+        var exception = new NotFoundMappedException("Company not found", "No company under the id 42");
+        var json = encode(ProblemJsonEncoder.publicView(), exception);
+        Assertions.assertEquals("{\"status\":404,\"category\":\"NOT_FOUND\",\"title\":\"Company not found\"}", json);
+    }
+
+    @Test
+    void shouldEncodeTheInternalView(){
+        var exception = new InternalMappedException("Failed", "While saving", new IllegalStateException("Pool exhausted", new SQLException("Timeout")))
+                .withContext("tenant", "acme");
+        var json = encode(ProblemJsonEncoder.internalView(2), exception);
+        Assertions.assertTrue(json.startsWith("{\"status\":500,\"category\":\"INTERNAL\",\"exceptionType\":\"" + InternalMappedException.class.getName() + "\",\"title\":\"Failed\",\"details\":\"While saving\",\"context\":{\"tenant\":\"acme\"},\"stackTrace\":[\""), json);
+        var lines = exception.getLinesFromStackTrace(2);
+        Assertions.assertTrue(json.contains("\"" + lines.get(0) + "\",\"" + lines.get(1) + "\",\"" + lines.get(2) + "\"]"), json);
+        Assertions.assertTrue(json.endsWith(",\"causes\":[{\"type\":\"java.lang.IllegalStateException\",\"message\":\"Pool exhausted\"},{\"type\":\"java.sql.SQLException\",\"message\":\"Timeout\"}]}"), json);
+    }
+
+    @Test
+    void shouldSkipAbsentInternalMembers(){
+        var exception = new NotFoundMappedException("Company not found", true);
+        var json = encode(ProblemJsonEncoder.internalView(), exception);
+        Assertions.assertEquals("{\"status\":404,\"category\":\"NOT_FOUND\",\"exceptionType\":\"" + NotFoundMappedException.class.getName() + "\",\"title\":\"Company not found\"}", json);
+    }
+
+    @Test
+    void shouldEscapeStrings(){
+        var exception = new NotFoundMappedException("Quote \" backslash \\ newline \n tab \t bell \u0007 accent é emoji 😀 lone \uD800");
+        var json = encode(ProblemJsonEncoder.publicView(), exception);
+        Assertions.assertEquals("{\"status\":404,\"category\":\"NOT_FOUND\",\"title\":\"Quote \\\" backslash \\\\ newline \\n tab \\t bell \\u0007 accent é emoji 😀 lone ?\"}", json);
+    }
+
+    @Test
+    void shouldWriteTheSameBytesToBuffersAndStreams() throws IOException {
+        var exception = new InternalMappedException("Failed", "x".repeat(2_000));
+        var encoder = ProblemJsonEncoder.internalView();
+        var stream = new ByteArrayOutputStream();
+        encoder.encode(exception, stream);
+        var buffer = ByteBuffer.allocate(16_384);
+        encoder.encode(exception, buffer);
+        buffer.flip();
+        var fromBuffer = new byte[buffer.remaining()];
+        buffer.get(fromBuffer);
+        Assertions.assertArrayEquals(stream.toByteArray(), fromBuffer);
+        Assertions.assertArrayEquals(stream.toByteArray(), encoder.encodeToBytes(exception));
+    }
+
+    @Test
+    void shouldOverflowBuffersWithoutRoom(){
+        var exception = new NotFoundMappedException("Company not found");
+        Assertions.assertThrows(BufferOverflowException.class, () -> ProblemJsonEncoder.publicView().encode(exception, ByteBuffer.allocate(10)));
+    }
+
+    @Test
+    void shouldUseTheStatusesOfTheClassifier(){
+        var encoder = ProblemJsonEncoder.publicView().withClassifier(ExceptionClassifier.grpc().withStatus(MappedExceptionCategory.NOT_FOUND, 99));
+        Assertions.assertEquals("{\"status\":99,\"category\":\"NOT_FOUND\",\"title\":\"Company not found\"}", encode(encoder, new NotFoundMappedException("Company not found")));
+    }
+
+    @Test
+    void shouldGiveTheSameEncoderForTheDefaultViews(){
+        Assertions.assertSame(ProblemJsonEncoder.publicView(), ProblemJsonEncoder.publicView());
+        Assertions.assertSame(ProblemJsonEncoder.internalView(), ProblemJsonEncoder.internalView());
+        Assertions.assertSame(ProblemJsonEncoder.internalView(), ProblemJsonEncoder.internalView(ProblemJsonEncoder.DEFAULT_STACK_TRACE_LINES));
+        Assertions.assertNotSame(ProblemJsonEncoder.internalView(), ProblemJsonEncoder.internalView(3));
+    }
+
+    private static String encode(ProblemJsonEncoder encoder, MappedException exception){
+        return new String(encoder.encodeToBytes(exception), StandardCharsets.UTF_8);
+    }
+
+}
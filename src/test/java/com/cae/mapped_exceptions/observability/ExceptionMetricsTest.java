@@ -0,0 +1,104 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+
+@ExtendWith(MockitoExtension.class)
+class ExceptionMetricsTest {
+
+    @AfterEach
+    void tearDown(){
+        ExceptionMetrics.disable();
+    }
+
+    @Test
+    void shouldBeOffByDefault(){
+        Assertions.assertNull(ExceptionMetrics.active());
+    }
+
+    @Test
+    void shouldCountCreationsPerTypeAndBriefMessage(){
+        var metrics = ExceptionMetrics.enable();
+        for (var index = 0; index < 3; index ++){
+            new NotFoundMappedException("Company not found");
+        }
+        new NotFoundMappedException("Branch not found", "Details", true);
+        new InputMappedException("Invalid name", "Name is blank");
+        NotFoundMappedException.shared("Shared one");
+        var snapshot = metrics.snapshot();
+        Assertions.assertEquals(3, snapshot.getCount(NotFoundMappedException.class, "Company not found"));
+        Assertions.assertEquals(1, snapshot.getCount(NotFoundMappedException.class, "Branch not found"));
+        Assertions.assertEquals(4, snapshot.getTypeCount(NotFoundMappedException.class));
+        Assertions.assertEquals(1, snapshot.getCount(InputMappedException.class, "Invalid name"));
+        Assertions.assertEquals(5, snapshot.getTotalCount());
+    }
+
+    @Test
+    void shouldNotSeeTheThrowsOfSharedInstances(){
+        var metrics = ExceptionMetrics.enable();
+        for (var index = 0; index < 3; index ++){
+            try {
+                throw NotFoundMappedException.shared("Thrown while shared");
+            } catch (NotFoundMappedException exception){
+                Assertions.assertTrue(exception.isImmutable());
+            }
+        }
+        Assertions.assertEquals(0, metrics.snapshot().getCount(NotFoundMappedException.class, "Thrown while shared"));
+    }
+
+    @Test
+    void shouldResetOnSnapshotAndReset(){
+        var metrics = ExceptionMetrics.enable();
+        new NotFoundMappedException("Company not found");
+        Assertions.assertEquals(1, metrics.snapshotAndReset().getTotalCount());
+        Assertions.assertEquals(0, metrics.snapshot().getTotalCount());
+        new NotFoundMappedException("Company not found");
+        Assertions.assertEquals(1, metrics.snapshot().getCount(NotFoundMappedException.class, "Company not found"));
+    }
+
+    @Test
+    void shouldBucketKeysOverTheBound(){
+        var metrics = ExceptionMetrics.enable(3);
+        for (var index = 0; index < 10; index ++){
+            new NotFoundMappedException("Message " + index);
+        }
+        new InputMappedException("Invalid");
+        var snapshot = metrics.snapshot();
+        Assertions.assertEquals(1, snapshot.getCount(NotFoundMappedException.class, "Message 0"));
+        Assertions.assertEquals(1, snapshot.getCount(NotFoundMappedException.class, "Message 1"));
+        Assertions.assertEquals(8, snapshot.getCount(NotFoundMappedException.class, ExceptionMetrics.OVERFLOW));
+        Assertions.assertEquals(1, snapshot.getCount(ExceptionMetrics.OVERFLOW, ExceptionMetrics.OVERFLOW));
+        Assertions.assertEquals(11, snapshot.getTotalCount());
+    }
+
+    @Test
+    void shouldCountFromManyThreads() throws InterruptedException {
+        var metrics = ExceptionMetrics.enable();
+        var threads = new ArrayList<Thread>();
+        for (var thread = 0; thread < 8; thread ++){
+            threads.add(new Thread(() -> {
+                for (var index = 0; index < 1_000; index ++){
+                    new NotFoundMappedException("Company not found", true);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads){
+            thread.join();
+        }
+        Assertions.assertEquals(8_000, metrics.snapshot().getCount(NotFoundMappedException.class, "Company not found"));
+    }
+
+    @Test
+    void shouldRejectRegistriesWithoutRoom(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionMetrics.enable(0));
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import com.cae.mapped_exceptions.stack_traces.ThrowSite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+@ExtendWith(MockitoExtension.class)
+class ExceptionStatisticsTest {
+
+    @AfterEach
+    void tearDown(){
+        ExceptionMetrics.disable();
+        ThrowSiteProfiler.disable();
+        HandlingLatencies.disable();
+    }
+
+    /**
+     * Runs the workload as if on a node of its own, with fresh registries,
+     * and captures the statistics of that node.
+     */
+    private static ExceptionStatistics runNode(String nodeId, long version, Runnable workload){
+        ExceptionMetrics.enable();
+        ThrowSiteProfiler.enable(ThrowSiteProfiler.DEFAULT_CAPACITY, ThrowSiteProfiler.LIBRARY_FRAMES_EXCLUDED.including(ExceptionStatisticsTest.class.getName()));
+        HandlingLatencies.enable();
+        try {
+            workload.run();
+            return ExceptionStatistics.capture(nodeId, version);
+        } finally {
+            ExceptionMetrics.disable();
+            ThrowSiteProfiler.disable();
+            HandlingLatencies.disable();
+        }
+    }
+
+    private static void throwNotFound(int times){
+        for (var index = 0; index < times; index ++){
+            new NotFoundMappedException("Company not found").markHandled();
+        }
+    }
+
+    private static void throwInput(int times){
+        for (var index = 0; index < times; index ++){
+            new InputMappedException("Invalid name");
+        }
+    }
+
+    private static List<ExceptionStatistics> fleet(){
+        return List.of(
+                runNode("node-1", 1, () -> throwNotFound(3)),
+                runNode("node-2", 1, () -> { throwNotFound(2); throwInput(4); }),
+                runNode("node-3", 1, () -> throwInput(1))
+        );
+    }
+
+    @Test
+    void shouldAddUpTheCountersOfEveryNode(){
+        var merged = ExceptionStatistics.empty();
+        for (var node : fleet()){
+            merged = merged.merge(node);
+        }
+        Assertions.assertEquals(List.of("node-1", "node-2", "node-3"), new ArrayList<>(merged.getNodeIds()));
+        Assertions.assertEquals(5, merged.getCount(NotFoundMappedException.class, "Company not found"));
+        Assertions.assertEquals(5, merged.getCount(InputMappedException.class, "Invalid name"));
+        Assertions.assertEquals(10, merged.getTotalCount());
+        Assertions.assertEquals(5, merged.getCounters().getTypeCount(NotFoundMappedException.class));
+    }
+
+    @Test
+    void shouldMergeTheLatenciesOfEveryNode(){
+        var merged = ExceptionStatistics.empty();
+        for (var node : fleet()){
+            merged = merged.merge(node);
+        }
+        Assertions.assertEquals(5, merged.getLatencies(NotFoundMappedException.class).getTotalCount());
+        Assertions.assertEquals(0, merged.getLatencies(InputMappedException.class).getTotalCount());
+    }
+
+    @Test
+    void shouldAddUpTheTopSitesOfEveryNode(){
+        var merged = ExceptionStatistics.empty();
+        for (var node : fleet()){
+            merged = merged.merge(node);
+        }
+        var sites = merged.topSites(10);
+        Assertions.assertEquals(2, sites.size());
+        for (var site : sites){
+            Assertions.assertEquals(5, site.getCount());
+            Assertions.assertEquals(0, site.getError());
+            Assertions.assertEquals(ExceptionStatisticsTest.class.getName(), site.getClassName());
+        }
+        Assertions.assertEquals(1, merged.topSites(1).size());
+    }
+
+    @Test
+    void shouldBoundTheCountsOfSitesLeftOutByANode(){
+        var profiler = ThrowSiteProfiler.create(16, ThrowSiteProfiler.JDK_FRAMES_EXCLUDED);
+        var frequent = new ThrowSite(NotFoundMappedException.class, "Service", "find", 10);
+        var rare = new ThrowSite(InputMappedException.class, "Service", "validate", 20);
+        for (var index = 0; index < 5; index ++){
+            profiler.record(frequent);
+        }
+        profiler.record(rare);
+        var first = ExceptionStatistics.of("node-1", 1, new ExceptionMetricsSnapshot(List.of()), profiler.topK(2), 1, Map.of());
+        var second = ExceptionStatistics.of("node-2", 1, new ExceptionMetricsSnapshot(List.of()), List.of(), 1, Map.of());
+        var rareOnly = ThrowSiteProfiler.create(16, ThrowSiteProfiler.JDK_FRAMES_EXCLUDED);
+        rareOnly.record(rare);
+        var third = ExceptionStatistics.of("node-3", 1, new ExceptionMetricsSnapshot(List.of()), rareOnly.topK(1), 1, Map.of());
+        var sites = first.merge(second).merge(third).topSites(10);
+        Assertions.assertEquals("find", sites.get(0).getMethodName());
+        Assertions.assertEquals(5, sites.get(0).getCount());
+        Assertions.assertEquals("validate", sites.get(1).getMethodName());
+        Assertions.assertEquals(2, sites.get(1).getCount());
+        Assertions.assertEquals(1, sites.get(1).getError());
+        Assertions.assertEquals(1, sites.get(1).getGuaranteedCount());
+    }
+
+    @Test
+    void shouldMergeRegardlessOfOrderAndGrouping(){
+        var nodes = fleet();
+        var first = nodes.get(0);
+        var second = nodes.get(1);
+        var third = nodes.get(2);
+        Assertions.assertEquals(first.merge(second), second.merge(first));
+        Assertions.assertEquals(first.merge(second).merge(third), first.merge(second.merge(third)));
+        Assertions.assertEquals(third.merge(first).merge(second), first.merge(second).merge(third));
+        Assertions.assertEquals(first, first.merge(ExceptionStatistics.empty()));
+        Assertions.assertEquals(first, ExceptionStatistics.empty().merge(first));
+    }
+
+    @Test
+    void shouldIgnoreCapturesMergedTwice(){
+        var nodes = fleet();
+        var merged = nodes.get(0).merge(nodes.get(1));
+        Assertions.assertEquals(merged, merged.merge(merged));
+        Assertions.assertEquals(merged, merged.merge(nodes.get(1)));
+    }
+
+    @Test
+    void shouldKeepTheLatestCaptureOfEachNode(){
+        ExceptionMetrics.enable();
+        throwNotFound(2);
+        var older = ExceptionStatistics.capture("node-1", 1);
+        throwNotFound(3);
+        var newer = ExceptionStatistics.capture("node-1", 2);
+        Assertions.assertEquals(5, older.merge(newer).getTotalCount());
+        Assertions.assertEquals(5, newer.merge(older).getTotalCount());
+        Assertions.assertEquals(2, older.merge(newer).getVersion("node-1"));
+        Assertions.assertEquals(-1, older.getVersion("node-2"));
+    }
+
+    @Test
+    void shouldPickTheSameCaptureOfConflictingOnesWhateverTheOrder(){
+        var first = ExceptionStatistics.of("node-1", 1, new ExceptionMetricsSnapshot(List.of(new ExceptionMetricsSnapshot.Entry("A", "a", 1))), List.of(), 0, Map.of());
+        var second = ExceptionStatistics.of("node-1", 1, new ExceptionMetricsSnapshot(List.of(new ExceptionMetricsSnapshot.Entry("A", "a", 2))), List.of(), 0, Map.of());
+        Assertions.assertEquals(first.merge(second), second.merge(first));
+    }
+
+    @Test
+    void shouldPickTheSameCaptureOfOnesDifferingOnlyInTheirSiteCounts(){
+        var entries = List.of(new ExceptionMetricsSnapshot.Entry("A", "a", 1));
+        var first = ExceptionStatistics.ofNodes(Map.of("node-1", ExceptionStatistics.NodeStatistics.of(1, entries, List.of(ExceptionStatistics.SiteCount.of("A", "some.Type", "method", 10, 1, 0)), 0, Map.of())));
+        var second = ExceptionStatistics.ofNodes(Map.of("node-1", ExceptionStatistics.NodeStatistics.of(1, entries, List.of(ExceptionStatistics.SiteCount.of("A", "some.Type", "method", 10, 5, 2)), 0, Map.of())));
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertEquals(first.merge(second), second.merge(first));
+    }
+
+    @Test
+    void shouldConvergeWhenGossipedInAnyOrder(){
+        var captures = new ArrayList<ExceptionStatistics>();
+        for (var node = 0; node < 6; node ++){
+            var times = node + 1;
+            captures.add(runNode("node-" + node, 1, () -> throwNotFound(times)));
+        }
+        var expected = captures.stream().reduce(ExceptionStatistics.empty(), ExceptionStatistics::merge);
+        var random = new Random(42);
+        var views = new ArrayList<>(captures);
+        for (var round = 0; round < 200; round ++){
+            var from = random.nextInt(views.size());
+            var to = random.nextInt(views.size());
+            views.set(to, views.get(to).merge(views.get(from)));
+        }
+        for (var view : views){
+            Assertions.assertEquals(expected, view.merge(expected));
+        }
+        Assertions.assertEquals(21, expected.getTotalCount());
+    }
+
+    @Test
+    void shouldRoundTripThroughBytes(){
+        var merged = fleet().stream().reduce(ExceptionStatistics.empty(), ExceptionStatistics::merge);
+        var encoded = merged.toBytes();
+        var decoded = ExceptionStatistics.fromBytes(encoded);
+        Assertions.assertEquals(merged, decoded);
+        Assertions.assertEquals(merged.topSites(10).get(0).getCount(), decoded.topSites(10).get(0).getCount());
+        Assertions.assertEquals(merged.getLatencies(), decoded.getLatencies());
+        Assertions.assertTrue(encoded.length < 1_024, "Encoded into " + encoded.length + " bytes");
+    }
+
+    @Test
+    void shouldRejectBytesOfNoStatistics(){
+        var encoded = fleet().get(0).toBytes();
+        var truncated = Arrays.copyOf(encoded, encoded.length / 2);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatistics.fromBytes(truncated));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatistics.fromBytes(new byte[]{1, 2, 3}));
+        var otherVersion = encoded.clone();
+        otherVersion[1] = 9;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatistics.fromBytes(otherVersion));
+    }
+
+    @Test
+    void shouldRejectNegativeVersions(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionStatistics.capture("node-1", -1));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class FlightRecorderEventsTest {
+
+    @Test
+    void shouldBeAvailableWhenTheRuntimeHasTheJfrModule(){
+        Assertions.assertEquals(ModuleLayer.boot().findModule("jdk.jfr").isPresent(), FlightRecorderEvents.isAvailable());
+    }
+
+    @Test
+    void shouldStartNoRenderingWhileTheEventIsDisabled(){
+        Assertions.assertNull(FlightRecorderEvents.startRendering());
+        Assertions.assertDoesNotThrow(() -> FlightRecorderEvents.endRendering(null, new NotFoundMappedException("Company not found"), 5));
+    }
+
+    @Test
+    void shouldForwardTheEventsToJfr() throws IOException {
+        var exception = new NotFoundMappedException("Company not found");
+        List<RecordedEvent> events;
+        try (var recording = new Recording()){
+            recording.enable(MappedExceptionCreatedEvent.NAME);
+            recording.enable(MappedExceptionRenderedEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            FlightRecorderEvents.emitCreated(exception);
+            FlightRecorderEvents.endRendering(FlightRecorderEvents.startRendering(), exception, FlightRecorderEvents.FULL_RENDER);
+            recording.stop();
+            events = MappedExceptionCreatedEventTest.readEvents(recording, MappedExceptionCreatedEvent.NAME);
+            events.addAll(MappedExceptionCreatedEventTest.readEvents(recording, MappedExceptionRenderedEvent.NAME));
+        }
+        Assertions.assertEquals(2, events.size());
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class HandlingLatenciesTest {
+
+    @AfterEach
+    void tearDown(){
+        HandlingLatencies.disable();
+    }
+
+    @Test
+    void shouldBeOffByDefault(){
+        Assertions.assertNull(HandlingLatencies.active());
+        var exception = new NotFoundMappedException("Company not found");
+        Assertions.assertEquals(-1, exception.getCreationNanoTime());
+        Assertions.assertEquals(-1, exception.getCreatingThreadId());
+        Assertions.assertEquals(-1, exception.markHandled());
+        Assertions.assertFalse(exception.isHandled());
+    }
+
+    @Test
+    void shouldKeepCreationTimeAndThreadWhileEnabled(){
+        HandlingLatencies.enable();
+        var before = System.nanoTime();
+        var exception = new NotFoundMappedException("Company not found");
+        Assertions.assertTrue(exception.getCreationNanoTime() >= before);
+        Assertions.assertEquals(Thread.currentThread().getId(), exception.getCreatingThreadId());
+    }
+
+    @Test
+    void shouldRecordOnlyTheFirstHandling(){
+        var latencies = HandlingLatencies.enable();
+        var exception = new NotFoundMappedException("Company not found");
+        var elapsed = exception.markHandled();
+        Assertions.assertTrue(elapsed >= 0);
+        Assertions.assertTrue(exception.isHandled());
+        Assertions.assertEquals(-1, exception.markHandled());
+        var snapshot = latencies.snapshot().get(NotFoundMappedException.class.getName());
+        Assertions.assertEquals(1, snapshot.getTotalCount());
+    }
+
+    @Test
+    void shouldKeepHistogramsPerType(){
+        var latencies = HandlingLatencies.enable();
+        new NotFoundMappedException("Company not found").markHandled();
+        new NotFoundMappedException("Branch not found").markHandled();
+        new InputMappedException("Invalid name").markHandled();
+        new InputMappedException("Never handled");
+        var snapshots = latencies.snapshot();
+        Assertions.assertEquals(2, snapshots.get(NotFoundMappedException.class.getName()).getTotalCount());
+        Assertions.assertEquals(1, snapshots.get(InputMappedException.class.getName()).getTotalCount());
+        Assertions.assertFalse(snapshots.containsKey(HandlingLatencies.OVERFLOW));
+    }
+
+    @Test
+    void shouldSkipSharedInstances(){
+        HandlingLatencies.enable();
+        Assertions.assertEquals(-1, NotFoundMappedException.shared("Shared one").markHandled());
+    }
+
+    @Test
+    void shouldBucketTypesOverTheBound(){
+        var latencies = HandlingLatencies.enable(1);
+        latencies.record(NotFoundMappedException.class, 100);
+        latencies.record(InputMappedException.class, 200);
+        latencies.record(IllegalStateException.class, 300);
+        var snapshots = latencies.snapshot();
+        Assertions.assertEquals(1, snapshots.get(NotFoundMappedException.class.getName()).getTotalCount());
+        Assertions.assertEquals(2, snapshots.get(HandlingLatencies.OVERFLOW).getTotalCount());
+    }
+
+    @Test
+    void shouldResetOnSnapshotAndReset(){
+        var latencies = HandlingLatencies.enable();
+        latencies.record(NotFoundMappedException.class, 100);
+        Assertions.assertEquals(1, latencies.snapshotAndReset().size());
+        Assertions.assertTrue(latencies.snapshot().isEmpty());
+    }
+
+    @Test
+    void shouldRejectNoRoomForTypes(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HandlingLatencies.enable(0));
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.cae.mapped_exceptions.observability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class LatencyHistogramSnapshotTest {
+
+    private static LatencyHistogramSnapshot snapshotOf(long... values){
+        var histogram = new LatencyHistogram();
+        for (var value : values){
+            histogram.record(value);
+        }
+        return histogram.snapshot();
+    }
+
+    @Test
+    void shouldReadPercentilesWithinTheBucketPrecision(){
+        var values = new long[1000];
+        for (var index = 0; index < values.length; index ++){
+            values[index] = (index + 1) * 1_000L;
+        }
+        var snapshot = snapshotOf(values);
+        assertClose(500_000, snapshot.getValueAtPercentile(50));
+        assertClose(990_000, snapshot.getValueAtPercentile(99));
+        Assertions.assertEquals(1_000_000, snapshot.getValueAtPercentile(100));
+        assertClose(1_000, snapshot.getValueAtPercentile(0));
+    }
+
+    private static void assertClose(long expected, long actual){
+        Assertions.assertTrue(actual >= expected && actual - expected <= expected / LatencyHistogram.SUB_BUCKETS, "Expected about " + expected + ", got " + actual);
+    }
+
+    @Test
+    void shouldReadZeroWhenEmpty(){
+        var empty = LatencyHistogramSnapshot.empty();
+        Assertions.assertEquals(0, empty.getTotalCount());
+        Assertions.assertEquals(0, empty.getValueAtPercentile(99));
+        Assertions.assertEquals(0, empty.getMean());
+    }
+
+    @Test
+    void shouldRejectPercentilesOutOfRange(){
+        var snapshot = snapshotOf(10);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(101));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(-1));
+    }
+
+    @Test
+    void shouldMergeAsIfRecordedIntoOneHistogram(){
+        var merged = snapshotOf(10, 2_000).merge(snapshotOf(50_000, 7));
+        Assertions.assertEquals(snapshotOf(10, 2_000, 50_000, 7), merged);
+        Assertions.assertEquals(4, merged.getTotalCount());
+        Assertions.assertEquals(50_000, merged.getMax());
+    }
+
+    @Test
+    void shouldMergeRegardlessOfOrder(){
+        var first = snapshotOf(1, 2, 3);
+        var second = snapshotOf(1_000_000);
+        var third = snapshotOf(500, 500);
+        Assertions.assertEquals(first.merge(second), second.merge(first));
+        Assertions.assertEquals(first.merge(second).merge(third), first.merge(second.merge(third)));
+        Assertions.assertEquals(first, first.merge(LatencyHistogramSnapshot.empty()));
+    }
+
+}
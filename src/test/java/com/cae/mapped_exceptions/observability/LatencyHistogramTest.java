@@ -0,0 +1,90 @@
+package com.cae.mapped_exceptions.observability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+
+@ExtendWith(MockitoExtension.class)
+class LatencyHistogramTest {
+
+    @Test
+    void shouldKeepSmallValuesExact(){
+        for (var value = 0; value < 128; value ++){
+            Assertions.assertEquals(value, LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value)));
+        }
+    }
+
+    @Test
+    void shouldKeepTheRelativeErrorBounded(){
+        for (var value = 128L; value < LatencyHistogram.MAX_TRACKABLE_NANOS; value = value * 3 / 2 + 7){
+            var highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+            Assertions.assertTrue(highest >= value);
+            Assertions.assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS, "Too coarse for " + value);
+        }
+    }
+
+    @Test
+    void shouldHaveContiguousBuckets(){
+        for (var index = 1; index < LatencyHistogram.BUCKETS; index ++){
+            var lowest = LatencyHistogram.highestValueOf(index - 1) + 1;
+            Assertions.assertEquals(index, LatencyHistogram.indexOf(lowest));
+            Assertions.assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.highestValueOf(index)));
+        }
+        Assertions.assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(LatencyHistogram.MAX_TRACKABLE_NANOS));
+    }
+
+    @Test
+    void shouldRecordCountSumAndMax(){
+        var histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.record(300);
+        histogram.record(-5);
+        var snapshot = histogram.snapshot();
+        Assertions.assertEquals(3, snapshot.getTotalCount());
+        Assertions.assertEquals(300, snapshot.getMax());
+        Assertions.assertEquals(400.0 / 3, snapshot.getMean(), 0.001);
+    }
+
+    @Test
+    void shouldClampValuesOverTheTrackableRange(){
+        var histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        var snapshot = histogram.snapshot();
+        Assertions.assertEquals(LatencyHistogram.MAX_TRACKABLE_NANOS, snapshot.getMax());
+        Assertions.assertEquals(1, snapshot.getCountAt(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    void shouldResetOnSnapshotAndReset(){
+        var histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        Assertions.assertEquals(1, histogram.snapshotAndReset().getTotalCount());
+        var afterReset = histogram.snapshot();
+        Assertions.assertEquals(0, afterReset.getTotalCount());
+        Assertions.assertEquals(0, afterReset.getMax());
+    }
+
+    @Test
+    void shouldNotLoseRecordsUnderContention() throws InterruptedException {
+        var histogram = new LatencyHistogram();
+        var threads = new ArrayList<Thread>();
+        for (var thread = 0; thread < 4; thread ++){
+            threads.add(new Thread(() -> {
+                for (var value = 0; value < 10_000; value ++){
+                    histogram.record(value);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads){
+            thread.join();
+        }
+        var snapshot = histogram.snapshot();
+        Assertions.assertEquals(40_000, snapshot.getTotalCount());
+        Assertions.assertEquals(9_999, snapshot.getMax());
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ExtendWith(MockitoExtension.class)
+class MappedExceptionCreatedEventTest {
+
+    @Test
+    void shouldEmitCreationsToRecordingsWhichEnableIt() throws IOException {
+        List<RecordedEvent> events;
+        try (var recording = new Recording()){
+            recording.enable(MappedExceptionCreatedEvent.NAME);
+            recording.start();
+            new NotFoundMappedException("Company not found", "Nothing under the id 42");
+            new NotFoundMappedException("Branch not found", true);
+            recording.stop();
+            events = readEvents(recording, MappedExceptionCreatedEvent.NAME);
+        }
+        Assertions.assertEquals(2, events.size());
+        var captured = events.stream().filter(event -> event.getString("briefPublicMessage").equals("Company not found")).findFirst().orElseThrow();
+        Assertions.assertEquals(NotFoundMappedException.class.getName(), captured.getClass("exceptionType").getName());
+        Assertions.assertTrue(captured.getBoolean("stackTraceCaptured"));
+        var stackless = events.stream().filter(event -> event.getString("briefPublicMessage").equals("Branch not found")).findFirst().orElseThrow();
+        Assertions.assertFalse(stackless.getBoolean("stackTraceCaptured"));
+    }
+
+    @Test
+    void shouldBeDisabledByDefault() throws IOException {
+        List<RecordedEvent> events;
+        try (var recording = new Recording()){
+            recording.start();
+            new NotFoundMappedException("Company not found");
+            recording.stop();
+            events = readEvents(recording, MappedExceptionCreatedEvent.NAME);
+        }
+        Assertions.assertTrue(events.isEmpty());
+    }
+
+    static List<RecordedEvent> readEvents(Recording recording, String eventName) throws IOException {
+        var file = Files.createTempFile("mapped-exceptions", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(eventName))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class MappedExceptionRenderedEventTest {
+
+    @Test
+    void shouldEmitRendersToRecordingsWhichEnableIt() throws IOException {
+        var exception = new RenderedException("Failed", "While saving");
+        List<RecordedEvent> events;
+        try (var recording = new Recording()){
+            recording.enable(MappedExceptionRenderedEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            exception.getLinesFromStackTrace(5);
+            exception.getFullStackTraceAsString();
+            recording.stop();
+            events = MappedExceptionCreatedEventTest.readEvents(recording, MappedExceptionRenderedEvent.NAME);
+        }
+        Assertions.assertEquals(2, events.size());
+        var lines = events.stream().filter(event -> event.getInt("linesRequested") == 5).findFirst().orElseThrow();
+        Assertions.assertEquals(RenderedException.class.getName(), lines.getClass("exceptionType").getName());
+        Assertions.assertEquals("Failed", lines.getString("briefPublicMessage"));
+        Assertions.assertTrue(lines.getBoolean("stackTraceCaptured"));
+        Assertions.assertFalse(lines.getDuration().isNegative());
+        Assertions.assertTrue(events.stream().anyMatch(event -> event.getInt("linesRequested") == MappedExceptionRenderedEvent.FULL_RENDER));
+    }
+
+    @Test
+    void shouldGiveNoEventWhileDisabled(){
+        Assertions.assertNull(MappedExceptionRenderedEvent.start());
+    }
+
+    static class RenderedException extends InternalMappedException {
+
+        RenderedException(String briefPublicMessage, String details){
+            super(briefPublicMessage, details);
+        }
+
+        @Override
+        public String getFullStackTraceAsString(){
+            return super.getFullStackTraceAsString();
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.cae.mapped_exceptions.observability;
+
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+import com.cae.mapped_exceptions.results.MappedResult;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.InputViolations;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import com.cae.mapped_exceptions.stack_traces.FrameFilter;
+import com.cae.mapped_exceptions.stack_traces.ThrowSite;
+import com.cae.mapped_exceptions.translation.ExceptionTranslator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+@ExtendWith(MockitoExtension.class)
+class ThrowSiteProfilerTest {
+
+    @AfterEach
+    void tearDown(){
+        ThrowSiteProfiler.disable();
+    }
+
+    // This test lives in the package of the library, which the default
+    // filter excludes, so it has to include itself back.
+    private static final FrameFilter TEST_FRAMES_INCLUDED = ThrowSiteProfiler.LIBRARY_FRAMES_EXCLUDED.including(ThrowSiteProfilerTest.class.getName());
+
+    @Test
+    void shouldTrackTheSitesCreatingTheMostExceptions(){
+        var profiler = ThrowSiteProfiler.enable(ThrowSiteProfiler.DEFAULT_CAPACITY, TEST_FRAMES_INCLUDED);
+        for (var index = 0; index < 30; index ++){
+            this.failToSave();
+        }
+        for (var index = 0; index < 10; index ++){
+            this.failToFind();
+        }
+        NotFoundMappedException.shared("Shared one");
+        var top = profiler.topK(2);
+        Assertions.assertEquals(2, top.size());
+        Assertions.assertEquals(InternalMappedException.class, top.get(0).getSite().getExceptionType());
+        Assertions.assertEquals(ThrowSiteProfilerTest.class.getName(), top.get(0).getSite().getClassName());
+        Assertions.assertEquals("failToSave", top.get(0).getSite().getMethodName());
+        Assertions.assertEquals(30, top.get(0).getCount());
+        Assertions.assertEquals(0, top.get(0).getError());
+        Assertions.assertEquals("failToFind", top.get(1).getSite().getMethodName());
+        Assertions.assertEquals(10, top.get(1).getCount());
+        Assertions.assertEquals(40, profiler.getTotalCount());
+    }
+
+    @Test
+    void shouldExcludeTheFramesOfTheLibraryByDefault(){
+        Assertions.assertFalse(ThrowSiteProfiler.LIBRARY_FRAMES_EXCLUDED.accepts(ExceptionTranslator.class.getName()));
+        Assertions.assertFalse(ThrowSiteProfiler.LIBRARY_FRAMES_EXCLUDED.accepts(MappedResult.class.getName()));
+        Assertions.assertFalse(ThrowSiteProfiler.LIBRARY_FRAMES_EXCLUDED.accepts("java.lang.Thread"));
+        Assertions.assertTrue(ThrowSiteProfiler.LIBRARY_FRAMES_EXCLUDED.accepts("com.acme.CompanyService"));
+    }
+
+    @Test
+    void shouldAttributeExceptionsCreatedByTheLibraryToTheCaller(){
+        var profiler = ThrowSiteProfiler.enable(ThrowSiteProfiler.DEFAULT_CAPACITY, TEST_FRAMES_INCLUDED);
+        var translator = ExceptionTranslator.create().withFallback(MappedExceptionCategory.INTERNAL, "Unexpected failure");
+        translator.translate(new IllegalStateException("Pool exhausted"));
+        var failure = MappedResult.<String>failure(MappedExceptionCategory.NOT_FOUND, "Company not found");
+        try {
+            failure.orElseThrow();
+        } catch (NotFoundMappedException expected){
+            Assertions.assertEquals("Company not found", expected.getBriefPublicMessage());
+        }
+        var violations = InputViolations.create().add("name", "BLANK", "Name is blank");
+        try {
+            violations.throwIfAny("Invalid company");
+        } catch (InputMappedException expected){
+            Assertions.assertEquals("Invalid company", expected.getBriefPublicMessage());
+        }
+        var top = profiler.topK(3);
+        Assertions.assertEquals(3, top.size());
+        for (var hitter : top){
+            Assertions.assertEquals(ThrowSiteProfilerTest.class.getName(), hitter.getSite().getClassName());
+            Assertions.assertEquals("shouldAttributeExceptionsCreatedByTheLibraryToTheCaller", hitter.getSite().getMethodName());
+        }
+    }
+
+    @Test
+    void shouldSkipFramesWhichAreNotFromTheApplication(){
+        var profiler = ThrowSiteProfiler.enable(8, FrameFilter.none().excluding(ThrowSiteProfilerTest.class.getName()));
+        this.failToSave();
+        var site = profiler.topK(1).get(0).getSite();
+        Assertions.assertNotEquals(ThrowSiteProfilerTest.class.getName(), site.getClassName());
+    }
+
+    @Test
+    void shouldKeepCountsWithinTheErrorBoundsWithFixedMemory(){
+        var profiler = ThrowSiteProfiler.create(16, FrameFilter.none());
+        var random = new Random(42);
+        var trueCounts = new HashMap<ThrowSite, Long>();
+        var heavy = new ArrayList<ThrowSite>();
+        for (var index = 0; index < 3; index ++){
+            heavy.add(site("heavy" + index));
+        }
+        for (var index = 0; index < 100_000; index ++){
+            var site = random.nextInt(10) < 3? heavy.get(random.nextInt(3)) : site("light" + random.nextInt(50_000));
+            profiler.record(site);
+            trueCounts.merge(site, 1L, Long::sum);
+        }
+        var top = profiler.topK(3);
+        Assertions.assertTrue(top.stream().allMatch(hitter -> heavy.contains(hitter.getSite())), top.toString());
+        var maxError = profiler.getMaxError();
+        for (var hitter : profiler.topK(Integer.MAX_VALUE)){
+            var trueCount = trueCounts.get(hitter.getSite());
+            Assertions.assertTrue(hitter.getCount() >= trueCount, hitter.toString());
+            Assertions.assertTrue(hitter.getGuaranteedCount() <= trueCount, hitter.toString());
+            Assertions.assertTrue(hitter.getError() <= maxError, hitter.toString());
+        }
+        Assertions.assertTrue(profiler.topK(Integer.MAX_VALUE).size() <= profiler.getMaxTrackedSites());
+    }
+
+    @Test
+    void shouldRecordFromManyThreads() throws InterruptedException {
+        var profiler = ThrowSiteProfiler.create(8, FrameFilter.none());
+        var threads = new ArrayList<Thread>();
+        for (var thread = 0; thread < 8; thread ++){
+            threads.add(new Thread(() -> {
+                for (var index = 0; index < 10_000; index ++){
+                    profiler.record(site("hot"));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads){
+            thread.join();
+        }
+        var top = profiler.topK(1).get(0);
+        Assertions.assertEquals(80_000, top.getCount());
+        Assertions.assertEquals(0, top.getError());
+        profiler.reset();
+        Assertions.assertEquals(0, profiler.getTotalCount());
+        Assertions.assertTrue(profiler.topK(1).isEmpty());
+    }
+
+    @Test
+    void shouldRejectProfilersWithoutRoom(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ThrowSiteProfiler.create(0, FrameFilter.none()));
+    }
+
+    private void failToSave(){
+        new InternalMappedException("Failed to save", "Details");
+    }
+
+    private void failToFind(){
+        new NotFoundMappedException("Not found", true);
+    }
+
+    private static ThrowSite site(String methodName){
+        return new ThrowSite(InternalMappedException.class, "com.example.Service", methodName, 1);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.cae.mapped_exceptions.reporting;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedRingBufferTest {
+
+    @Test
+    void shouldRoundTheCapacityUpToAPowerOfTwo(){
+        Assertions.assertEquals(1, new BoundedRingBuffer<String>(1).capacity());
+        Assertions.assertEquals(8, new BoundedRingBuffer<String>(5).capacity());
+        Assertions.assertEquals(8, new BoundedRingBuffer<String>(8).capacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BoundedRingBuffer<String>(0));
+    }
+
+    @Test
+    void shouldKeepTheOrderOfTheElements(){
+        var buffer = new BoundedRingBuffer<Integer>(4);
+        for (var round = 0; round < 3; round ++){
+            for (var index = 0; index < 4; index ++){
+                Assertions.assertTrue(buffer.offer(index));
+            }
+            for (var index = 0; index < 4; index ++){
+                Assertions.assertEquals(index, buffer.poll());
+            }
+            Assertions.assertNull(buffer.poll());
+        }
+    }
+
+    @Test
+    void shouldRefuseElementsWhenFull(){
+        var buffer = new BoundedRingBuffer<String>(2);
+        Assertions.assertTrue(buffer.offer("first"));
+        Assertions.assertTrue(buffer.offer("second"));
+        Assertions.assertFalse(buffer.offer("third"));
+        Assertions.assertEquals("first", buffer.poll());
+        Assertions.assertTrue(buffer.offer("third"));
+    }
+
+    @Test
+    void shouldTellWhetherItIsEmpty(){
+        var buffer = new BoundedRingBuffer<String>(2);
+        Assertions.assertTrue(buffer.isEmpty());
+        buffer.offer("first");
+        Assertions.assertFalse(buffer.isEmpty());
+        buffer.poll();
+        Assertions.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void shouldNotLoseNorDuplicateElementsOfConcurrentProducers(){
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            var buffer = new BoundedRingBuffer<Integer>(64);
+            var producers = new ArrayList<Thread>();
+            for (var producer = 0; producer < 4; producer ++){
+                var offset = producer * 10_000;
+                var thread = new Thread(() -> {
+                    for (var index = 0; index < 10_000; index ++){
+                        while (!buffer.offer(offset + index)){
+                            Thread.yield();
+                        }
+                    }
+                });
+                thread.setDaemon(true);
+                producers.add(thread);
+            }
+            producers.forEach(Thread::start);
+            var taken = new HashSet<Integer>();
+            while (taken.size() < 40_000){
+                var element = buffer.poll();
+                if (element == null){
+                    Thread.yield();
+                }
+                else {
+                    Assertions.assertTrue(taken.add(element), "Duplicated " + element);
+                }
+            }
+            for (var producer : producers){
+                producer.join();
+            }
+            Assertions.assertNull(buffer.poll());
+        });
+    }
+
+}
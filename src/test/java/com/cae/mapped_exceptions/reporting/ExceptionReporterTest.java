@@ -0,0 +1,167 @@
+package com.cae.mapped_exceptions.reporting;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(MockitoExtension.class)
+class ExceptionReporterTest {
+
+    private final List<ExceptionReport> reports = new CopyOnWriteArrayList<>();
+
+    @Test
+    void shouldCollapseIdenticalExceptionsWithinTheWindow(){
+        var reporter = ExceptionReporter.start(this.reports::add, 64, Duration.ofMinutes(1));
+        for (var index = 0; index < 5; index ++){
+            reporter.report(new NotFoundMappedException("Company not found"));
+        }
+        reporter.report(new NotFoundMappedException("Branch not found"));
+        reporter.report(new InputMappedException("Invalid name"));
+        reporter.close();
+        Assertions.assertEquals(3, this.reports.size());
+        this.reports.sort(Comparator.comparing(ExceptionReport::getBriefPublicMessage));
+        Assertions.assertEquals("Branch not found", this.reports.get(0).getBriefPublicMessage());
+        Assertions.assertEquals(1, this.reports.get(0).getCount());
+        Assertions.assertEquals("Company not found", this.reports.get(1).getBriefPublicMessage());
+        Assertions.assertEquals(5, this.reports.get(1).getCount());
+        Assertions.assertEquals(NotFoundMappedException.class, this.reports.get(1).getType());
+        Assertions.assertEquals(InputMappedException.class, this.reports.get(2).getType());
+        var statistics = reporter.getStatistics();
+        Assertions.assertEquals(7, statistics.getPublished());
+        Assertions.assertEquals(3, statistics.getForwarded());
+        Assertions.assertEquals(4, statistics.getCollapsed());
+        Assertions.assertEquals(0, statistics.getDropped());
+    }
+
+    @Test
+    void shouldKeepExceptionsFromDifferentSitesApart(){
+        var reporter = ExceptionReporter.start(this.reports::add, 64, Duration.ofMinutes(1));
+        reporter.report(new NotFoundMappedException("Company not found"));
+        reporter.report(new NotFoundMappedException("Company not found"));
+        reporter.close();
+        Assertions.assertEquals(2, this.reports.size());
+    }
+
+    @Test
+    void shouldRenderTheStackTraceOffTheReportingThread(){
+        var reporter = ExceptionReporter.start(this.reports::add);
+        var exception = new NotFoundMappedException("Company not found");
+        reporter.report(exception);
+        reporter.close();
+        var report = this.reports.get(0);
+        Assertions.assertSame(exception, report.getException());
+        Assertions.assertEquals(exception.fingerprint(), report.getFingerprint());
+        Assertions.assertTrue(report.getRenderedStackTrace().startsWith(exception.toString()));
+        Assertions.assertTrue(report.getRenderedStackTrace().contains("shouldRenderTheStackTraceOffTheReportingThread"));
+    }
+
+    @Test
+    void shouldForwardOnceTheWindowEnds() throws InterruptedException {
+        var forwarded = new CountDownLatch(1);
+        var reporter = ExceptionReporter.start(report -> forwarded.countDown(), 64, Duration.ofMillis(10));
+        reporter.report(new NotFoundMappedException("Company not found"));
+        Assertions.assertTrue(forwarded.await(5, TimeUnit.SECONDS));
+        reporter.close();
+    }
+
+    @Test
+    void shouldWakeUpWhenReportedToWhileIdle() throws InterruptedException {
+        var forwarded = new CountDownLatch(2);
+        var reporter = ExceptionReporter.start(report -> forwarded.countDown(), 64, Duration.ZERO);
+        reporter.report(new NotFoundMappedException("Company not found"));
+        Thread.sleep(50);
+        reporter.report(new NotFoundMappedException("Branch not found"));
+        Assertions.assertTrue(forwarded.await(5, TimeUnit.SECONDS));
+        reporter.close();
+    }
+
+    @Test
+    void shouldDropWhenTheBufferIsFull() throws InterruptedException {
+        var sinkEntered = new CountDownLatch(1);
+        var sinkReleased = new CountDownLatch(1);
+        var reporter = ExceptionReporter.start(report -> {
+            this.reports.add(report);
+            sinkEntered.countDown();
+            awaitQuietly(sinkReleased);
+        }, 4, Duration.ZERO);
+        reporter.report(new NotFoundMappedException("Blocking the sink"));
+        Assertions.assertTrue(sinkEntered.await(5, TimeUnit.SECONDS));
+        for (var index = 0; index < 4; index ++){
+            Assertions.assertTrue(reporter.report(new InputMappedException("Buffered")));
+        }
+        Assertions.assertFalse(reporter.report(new InputMappedException("Dropped")));
+        sinkReleased.countDown();
+        reporter.close();
+        var statistics = reporter.getStatistics();
+        Assertions.assertEquals(1, statistics.getDropped());
+        Assertions.assertEquals(5, statistics.getPublished());
+        Assertions.assertEquals(5, this.reports.stream().mapToLong(ExceptionReport::getCount).sum());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch){
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void shouldSurviveFailingSinks(){
+        var reporter = ExceptionReporter.start(report -> { throw new IllegalStateException("Sink down"); });
+        reporter.report(new NotFoundMappedException("Company not found"));
+        reporter.report(new InputMappedException("Invalid name"));
+        reporter.close();
+        Assertions.assertEquals(2, reporter.getStatistics().getSinkFailures());
+        Assertions.assertEquals(0, reporter.getStatistics().getForwarded());
+    }
+
+    @Test
+    void shouldDropAfterClosing(){
+        var reporter = ExceptionReporter.start(this.reports::add);
+        reporter.close();
+        Assertions.assertFalse(reporter.isRunning());
+        Assertions.assertFalse(reporter.report(new NotFoundMappedException("Too late")));
+        Assertions.assertEquals(1, reporter.getStatistics().getDropped());
+        Assertions.assertTrue(this.reports.isEmpty());
+    }
+
+    @Test
+    void shouldRejectNegativeWindows(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExceptionReporter.start(this.reports::add, 8, Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void shouldNotLoseReportsOfConcurrentThrowers() throws InterruptedException {
+        var reporter = ExceptionReporter.start(this.reports::add, 1_024, Duration.ofMillis(5));
+        var threads = new Thread[4];
+        for (var thread = 0; thread < threads.length; thread ++){
+            threads[thread] = new Thread(() -> {
+                for (var index = 0; index < 1_000; index ++){
+                    MappedException exception = new NotFoundMappedException("Company not found", true);
+                    reporter.report(exception);
+                }
+            });
+            threads[thread].start();
+        }
+        for (var thread : threads){
+            thread.join();
+        }
+        reporter.close();
+        var statistics = reporter.getStatistics();
+        Assertions.assertEquals(4_000, statistics.getPublished() + statistics.getDropped());
+        Assertions.assertEquals(statistics.getPublished(), this.reports.stream().mapToLong(ExceptionReport::getCount).sum());
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.cae.mapped_exceptions.results;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+
+@ExtendWith(MockitoExtension.class)
+class MappedResultTest {
+
+    @Test
+    void shouldMapAndFlatMapSuccessfulResults(){
+        var result = MappedResult.success("42")
+                .map(Integer::parseInt)
+                .flatMap(number -> MappedResult.success(number * 2));
+        Assertions.assertTrue(result.isSuccess());
+        Assertions.assertEquals(84, result.orElseThrow());
+    }
+
+    @Test
+    void shouldPropagateFailuresWithoutCallingTheMappers(){
+        MappedResult<String> failure = MappedResult.failure(MappedExceptionCategory.INPUT, "Invalid name", "Name is blank");
+        MappedResult<Integer> mapped = failure
+                .map(value -> Assertions.<Integer>fail("should not map"))
+                .flatMap(value -> Assertions.fail("should not flatMap"));
+        Assertions.assertSame(failure, mapped);
+        Assertions.assertEquals(MappedExceptionCategory.INPUT, mapped.getCategory());
+        Assertions.assertEquals("Invalid name", mapped.getBriefPublicMessage());
+        Assertions.assertEquals("Name is blank", mapped.getDetails().orElseThrow());
+    }
+
+    @Test
+    void shouldRecoverFailures(){
+        MappedResult<String> failure = MappedResult.failure(MappedExceptionCategory.NOT_FOUND, "Company not found");
+        Assertions.assertEquals("fallback: Company not found", failure.recover(result -> "fallback: " + result.getBriefPublicMessage()).orElseThrow());
+        Assertions.assertSame(failure, failure.recover(MappedExceptionCategory.INPUT, result -> "other"));
+        Assertions.assertEquals("default", failure.recover(MappedExceptionCategory.NOT_FOUND, result -> "default").orElseThrow());
+        var success = MappedResult.success("value");
+        Assertions.assertSame(success, success.recover(result -> "other"));
+    }
+
+    @Test
+    void shouldThrowTheMatchingSpecificsExceptionAtTheBoundary(){
+        MappedResult<String> input = MappedResult.failure(MappedExceptionCategory.INPUT, "Invalid name", "Name is blank");
+        var inputException = Assertions.assertThrows(InputMappedException.class, input::orElseThrow);
+        Assertions.assertEquals("Invalid name | Name is blank", inputException.getMessage());
+        MappedResult<String> notFound = MappedResult.failure(MappedExceptionCategory.NOT_FOUND, "Company not found");
+        var notFoundException = Assertions.assertThrows(NotFoundMappedException.class, notFound::orElseThrow);
+        Assertions.assertEquals("Company not found", notFoundException.getMessage());
+        var original = new IOException("broken pipe");
+        MappedResult<String> internal = MappedResult.failure(MappedExceptionCategory.INTERNAL, "Failed", "While writing", original);
+        var internalException = Assertions.assertThrows(InternalMappedException.class, internal::orElseThrow);
+        Assertions.assertSame(original, internalException.getOriginalException().orElseThrow());
+        MappedResult<String> unmapped = MappedResult.failure(MappedExceptionCategory.UNMAPPED, "Unmapped");
+        Assertions.assertEquals(MappedException.class, Assertions.assertThrows(MappedException.class, unmapped::orElseThrow).getClass());
+    }
+
+    @Test
+    void shouldBridgeFromThrowingCode(){
+        MappedResult<String> failure = MappedResult.catching(() -> {
+            throw new NotFoundMappedException("Company not found", "No company under the id 42");
+        });
+        Assertions.assertEquals(MappedExceptionCategory.NOT_FOUND, failure.getCategory());
+        Assertions.assertEquals("No company under the id 42", failure.getDetails().orElseThrow());
+        Assertions.assertEquals("value", MappedResult.catching(() -> "value").orElseThrow());
+    }
+
+    @Test
+    void shouldRejectFailureInfoOnSuccessfulResults(){
+        var success = MappedResult.success("value");
+        Assertions.assertThrows(IllegalStateException.class, success::getCategory);
+        Assertions.assertThrows(IllegalStateException.class, success::toException);
+        Assertions.assertTrue(success.getDetails().isEmpty());
+    }
+
+    @Test
+    void shouldKeepValueSemantics(){
+        Assertions.assertEquals(MappedResult.success("a"), MappedResult.success("a"));
+        Assertions.assertEquals(
+                MappedResult.failure(MappedExceptionCategory.INPUT, "Invalid", "blank"),
+                MappedResult.failure(MappedExceptionCategory.INPUT, "Invalid", "blank")
+        );
+        Assertions.assertEquals("Failure[INPUT: Invalid | blank]", MappedResult.failure(MappedExceptionCategory.INPUT, "Invalid", "blank").toString());
+        Assertions.assertEquals("Success[a]", MappedResult.success("a").toString());
+    }
+
+}
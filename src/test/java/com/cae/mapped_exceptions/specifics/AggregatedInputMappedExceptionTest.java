@@ -0,0 +1,75 @@
+package com.cae.mapped_exceptions.specifics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+@ExtendWith(MockitoExtension.class)
+class AggregatedInputMappedExceptionTest {
+
+    @Test
+    void shouldBeAnInputMappedException(){
+        var exception = new AggregatedInputMappedException("Invalid import", InputViolations.create().add("a", "A", "First"));
+        Assertions.assertTrue(exception instanceof InputMappedException);
+        Assertions.assertEquals("Invalid import", exception.getBriefPublicMessage());
+        Assertions.assertTrue(exception.isStackTraceCaptured());
+    }
+
+    @Test
+    void shouldOnlyListTheFirstViolationsInTheDetails(){
+        var violations = InputViolations.create();
+        for (var row = 0; row < 10_000; row ++){
+            violations.add("rows[" + row + "].email", "EMAIL", "Invalid email");
+        }
+        var exception = new AggregatedInputMappedException("Invalid import", violations);
+        var details = exception.getDetails().orElseThrow();
+        var separator = System.lineSeparator();
+        Assertions.assertTrue(details.startsWith("10000 violation(s)" + separator + "rows[0].email [EMAIL]: Invalid email"));
+        Assertions.assertTrue(details.contains("rows[9].email"));
+        Assertions.assertFalse(details.contains("rows[10].email"));
+        Assertions.assertTrue(details.endsWith("... and 9990 more violation(s)"));
+        Assertions.assertTrue(exception.getMessage().startsWith("Invalid import | 10000 violation(s)"));
+    }
+
+    @Test
+    void shouldRenderAllTheRetainedViolations() throws IOException {
+        var violations = InputViolations.retainingUpTo(50);
+        for (var row = 0; row < 60; row ++){
+            violations.add("rows[" + row + "]", "CODE", "Invalid");
+        }
+        var exception = new AggregatedInputMappedException("Invalid import", violations);
+        var rendered = new StringBuilder();
+        exception.renderViolationsTo(rendered);
+        var lines = rendered.toString().split(System.lineSeparator());
+        Assertions.assertEquals(51, lines.length);
+        Assertions.assertEquals("rows[49] [CODE]: Invalid", lines[49]);
+        Assertions.assertEquals("... and 10 more violation(s)", lines[50]);
+    }
+
+    @Test
+    void shouldSerializeWithTheDetailsResolved() throws Exception {
+        var exception = new AggregatedInputMappedException("Invalid import", InputViolations.create().add("a", "A", "First"));
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)){
+            output.writeObject(exception);
+        }
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+            var read = (AggregatedInputMappedException) input.readObject();
+            Assertions.assertEquals(exception.getDetails(), read.getDetails());
+            Assertions.assertEquals(exception.getMessage(), read.getMessage());
+            Assertions.assertEquals(1, read.getViolations().size());
+            Assertions.assertEquals("First", read.getViolations().getBriefMessageAt(0));
+            var rendered = new StringBuilder();
+            read.renderViolationsTo(rendered);
+            Assertions.assertEquals("a [A]: First", rendered.toString());
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.cae.mapped_exceptions.specifics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+@ExtendWith(MockitoExtension.class)
+class InputViolationsTest {
+
+    @Test
+    void shouldKeepViolationsInTheOrderTheyWereAdded(){
+        var violations = InputViolations.create()
+                .add("rows[0].email", "EMAIL", "Invalid email", "missing @")
+                .add("rows[1].age", "RANGE", "Age out of range");
+        Assertions.assertEquals(2, violations.size());
+        Assertions.assertEquals("rows[0].email", violations.getFieldPathAt(0));
+        Assertions.assertEquals("EMAIL", violations.getCodeAt(0));
+        Assertions.assertEquals("Invalid email", violations.getBriefMessageAt(0));
+        Assertions.assertEquals("missing @", violations.getDetailsAt(0));
+        Assertions.assertNull(violations.getDetailsAt(1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> violations.getCodeAt(2));
+    }
+
+    @Test
+    void shouldOnlyCountViolationsOverTheCap(){
+        var violations = InputViolations.retainingUpTo(100);
+        for (var row = 0; row < 10_000; row ++){
+            violations.add("rows[" + row + "].email", "EMAIL", "Invalid email");
+        }
+        Assertions.assertEquals(100, violations.size());
+        Assertions.assertEquals(9_900, violations.getOverflowCount());
+        Assertions.assertEquals(10_000, violations.getTotalCount());
+        Assertions.assertEquals("rows[99].email", violations.getFieldPathAt(99));
+    }
+
+    @Test
+    void shouldStreamViolationsToConsumers(){
+        var violations = InputViolations.create()
+                .add("a", "A", "First")
+                .add("b", "B", "Second", "more");
+        var streamed = new ArrayList<String>();
+        violations.forEach((fieldPath, code, briefMessage, details) -> streamed.add(fieldPath + code + briefMessage + details));
+        Assertions.assertEquals(java.util.List.of("aAFirstnull", "bBSecondmore"), streamed);
+    }
+
+    @Test
+    void shouldRenderViolationsAndTheOverflow() throws IOException {
+        var violations = InputViolations.retainingUpTo(2)
+                .add("a", "A", "First")
+                .add("b", "B", "Second", "more")
+                .add("c", "C", "Third");
+        var rendered = new StringBuilder();
+        violations.renderTo(rendered);
+        var separator = System.lineSeparator();
+        Assertions.assertEquals("a [A]: First" + separator + "b [B]: Second (more)" + separator + "... and 1 more violation(s)", rendered.toString());
+    }
+
+    @Test
+    void shouldOnlyThrowWhenThereAreViolations(){
+        Assertions.assertDoesNotThrow(() -> InputViolations.create().throwIfAny("Invalid import"));
+        var violations = InputViolations.create().add("a", "A", "First");
+        var exception = Assertions.assertThrows(AggregatedInputMappedException.class, () -> violations.throwIfAny("Invalid import"));
+        Assertions.assertSame(violations, exception.getViolations());
+        Assertions.assertThrows(IllegalStateException.class, () -> violations.add("b", "B", "Second"));
+    }
+
+    @Test
+    void shouldRejectNonPositiveCaps(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> InputViolations.retainingUpTo(0));
+    }
+
+}
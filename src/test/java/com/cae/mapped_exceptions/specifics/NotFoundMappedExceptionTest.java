@@ -82,5 +82,28 @@ class NotFoundMappedExceptionTest {
         Assertions.assertFalse(testSubjectWithoutDetails.getOriginalException().isPresent());
         Assertions.assertFalse(testSubjectWithDetails.getOriginalException().isPresent());
     }
-    
+
+    @Test
+    void shouldDeferTheDetailsBuiltFromATemplate(){
+        var testSubject = NotFoundMappedException.withDetails("Company not found", "No company under the id {}", 42);
+        Assertions.assertEquals("No company under the id 42", testSubject.getDetails().orElseThrow());
+    }
+
+    @Test
+    void shouldDeferTheDetailsBuiltFromASupplier(){
+        var testSubject = NotFoundMappedException.withDeferredDetails("Company not found", () -> "Supplied details");
+        Assertions.assertEquals("Company not found | Supplied details", testSubject.getMessage());
+        var original = new IllegalStateException("Lookup failed");
+        var withOriginal = NotFoundMappedException.withDeferredDetails("Company not found", () -> "Supplied details", original);
+        Assertions.assertSame(original, withOriginal.getOriginalException().orElseThrow());
+    }
+
+    @Test
+    void shouldTakeNullDetailsAlongWithTheOriginalException(){
+        var original = new IllegalStateException("Lookup failed");
+        var testSubject = new NotFoundMappedException("Company not found", null, original);
+        Assertions.assertTrue(testSubject.getDetails().isEmpty());
+        Assertions.assertSame(original, testSubject.getOriginalException().orElseThrow());
+    }
+
 }
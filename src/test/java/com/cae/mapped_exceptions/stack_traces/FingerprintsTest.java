@@ -0,0 +1,81 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class FingerprintsTest {
+
+    @Test
+    void shouldGiveTheSameFingerprintToOccurrencesOfTheSameProblem(){
+        var occurrences = new ArrayList<NotFoundMappedException>();
+        for (var index = 0; index < 2; index ++){
+            occurrences.add(new NotFoundMappedException("Company not found", "No company under the id " + index));
+        }
+        Assertions.assertEquals(occurrences.get(0).fingerprint(), occurrences.get(1).fingerprint());
+    }
+
+    @Test
+    void shouldTellDifferentBriefMessagesApart(){
+        var occurrences = new ArrayList<NotFoundMappedException>();
+        for (var briefPublicMessage : List.of("Company not found", "Branch not found")){
+            occurrences.add(new NotFoundMappedException(briefPublicMessage));
+        }
+        Assertions.assertNotEquals(occurrences.get(0).fingerprint(), occurrences.get(1).fingerprint());
+    }
+
+    @Test
+    void shouldTellDifferentThrowSitesApart(){
+        var first = new NotFoundMappedException("Company not found");
+        var second = new NotFoundMappedException("Company not found");
+        Assertions.assertNotEquals(first.fingerprint(), second.fingerprint());
+    }
+
+    @Test
+    void shouldConsiderTheOriginalExceptionChain(){
+        var occurrences = new ArrayList<InternalMappedException>();
+        for (var originalMessage : List.of("first", "second")){
+            var original = originalMessage.equals("first")? new IllegalStateException(originalMessage) : new IllegalArgumentException(originalMessage);
+            occurrences.add(new InternalMappedException("Oops", "Something broke", original));
+        }
+        Assertions.assertNotEquals(occurrences.get(0).fingerprint(), occurrences.get(1).fingerprint());
+    }
+
+    @Test
+    void shouldGiveTheSameFingerprintToTheSameThrowSiteAtDifferentDepths(){
+        var shallower = createAtDepth(20);
+        var deeper = createAtDepth(30);
+        Assertions.assertNotEquals(shallower.getStackTrace().length, deeper.getStackTrace().length);
+        Assertions.assertEquals(shallower.fingerprint(), deeper.fingerprint());
+    }
+
+    private static NotFoundMappedException createAtDepth(int depth){
+        return depth == 0? new NotFoundMappedException("Company not found") : createAtDepth(depth - 1);
+    }
+
+    @Test
+    void shouldCacheTheFingerprintOnTheInstance(){
+        var testSubject = new NotFoundMappedException("Company not found");
+        var fingerprint = testSubject.fingerprint();
+        testSubject.setStackTrace(new StackTraceElement[0]);
+        Assertions.assertEquals(fingerprint, testSubject.fingerprint());
+    }
+
+    @Test
+    void shouldKeepTheSameValueAcrossRuns(){
+        var throwable = new IllegalStateException("whatever");
+        throwable.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("some.Type", "method", "Type.java", 10),
+                new StackTraceElement("some.Caller", "call", "Caller.java", 20)
+        });
+        Assertions.assertEquals(0xa6eff0a3c6a21223L, Fingerprints.of(throwable));
+    }
+
+}
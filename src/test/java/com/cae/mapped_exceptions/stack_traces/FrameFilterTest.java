@@ -0,0 +1,44 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FrameFilterTest {
+
+    @Test
+    void shouldAcceptEverythingWhenThereAreNoRules(){
+        Assertions.assertTrue(FrameFilter.none().isEmpty());
+        Assertions.assertTrue(FrameFilter.none().accepts("jdk.internal.reflect.NativeMethodAccessorImpl"));
+    }
+
+    @Test
+    void shouldRejectClassesMatchingAnExcludedPrefix(){
+        var testSubject = FrameFilter.none().excluding("jdk.internal.reflect.", "org.springframework.");
+        Assertions.assertFalse(testSubject.accepts("jdk.internal.reflect.NativeMethodAccessorImpl"));
+        Assertions.assertFalse(testSubject.accepts("org.springframework.cglib.proxy.MethodProxy"));
+        Assertions.assertTrue(testSubject.accepts("com.company.CompanyService"));
+        Assertions.assertTrue(testSubject.accepts("jdk.internal"));
+    }
+
+    @Test
+    void shouldLetTheLongestMatchingRuleWin(){
+        var testSubject = FrameFilter.none()
+                .excluding("org.springframework.")
+                .including("org.springframework.transaction.")
+                .excluding("org.springframework.transaction.support.");
+        Assertions.assertFalse(testSubject.accepts("org.springframework.web.filter.OncePerRequestFilter"));
+        Assertions.assertTrue(testSubject.accepts("org.springframework.transaction.interceptor.TransactionInterceptor"));
+        Assertions.assertFalse(testSubject.accepts("org.springframework.transaction.support.TransactionTemplate"));
+    }
+
+    @Test
+    void shouldNotChangeTheFilterItDerivesFrom(){
+        var original = FrameFilter.none().excluding("org.junit.");
+        original.including("org.junit.jupiter.");
+        Assertions.assertFalse(original.accepts("org.junit.jupiter.engine.Something"));
+    }
+
+}
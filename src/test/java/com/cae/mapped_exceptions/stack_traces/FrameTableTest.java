@@ -0,0 +1,114 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+@ExtendWith(MockitoExtension.class)
+class FrameTableTest {
+
+    @AfterEach
+    void resetPolicies(){
+        StackTracePolicies.reset();
+    }
+
+    @Test
+    void shouldGiveTheSameIndexToEqualFrames(){
+        var testSubject = FrameTable.withCapacity(8);
+        var first = testSubject.intern(new StackTraceElement("some.Type", "method", "Type.java", 10));
+        var second = testSubject.intern(new StackTraceElement("some.Type", "method", "Type.java", 10));
+        var other = testSubject.intern(new StackTraceElement("some.Type", "method", "Type.java", 11));
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotEquals(first, other);
+        Assertions.assertEquals(2, testSubject.size());
+    }
+
+    @Test
+    void shouldStopInterningOnceFull(){
+        var testSubject = FrameTable.withCapacity(1);
+        Assertions.assertEquals(0, testSubject.intern(new StackTraceElement("some.Type", "method", "Type.java", 10)));
+        Assertions.assertEquals(-1, testSubject.intern(new StackTraceElement("some.Type", "method", "Type.java", 11)));
+        Assertions.assertEquals(1, testSubject.size());
+    }
+
+    @Test
+    void shouldKeepTheOwnFramesOfSnapshotsWhichDoNotFit(){
+        var snapshot = StackSnapshot.of(new StackTraceElement[]{
+                new StackTraceElement("some.Type", "method", "Type.java", 10),
+                new StackTraceElement("some.Type", "method", "Type.java", 11)
+        });
+        Assertions.assertSame(snapshot, snapshot.internedIn(FrameTable.withCapacity(1)));
+        Assertions.assertTrue(snapshot.internedIn(FrameTable.withCapacity(2)).isInterned());
+    }
+
+    @Test
+    void shouldShareTheFramesOfRetainedExceptions(){
+        var table = FrameTable.withCapacity(1024);
+        StackTracePolicies.register(NotFoundMappedException.class, StackTracePolicy.full().withInternedFrames(table));
+        var retained = new ArrayList<NotFoundMappedException>();
+        for (var index = 0; index < 2; index ++){
+            retained.add(new NotFoundMappedException("Not found"));
+        }
+        var firstSnapshot = retained.get(0).getStackSnapshot();
+        var secondSnapshot = retained.get(1).getStackSnapshot();
+        Assertions.assertTrue(table.size() > 0);
+        Assertions.assertTrue(table.size() <= firstSnapshot.getCapturedDepth());
+        for (var index = 0; index < firstSnapshot.getCapturedDepth(); index ++){
+            Assertions.assertSame(firstSnapshot.frameAt(index), secondSnapshot.frameAt(index));
+        }
+    }
+
+    @Test
+    void shouldExpandTheInternedFramesIntoTheStackTrace(){
+        StackTracePolicies.register(NotFoundMappedException.class, StackTracePolicy.full().withInternedFrames(FrameTable.withCapacity(1024)));
+        var testSubject = new NotFoundMappedException("Not found");
+        var lines = testSubject.getLinesFromStackTrace(3);
+        var frames = testSubject.getStackTrace();
+        Assertions.assertEquals(testSubject.getStackSnapshot().getCapturedDepth(), frames.length);
+        Assertions.assertEquals(frames[0].toString(), lines.get(0));
+        var printed = new StringWriter();
+        testSubject.printStackTrace(new PrintWriter(printed));
+        Assertions.assertTrue(printed.toString().contains("\tat " + frames[0]));
+    }
+
+    @Test
+    void shouldPrintTheInternedFramesOfCauses(){
+        StackTracePolicies.register(NotFoundMappedException.class, StackTracePolicy.full().withInternedFrames(FrameTable.withCapacity(1024)));
+        var cause = new NotFoundMappedException("Not found");
+        var wrapper = new IllegalStateException("Wrapper", cause);
+        wrapper.addSuppressed(new NotFoundMappedException("Suppressed"));
+        var printed = new StringWriter();
+        wrapper.printStackTrace(new PrintWriter(printed));
+        var causeSection = printed.toString().substring(printed.toString().indexOf("Caused by: "));
+        Assertions.assertTrue(causeSection.contains("\tat " + cause.getStackSnapshot().frameAt(0)));
+        var suppressedSection = printed.toString().substring(printed.toString().indexOf("Suppressed: "));
+        Assertions.assertTrue(suppressedSection.contains("\tat "));
+    }
+
+    @Test
+    void shouldSerializeTheInternedFrames() throws Exception {
+        StackTracePolicies.register(NotFoundMappedException.class, StackTracePolicy.full().withInternedFrames(FrameTable.withCapacity(1024)));
+        var testSubject = new NotFoundMappedException("Not found");
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)){
+            output.writeObject(testSubject);
+        }
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+            var read = (NotFoundMappedException) input.readObject();
+            Assertions.assertEquals(testSubject.getStackSnapshot().getCapturedDepth(), read.getStackTrace().length);
+            Assertions.assertEquals(testSubject.getStackSnapshot().frameAt(0), read.getStackTrace()[0]);
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+@ExtendWith(MockitoExtension.class)
+class StackCaptureTest {
+
+    @AfterEach
+    void resetPolicies(){
+        StackTracePolicies.reset();
+    }
+
+    @Test
+    void shouldOnlyKeepTheTopFramesWhenTheTypeIsBounded(){
+        StackTracePolicies.register(BoundedException.class, StackTracePolicy.topFrames(3));
+        var testSubject = new BoundedException();
+        Assertions.assertEquals(3, testSubject.getStackTrace().length);
+    }
+
+    @Test
+    void shouldStartTheCapturedFramesAtTheThrowSite(){
+        StackTracePolicies.register(BoundedException.class, StackTracePolicy.topFrames(3));
+        var testSubject = new BoundedException();
+        var topFrame = testSubject.getStackTrace()[0];
+        Assertions.assertEquals(StackCaptureTest.class.getName(), topFrame.getClassName());
+        Assertions.assertEquals("shouldStartTheCapturedFramesAtTheThrowSite", topFrame.getMethodName());
+    }
+
+    @Test
+    void shouldCaptureTheSameFramesAsTheJvmDoes(){
+        StackTracePolicies.register(BoundedException.class, StackTracePolicy.topFrames(5));
+        var exceptions = this.createBothKindsOfExceptions();
+        var fullFrames = exceptions[0].getStackTrace();
+        var boundedFrames = exceptions[1].getStackTrace();
+        for (var index = 0; index < boundedFrames.length; index ++){
+            Assertions.assertEquals(fullFrames[index].getClassName(), boundedFrames[index].getClassName());
+            Assertions.assertEquals(fullFrames[index].getMethodName(), boundedFrames[index].getMethodName());
+        }
+    }
+
+    @Test
+    void shouldKeepCountingTheHiddenLinesBeyondTheCapturedFrames(){
+        StackTracePolicies.register(BoundedException.class, StackTracePolicy.topFrames(5));
+        var exceptions = this.createBothKindsOfExceptions();
+        var fullLines = exceptions[0].getLinesFromStackTrace(5);
+        var boundedLines = exceptions[1].getLinesFromStackTrace(5);
+        Assertions.assertEquals(6, boundedLines.size());
+        Assertions.assertEquals(fullLines.get(5), boundedLines.get(5));
+    }
+
+    @Test
+    void shouldCountTheFramesBeyondTheCapturedOnesAsHiddenWhenMoreLinesAreRequested(){
+        StackTracePolicies.register(BoundedException.class, StackTracePolicy.topFrames(2));
+        var exceptions = this.createBothKindsOfExceptions();
+        var totalDepth = exceptions[0].getStackTrace().length;
+        var boundedLines = exceptions[1].getLinesFromStackTrace(10);
+        Assertions.assertEquals(3, boundedLines.size());
+        Assertions.assertEquals(totalDepth - 2 + " hidden line(s)", boundedLines.get(2));
+    }
+
+    @Test
+    void shouldLeaveTheFilteredFramesOutOfTheCapture(){
+        var filter = FrameFilter.none().excluding("org.junit.", "jdk.internal.reflect.", "java.lang.reflect.");
+        StackTracePolicies.register(BoundedException.class, StackTracePolicy.full().withFrameFilter(filter));
+        var testSubject = new BoundedException();
+        Assertions.assertTrue(testSubject.getStackTrace().length > 0);
+        for (var frame : testSubject.getStackTrace()){
+            Assertions.assertTrue(filter.accepts(frame.getClassName()), frame.toString());
+        }
+        Assertions.assertTrue(testSubject.getStackSnapshot().getFilteredDepth() > 0);
+    }
+
+    @Test
+    void shouldTellFilteredFromTruncatedHiddenLines(){
+        var filter = FrameFilter.none().excluding("org.junit.");
+        StackTracePolicies.register(BoundedException.class, StackTracePolicy.topFrames(2).withFrameFilter(filter));
+        var exceptions = this.createBothKindsOfExceptions();
+        var totalDepth = exceptions[0].getStackTrace().length;
+        var snapshot = exceptions[1].getStackSnapshot();
+        var filtered = snapshot.getFilteredDepth();
+        var lines = exceptions[1].getLinesFromStackTrace(2);
+        Assertions.assertEquals(totalDepth, snapshot.getTotalDepth());
+        Assertions.assertEquals(
+                (totalDepth - 2) + " hidden line(s) (" + filtered + " filtered, " + (totalDepth - 2 - filtered) + " truncated)",
+                lines.get(2)
+        );
+    }
+
+    @Test
+    void shouldNotAcceptNonPositiveBounds(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> StackTracePolicy.topFrames(0));
+    }
+
+    private NotFoundMappedException[] createBothKindsOfExceptions(){
+        return new NotFoundMappedException[]{new NotFoundMappedException("Full"), new BoundedException()};
+    }
+
+    @Test
+    void shouldSerializeBoundedCaptures() throws Exception {
+        StackTracePolicies.register(BoundedException.class, StackTracePolicy.topFrames(3));
+        var testSubject = new BoundedException();
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)){
+            output.writeObject(testSubject);
+        }
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+            var read = (BoundedException) input.readObject();
+            Assertions.assertArrayEquals(testSubject.getStackTrace(), read.getStackTrace());
+            Assertions.assertEquals(3, read.getStackSnapshot().getCapturedDepth());
+        }
+    }
+
+    public static class BoundedException extends NotFoundMappedException{
+
+        public BoundedException() {
+            super("Bounded");
+        }
+    }
+
+}
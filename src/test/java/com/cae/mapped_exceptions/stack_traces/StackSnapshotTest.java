@@ -0,0 +1,42 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StackSnapshotTest {
+
+    @Test
+    void shouldRenderTheRequestedLinesAndTheHiddenOnes(){
+        var testSubject = StackSnapshot.of(this.frames(4));
+        var lines = testSubject.toLines(2);
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertEquals("some.Type.method0(Type.java:0)", lines.get(0));
+        Assertions.assertEquals("2 hidden line(s)", lines.get(2));
+    }
+
+    @Test
+    void shouldNotAddTheHiddenLineWhenEverythingIsShown(){
+        var testSubject = StackSnapshot.of(this.frames(2));
+        Assertions.assertEquals(2, testSubject.toLines(10).size());
+    }
+
+    @Test
+    void shouldCountTheFramesWhichWereNotCapturedAsHidden(){
+        var testSubject = new StackSnapshot(this.frames(2), 7);
+        var lines = testSubject.toLines(10);
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertEquals("5 hidden line(s)", lines.get(2));
+    }
+
+    private StackTraceElement[] frames(int amount){
+        var frames = new StackTraceElement[amount];
+        for (var index = 0; index < amount; index ++){
+            frames[index] = new StackTraceElement("some.Type", "method" + index, "Type.java", index);
+        }
+        return frames;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.MappedException;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class StackTracePoliciesTest {
+
+    @AfterEach
+    void resetPolicies(){
+        StackTracePolicies.reset();
+    }
+
+    @Test
+    void shouldCaptureFullStackTracesByDefault(){
+        Assertions.assertTrue(StackTracePolicies.resolve(NotFoundMappedException.class).isCapturing());
+        Assertions.assertTrue(new NotFoundMappedException("Not found").getStackTrace().length > 0);
+    }
+
+    @Test
+    void shouldSkipTheStackTraceWhenTheTypeIsRegisteredAsStackless(){
+        StackTracePolicies.register(NotFoundMappedException.class, StackTracePolicy.stackless());
+        var testSubject = new NotFoundMappedException("Not found", "Nothing under the id 42");
+        Assertions.assertEquals(0, testSubject.getStackTrace().length);
+        Assertions.assertTrue(testSubject.getLinesFromStackTrace(5).isEmpty());
+    }
+
+    @Test
+    void shouldApplyThePolicyOfTheClosestRegisteredSuperclass(){
+        StackTracePolicies.register(NotFoundMappedException.class, StackTracePolicy.stackless());
+        var testSubject = new CompanyNotFoundException();
+        Assertions.assertEquals(0, testSubject.getStackTrace().length);
+    }
+
+    @Test
+    void shouldKeepFullStackTracesForInternalMappedExceptionsEvenWhenTheBaseTypeIsStackless(){
+        StackTracePolicies.register(MappedException.class, StackTracePolicy.stackless());
+        Assertions.assertEquals(0, new NotFoundMappedException("Not found").getStackTrace().length);
+        Assertions.assertTrue(new InternalMappedException("Oops", "Something broke").getStackTrace().length > 0);
+    }
+
+    @Test
+    void shouldGoBackToCapturingAfterTheRegistrationIsRemoved(){
+        StackTracePolicies.register(NotFoundMappedException.class, StackTracePolicy.stackless());
+        StackTracePolicies.unregister(NotFoundMappedException.class);
+        Assertions.assertTrue(new NotFoundMappedException("Not found").getStackTrace().length > 0);
+    }
+
+    public static class CompanyNotFoundException extends NotFoundMappedException{
+
+        public CompanyNotFoundException() {
+            super("Company not found");
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.MappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class StackTraceRenderCacheTest {
+
+    @AfterEach
+    void disableCache(){
+        StackTraceRenderCache.disable();
+    }
+
+    @Test
+    void shouldRenderTheSameFullStackTraceAsPrintStackTraceDoes(){
+        StackTraceRenderCache.enable(32);
+        var testSubject = new RenderedException("Cached", "Some details");
+        var expected = new StringWriter();
+        testSubject.printStackTrace(new PrintWriter(expected));
+        Assertions.assertEquals(expected.toString(), testSubject.fullStackTrace());
+        Assertions.assertEquals(expected.toString(), testSubject.fullStackTrace());
+    }
+
+    @Test
+    void shouldServeRepeatedRendersOfTheSameSiteFromTheCache(){
+        var cache = StackTraceRenderCache.enable(32);
+        var renders = new ArrayList<String>();
+        for (var index = 0; index < 3; index ++){
+            renders.add(new RenderedException("Cached", "Occurrence " + index).fullStackTrace());
+        }
+        Assertions.assertTrue(renders.get(2).contains("Occurrence 2"));
+        Assertions.assertEquals(1, cache.getStatistics().getMisses());
+        Assertions.assertEquals(2, cache.getStatistics().getHits());
+    }
+
+    @Test
+    void shouldServeRepeatedLinesFromTheCacheAsIndependentLists(){
+        var cache = StackTraceRenderCache.enable(32);
+        var lines = new ArrayList<List<String>>();
+        for (var index = 0; index < 2; index ++){
+            lines.add(new RenderedException("Cached").getLinesFromStackTrace(3));
+        }
+        Assertions.assertEquals(lines.get(0), lines.get(1));
+        lines.get(0).clear();
+        Assertions.assertEquals(4, lines.get(1).size());
+        Assertions.assertEquals(1, cache.getStatistics().getHits());
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedEntriesOnceFull(){
+        var cache = StackTraceRenderCache.enable(1);
+        cache.getFullRender(1L, () -> "first");
+        cache.getFullRender(2L, () -> "second");
+        Assertions.assertEquals("second", cache.getFullRender(2L, () -> "not cached"));
+        Assertions.assertEquals("rendered again", cache.getFullRender(1L, () -> "rendered again"));
+        var statistics = cache.getStatistics();
+        Assertions.assertEquals(1, statistics.getSize());
+        Assertions.assertEquals(2, statistics.getEvictions());
+        Assertions.assertEquals(1, statistics.getHits());
+        Assertions.assertEquals(3, statistics.getMisses());
+    }
+
+    @Test
+    void shouldKeepAsManyEntriesAsRequested(){
+        var cache = StackTraceRenderCache.enable(20);
+        for (var key = 1L; key <= 20L; key ++){
+            cache.getFullRender(key, () -> "rendered");
+        }
+        var statistics = cache.getStatistics();
+        Assertions.assertEquals(20, statistics.getMaxEntries());
+        Assertions.assertEquals(20, statistics.getSize());
+        Assertions.assertEquals(0, statistics.getEvictions());
+        Assertions.assertEquals(1_000, StackTraceRenderCache.enable(1_000).getStatistics().getMaxEntries());
+    }
+
+    @Test
+    void shouldRenderWithoutCachingWhenDisabled(){
+        var testSubject = new RenderedException("Not cached");
+        Assertions.assertNull(StackTraceRenderCache.active());
+        Assertions.assertTrue(testSubject.fullStackTrace().startsWith(testSubject.toString()));
+    }
+
+    @Test
+    void shouldKeepTheRendersOfDifferentDepthsApart(){
+        var frames = new StackTraceElement[]{new StackTraceElement("some.Type", "method", "Type.java", 10)};
+        var shallower = StackSnapshot.of(frames, 20);
+        var deeper = StackSnapshot.of(frames, 30);
+        Assertions.assertNotEquals(StackTraceRenderCache.keyOf(shallower), StackTraceRenderCache.keyOf(deeper));
+    }
+
+    public static class RenderedException extends MappedException{
+
+        public RenderedException(String briefPublicMessage) {
+            super(briefPublicMessage);
+        }
+
+        public RenderedException(String briefPublicMessage, String details) {
+            super(briefPublicMessage, details);
+        }
+
+        public String fullStackTrace(){
+            return this.getFullStackTraceAsString();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+@ExtendWith(MockitoExtension.class)
+class StackTraceRendererTest {
+
+    @Test
+    void shouldRenderJustLikePrintStackTraceByDefault() throws IOException {
+        var throwable = new IllegalStateException("Outer", new IllegalArgumentException("Inner"));
+        var expected = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(expected));
+        var actual = new StringWriter();
+        StackTraceRenderer.defaults().render(throwable, actual);
+        Assertions.assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void shouldRenderTheOriginalExceptionOfMappedExceptionsAsTheirCause() throws IOException {
+        var originalException = new IllegalArgumentException("Inner");
+        var testSubject = new InternalMappedException("Oops", "Something broke", originalException);
+        var actual = new StringBuilder();
+        StackTraceRenderer.defaults().render(testSubject, actual);
+        Assertions.assertTrue(actual.toString().startsWith(testSubject + System.lineSeparator()));
+        Assertions.assertTrue(actual.toString().contains("Caused by: " + originalException + System.lineSeparator()));
+    }
+
+    @Test
+    void shouldLimitTheFramesRenderedPerCause() throws IOException {
+        var throwable = new IllegalStateException("Outer");
+        var totalFrames = throwable.getStackTrace().length;
+        var actual = new StringBuilder();
+        StackTraceRenderer.defaults().withMaxFramesPerCause(2).render(throwable, actual);
+        var lines = actual.toString().split(System.lineSeparator());
+        Assertions.assertEquals(4, lines.length);
+        Assertions.assertEquals("\t... " + (totalFrames - 2) + " more", lines[3]);
+    }
+
+    @Test
+    void shouldStopAtTheMaximumDepth() throws IOException {
+        var throwable = new IllegalStateException("Outer", new IllegalArgumentException("Inner"));
+        var actual = new StringBuilder();
+        StackTraceRenderer.defaults().withMaxDepth(1).render(throwable, actual);
+        Assertions.assertFalse(actual.toString().contains("Caused by"));
+    }
+
+    @Test
+    void shouldRenderEveryFrameOfTheCauseWhenNotCollapsing() throws IOException {
+        var cause = new IllegalArgumentException("Inner");
+        var throwable = new IllegalStateException("Outer", cause);
+        var actual = new StringBuilder();
+        StackTraceRenderer.defaults().withCommonFramesCollapsed(false).render(throwable, actual);
+        Assertions.assertFalse(actual.toString().contains(" more"));
+        var causeLines = actual.substring(actual.indexOf("Caused by")).split(System.lineSeparator());
+        Assertions.assertEquals(cause.getStackTrace().length + 1, causeLines.length);
+    }
+
+    @Test
+    void shouldWriteTheSameContentAsUtf8IntoByteBuffers() throws IOException {
+        var throwable = new IllegalStateException("Olá mundo 😀", new IllegalArgumentException("ção"));
+        var expected = new StringBuilder();
+        StackTraceRenderer.defaults().render(throwable, expected);
+        var buffer = ByteBuffer.allocate(64 * 1024);
+        StackTraceRenderer.defaults().render(throwable, buffer);
+        buffer.flip();
+        Assertions.assertEquals(expected.toString(), StandardCharsets.UTF_8.decode(buffer).toString());
+    }
+
+    @Test
+    void shouldNotLoopOverCircularChains() throws IOException {
+        var first = new IllegalStateException("First");
+        var second = new IllegalArgumentException("Second", first);
+        first.initCause(second);
+        var actual = new StringBuilder();
+        StackTraceRenderer.defaults().render(first, actual);
+        Assertions.assertTrue(actual.toString().contains("Caused by: [CIRCULAR REFERENCE: " + first + "]"));
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.cae.mapped_exceptions.stack_traces;
+
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+@ExtendWith(MockitoExtension.class)
+class StackTraceSamplerTest {
+
+    private static final ThrowSite SITE = new ThrowSite(InternalMappedException.class, "some.Type", "method", 10);
+    private static final ThrowSite OTHER_SITE = new ThrowSite(InternalMappedException.class, "some.Type", "method", 20);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @AfterEach
+    void resetPolicies(){
+        StackTracePolicies.reset();
+    }
+
+    @Test
+    void shouldCaptureTheFirstOccurrencesAndThenOneInN(){
+        var testSubject = new StackTraceSampler(3, Duration.ofMinutes(1), 5, this.clock::get);
+        var decisions = new ArrayList<Boolean>();
+        for (var occurrence = 1; occurrence <= 13; occurrence ++){
+            decisions.add(testSubject.shouldCapture(SITE));
+        }
+        for (var occurrence = 1; occurrence <= 13; occurrence ++){
+            var expected = occurrence <= 3 || occurrence == 8 || occurrence == 13;
+            Assertions.assertEquals(expected, decisions.get(occurrence - 1), "occurrence " + occurrence);
+        }
+    }
+
+    @Test
+    void shouldCountEachThrowSiteSeparately(){
+        var testSubject = new StackTraceSampler(1, Duration.ofMinutes(1), 1000, this.clock::get);
+        Assertions.assertTrue(testSubject.shouldCapture(SITE));
+        Assertions.assertFalse(testSubject.shouldCapture(SITE));
+        Assertions.assertTrue(testSubject.shouldCapture(OTHER_SITE));
+    }
+
+    @Test
+    void shouldStartCountingOverWhenTheWindowElapses(){
+        var testSubject = new StackTraceSampler(1, Duration.ofSeconds(10), 1000, this.clock::get);
+        Assertions.assertTrue(testSubject.shouldCapture(SITE));
+        Assertions.assertFalse(testSubject.shouldCapture(SITE));
+        this.clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        Assertions.assertTrue(testSubject.shouldCapture(SITE));
+    }
+
+    @Test
+    void shouldKeepCollidingSitesApartWhileThereAreFreeSlots(){
+        var testSubject = new StackTraceSampler(1, Duration.ofMinutes(1), 1000, this.clock::get, 2);
+        Assertions.assertTrue(testSubject.shouldCapture(SITE));
+        Assertions.assertTrue(testSubject.shouldCapture(OTHER_SITE));
+        Assertions.assertFalse(testSubject.shouldCapture(SITE));
+        Assertions.assertFalse(testSubject.shouldCapture(OTHER_SITE));
+    }
+
+    @Test
+    void shouldSampleCollidingSitesTogetherOnceTheSlotsAreTaken(){
+        var testSubject = new StackTraceSampler(2, Duration.ofMinutes(1), 100, this.clock::get, 1);
+        var captured = 0;
+        for (var occurrence = 0; occurrence < 1_000; occurrence ++){
+            if (testSubject.shouldCapture(occurrence % 2 == 0? SITE : OTHER_SITE)){
+                captured ++;
+            }
+        }
+        Assertions.assertEquals(2 + 9, captured);
+    }
+
+    @Test
+    void shouldNotAcceptTablesSizedOtherThanPowersOfTwo(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new StackTraceSampler(1, Duration.ofSeconds(1), 1, this.clock::get, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new StackTraceSampler(1, Duration.ofSeconds(1), 1, this.clock::get, 24));
+    }
+
+    @Test
+    void shouldNotAcceptInvalidRates(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> StackTracePolicy.sampled(1, Duration.ofSeconds(1), 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> StackTracePolicy.sampled(1, Duration.ZERO, 1));
+    }
+
+    @Test
+    void shouldExposeWhetherEachExceptionWasSampled(){
+        StackTracePolicies.register(InternalMappedException.class, StackTracePolicy.sampled(2, Duration.ofMinutes(1), 1000));
+        var captured = new ArrayList<InternalMappedException>();
+        for (var occurrence = 0; occurrence < 4; occurrence ++){
+            captured.add(new InternalMappedException("Oops", "Something broke"));
+        }
+        Assertions.assertTrue(captured.get(0).isStackTraceCaptured());
+        Assertions.assertTrue(captured.get(1).isStackTraceCaptured());
+        Assertions.assertFalse(captured.get(2).isStackTraceCaptured());
+        Assertions.assertFalse(captured.get(3).isStackTraceCaptured());
+        Assertions.assertTrue(captured.get(0).getStackTrace().length > 0);
+        Assertions.assertEquals(0, captured.get(3).getStackTrace().length);
+    }
+
+    @Test
+    void shouldStartTheSampledCapturesAtTheThrowSite(){
+        StackTracePolicies.register(InternalMappedException.class, StackTracePolicy.sampled(1, Duration.ofMinutes(1), 1000));
+        var testSubject = new InternalMappedException("Oops", "Something broke");
+        var throwSite = testSubject.getStackTrace()[0];
+        Assertions.assertEquals(StackTraceSamplerTest.class.getName(), throwSite.getClassName());
+        Assertions.assertEquals("shouldStartTheSampledCapturesAtTheThrowSite", throwSite.getMethodName());
+    }
+
+    @Test
+    void shouldCombineSamplingWithBoundedCapture(){
+        StackTracePolicies.register(InternalMappedException.class, StackTracePolicy.topFrames(2).withSampling(1, Duration.ofMinutes(1), 1000));
+        var first = new InternalMappedException("Oops", "Something broke");
+        Assertions.assertTrue(first.isStackTraceCaptured());
+        Assertions.assertEquals(2, first.getStackTrace().length);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.cae.mapped_exceptions.translation;
+
+import com.cae.mapped_exceptions.classification.MappedExceptionCategory;
+import com.cae.mapped_exceptions.specifics.InputMappedException;
+import com.cae.mapped_exceptions.specifics.InternalMappedException;
+import com.cae.mapped_exceptions.specifics.NotFoundMappedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+class ExceptionTranslatorTest {
+
+    private final ExceptionTranslator testSubject = ExceptionTranslator.create()
+            .withRule(TranslationRule.forType(SQLException.class).withSqlState("23505").translatingTo(MappedExceptionCategory.INPUT, "Already exists"))
+            .withRule(TranslationRule.forType(SQLException.class).withVendorCode(1403).translatingTo(MappedExceptionCategory.NOT_FOUND, "No data"))
+            .withRule(TranslationRule.forType(FileNotFoundException.class).translatingTo(MappedExceptionCategory.NOT_FOUND, "File not found"))
+            .withRule(TranslationRule.forType(IOException.class).withMessageMatching(message -> message.contains("reset")).translatingTo(MappedExceptionCategory.INTERNAL, "Connection reset"))
+            .withRule(TranslationRule.forType(TimeoutException.class).translatingTo(MappedExceptionCategory.INTERNAL, "Timed out"));
+
+    @Test
+    void shouldTranslateBySqlState(){
+        var sqlException = new SQLException("duplicate key", "23505", 0);
+        var translated = this.testSubject.translate(sqlException);
+        Assertions.assertTrue(translated instanceof InputMappedException);
+        Assertions.assertEquals("Already exists", translated.getBriefPublicMessage());
+        Assertions.assertEquals("duplicate key", translated.getDetails().orElseThrow());
+        Assertions.assertSame(sqlException, translated.getOriginalException().orElseThrow());
+    }
+
+    @Test
+    void shouldTranslateByVendorCode(){
+        var translated = this.testSubject.translate(new SQLException("no data found", "02000", 1403));
+        Assertions.assertTrue(translated instanceof NotFoundMappedException);
+    }
+
+    @Test
+    void shouldTranslateByTypeIncludingSubtypes(){
+        var translated = this.testSubject.translate(new FileNotFoundException("report.csv"));
+        Assertions.assertTrue(translated instanceof NotFoundMappedException);
+        Assertions.assertEquals("File not found", translated.getBriefPublicMessage());
+    }
+
+    @Test
+    void shouldTranslateByMessage(){
+        var translated = this.testSubject.translate(new IOException("connection reset by peer"));
+        Assertions.assertEquals("Connection reset", translated.getBriefPublicMessage());
+        var notMatching = this.testSubject.translate(new IOException("disk full"));
+        Assertions.assertEquals("Internal error", notMatching.getBriefPublicMessage());
+    }
+
+    @Test
+    void shouldWalkTheCauseChain(){
+        var cause = new SQLException("duplicate key", "23505", 0);
+        var wrapper = new IllegalStateException("Failed to save", cause);
+        var translated = this.testSubject.translate(wrapper);
+        Assertions.assertTrue(translated instanceof InputMappedException);
+        Assertions.assertEquals("duplicate key", translated.getDetails().orElseThrow());
+        Assertions.assertSame(wrapper, translated.getOriginalException().orElseThrow());
+    }
+
+    @Test
+    void shouldReturnMappedExceptionsFoundInTheChainAsTheyAre(){
+        var mapped = new NotFoundMappedException("Company not found");
+        Assertions.assertSame(mapped, this.testSubject.translate(mapped));
+        Assertions.assertSame(mapped, this.testSubject.translate(new UncheckedIOException(new IOException(mapped))));
+    }
+
+    @Test
+    void shouldFallBackWhenNoRuleMatches(){
+        var translated = this.testSubject.translate(new IllegalArgumentException("weird"));
+        Assertions.assertTrue(translated instanceof InternalMappedException);
+        var customFallback = this.testSubject.withFallback(MappedExceptionCategory.INPUT, "Bad request").translate(new IllegalArgumentException("weird"));
+        Assertions.assertTrue(customFallback instanceof InputMappedException);
+    }
+
+    @Test
+    void shouldLeaveTheDetailsOutOfTheMessageWhenTheTranslatedOneHasNone(){
+        var timeout = new TimeoutException();
+        var translatedByRule = this.testSubject.translate(timeout);
+        Assertions.assertTrue(translatedByRule.getDetails().isEmpty());
+        Assertions.assertEquals("Timed out | Original: " + timeout, translatedByRule.getMessage());
+        var unmatched = new IllegalStateException();
+        var translatedByFallback = this.testSubject.translate(unmatched);
+        Assertions.assertTrue(translatedByFallback.getDetails().isEmpty());
+        Assertions.assertEquals("Internal error | Original: " + unmatched, translatedByFallback.getMessage());
+    }
+
+    @Test
+    void shouldAcceptCustomFactories(){
+        var translator = ExceptionTranslator.create()
+                .withRule(TranslationRule.forType(TimeoutException.class).translatingWith((thrown, matched) -> new NotFoundMappedException("Custom", matched.getMessage(), thrown)));
+        var translated = translator.translate(new TimeoutException("slow"));
+        Assertions.assertEquals("Custom | slow | Original: java.util.concurrent.TimeoutException: slow", translated.getMessage());
+    }
+
+}